@@ -12,6 +12,16 @@ public interface Action
      * @param board Le plateau de jeu à modifier
      */
     public void process(Player player, Board board);
+
+    /**
+     * Annule en O(1) les effets du dernier appel à process, à partir de ce que l'action
+     * a noté en s'exécutant (jetons déplacés, case et carte achetée, carte tirée).
+     * Sans effet si process n'a rien changé ou si l'action a déjà été annulée.
+     * Les actions jouées après celle-ci doivent avoir été annulées avant.
+     * @param player Le joueur qui a effectué l'action
+     * @param board Le plateau de jeu
+     */
+    public void undo(Player player, Board board);
     
     /**
      * Retourne une description textuelle de l'action.
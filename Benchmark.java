@@ -0,0 +1,90 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Mesure rapide des opérations du moteur (voir BenchmarkOperations), sans affichage et sans
+ * dépendance : un contrôle de quelques secondes avant d'envoyer un changement. Chaque mesure donne
+ * le temps moyen (ns/op) et la mémoire allouée (octets/op) par opération.
+ *
+ * Les mesures de référence sont celles de JMH (src/jmh/java/bench/EngineBenchmark.java) :
+ * mvn -B -P jmh package, puis java -jar target/benchmarks.jar -prof gc depuis ce dossier.
+ *
+ * Utilisation : java Benchmark [nomDeLOpération ...] (sans argument : toutes les opérations)
+ */
+public class Benchmark {
+
+    private static final long ROUND_NANOS = 100_000_000L;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /** Résultat accumulé par les benchmarks, pour que le JIT ne supprime pas le code mesuré. */
+    private static long sink;
+
+    public static void main(String[] args) {
+        List<String> selected = new ArrayList<>();
+        for (String arg : args) {
+            selected.add(arg);
+        }
+        for (String name : BenchmarkOperations.NAMES) {
+            if (selected.isEmpty() || selected.contains(name)) {
+                measure(name, BenchmarkOperations.get(name));
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    /**
+     * Mesure une opération : le nombre d'opérations par tour est d'abord doublé jusqu'à ce qu'un tour
+     * dure environ ROUND_NANOS, puis viennent quelques tours de chauffe pour le JIT et les tours mesurés.
+     * @param name Le nom de l'opération
+     * @param op L'opération
+     */
+    private static void measure(String name, LongSupplier op) {
+        int n = 1;
+        while (round(op, n) < ROUND_NANOS / 2 && n < (1 << 30)) {
+            n *= 2;
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round(op, n);
+        }
+        long bytes = allocatedBytes();
+        long elapsed = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            elapsed += round(op, n);
+        }
+        bytes = allocatedBytes() - bytes;
+        double ops = (double) n * MEASURED_ROUNDS;
+        System.out.printf("%-14s %12.1f ns/op %12.1f octets/op%n", name, elapsed / ops, bytes / ops);
+    }
+
+    /**
+     * Exécute un tour de benchmark.
+     * @param op L'opération
+     * @param n Le nombre d'opérations du tour
+     * @return La durée du tour en nanosecondes
+     */
+    private static long round(LongSupplier op, int n) {
+        long start = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += op.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += total;
+        return elapsed;
+    }
+
+    /**
+     * Retourne le nombre d'octets alloués jusqu'ici par le thread courant.
+     * @return Les octets alloués, ou 0 si la JVM ne sait pas les compter
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,375 @@
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Opérations mesurées par les benchmarks du moteur : chaque opération est préparée une fois
+ * (plateau, joueur, actions) puis rejouée autant de fois que nécessaire, en partant à chaque fois
+ * de la même position. Les actions qui modifient le plateau sont suivies de leur undo.
+ * Chaque appel retourne une valeur calculée par l'opération, à consommer par l'appelant pour
+ * que le JIT ne supprime pas le code mesuré.
+ *
+ * Les opérations servent à Benchmark (mesure rapide, sans dépendance) et aux benchmarks JMH
+ * (src/jmh/java, voir pom.xml) : JMH refuse les classes du paquetage par défaut, qu'un paquetage
+ * nommé ne peut pas importer ; il obtient donc ces opérations par réflexion (voir get).
+ */
+public final class BenchmarkOperations {
+
+    /** Les noms des opérations, dans l'ordre d'affichage de Benchmark. */
+    public static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+        "catalog", "resources", "board", "canBuyCard", "evaluate", "payment",
+        "pass", "pickSame", "pickDiff", "discard", "buy", "reserve", "buyReserved",
+        "robot", "game", "displayedGame", "render", "frame"));
+
+    private BenchmarkOperations() {}
+
+    /**
+     * Prépare une opération.
+     * @param name Le nom de l'opération (voir NAMES)
+     * @return L'opération, à appeler autant de fois que voulu (un seul thread)
+     * @throws IllegalArgumentException si l'opération n'existe pas
+     */
+    public static LongSupplier get(String name) throws IllegalArgumentException {
+        switch (name) {
+            case "catalog":       return catalogLoad();
+            case "resources":     return resourcesGetUpdate();
+            case "board":         return boardConstruction();
+            case "canBuyCard":    return lateGameCanBuyCard();
+            case "evaluate":      return lateGameEvaluateCards();
+            case "payment":       return goldPayment();
+            case "pass":          return passProcess();
+            case "pickSame":      return pickSameProcess();
+            case "pickDiff":      return pickDiffProcess();
+            case "discard":       return discardProcess();
+            case "buy":           return buyProcess();
+            case "reserve":       return reserveProcess();
+            case "buyReserved":   return buyReservedProcess();
+            case "robot":         return robotDecision();
+            case "game":          return robotGame();
+            case "displayedGame": return displayedRobotGame();
+            case "render":        return boardRendering();
+            case "frame":         return gameFrame();
+            default: throw new IllegalArgumentException("Opération inconnue : " + name);
+        }
+    }
+
+    /**
+     * Lecture et analyse du fichier des cartes (fait une seule fois par JVM, voir CardCatalog).
+     */
+    private static LongSupplier catalogLoad() {
+        return () -> CardCatalog.load(Paths.get(CardCatalog.FILE_NAME)).getNbCards();
+    }
+
+    /**
+     * Une mise à jour puis une lecture de jetons sur un objet Resources.
+     */
+    private static LongSupplier resourcesGetUpdate() {
+        Resources res = new Resources();
+        for (Resource r : Resource.values()) {
+            res.setNbResource(r, 4);
+        }
+        Resource[] values = Resource.values();
+        int[] i = {0};
+        return () -> {
+            int k = i[0]++;
+            Resource r = values[Integer.remainderUnsigned(k, values.length)];
+            res.updateNbResource(r, (k & 1) == 0 ? 1 : -1);
+            return res.getNbResource(r);
+        };
+    }
+
+    /**
+     * Construction d'un plateau (cartes, nobles et mélange des piles).
+     */
+    private static LongSupplier boardConstruction() {
+        SplittableRandom random = new SplittableRandom(1);
+        return () -> new Board(2, NullOutput.INSTANCE, random.split()).getCard(0, 0).getPoints();
+    }
+
+    /**
+     * Test d'achat d'une carte visible par un joueur en fin de partie (25 cartes achetées),
+     * les 12 cartes à tour de rôle.
+     */
+    private static LongSupplier lateGameCanBuyCard() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = lateGamePlayer(board);
+        DevCard[] cards = new DevCard[12];
+        for (int slot = 0; slot < 12; slot++) {
+            cards[slot] = board.getCard(slot / 4, slot % 4);
+        }
+        int[] i = {0};
+        return () -> player.canBuyCard(cards[Integer.remainderUnsigned(i[0]++, 12)]) ? 1 : 0;
+    }
+
+    /**
+     * Évaluation groupée des 12 cartes visibles (achetables et gemmes manquantes) par le même
+     * joueur que lateGameCanBuyCard, pour comparer avec 12 appels à canBuyCard.
+     */
+    private static LongSupplier lateGameEvaluateCards() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = lateGamePlayer(board);
+        int[] missing = new int[12];
+        return () -> board.evaluateCards(player.getPackedPower(), player.getGold(), missing) + missing[11];
+    }
+
+    /**
+     * Retourne un joueur de fin de partie : 25 cartes achetées et 2 jetons de chaque ressource.
+     * @param board Le plateau d'où sont tirées les cartes
+     * @return Le joueur
+     */
+    private static Player lateGamePlayer(Board board) {
+        Player player = new DumbRobotPlayer();
+        for (int i = 0; i < 25; i++) {
+            player.addPurchasedCard(board.drawCard(1 + i % 3));
+        }
+        for (Resource r : Resource.values()) {
+            player.updateNbResource(r, 2);
+        }
+        return player;
+    }
+
+    /**
+     * Calcul du paiement (jetons de couleur, puis jetons or pour le reste) d'une carte du catalogue
+     * par un joueur aux jetons, bonus et jetons or variés (voir PackedResources.payment).
+     */
+    private static LongSupplier goldPayment() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        int[] costs = new int[catalog.getNbCards()];
+        for (int id = 0; id < costs.length; id++) {
+            costs[id] = catalog.getCard(id).getPackedCost();
+        }
+        SplittableRandom random = new SplittableRandom(1);
+        int[] tokens = new int[64];
+        int[] bonuses = new int[64];
+        for (int k = 0; k < tokens.length; k++) {
+            for (int i = 0; i < Resources.NB_TYPES; i++) {
+                tokens[k] = PackedResources.with(tokens[k], i, random.nextInt(5));
+                bonuses[k] = PackedResources.with(bonuses[k], i, random.nextInt(4));
+            }
+        }
+        int[] i = {0};
+        return () -> {
+            int n = i[0]++;
+            int k = n & 63;
+            return PackedResources.payment(tokens[k], bonuses[k], costs[Integer.remainderUnsigned(n, costs.length)], k & 3);
+        };
+    }
+
+    /**
+     * PassAction.process.
+     */
+    private static LongSupplier passProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        Action pass = new PassAction();
+        return () -> {
+            pass.process(player, board);
+            return player.getNbTokens();
+        };
+    }
+
+    /**
+     * Prise de 2 jetons identiques, puis son undo, les 5 ressources à tour de rôle.
+     */
+    private static LongSupplier pickSameProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        Resource[] values = Resource.values();
+        Action[] picks = new Action[values.length];
+        for (int i = 0; i < values.length; i++) {
+            picks[i] = new PickSameTokensAction(values[i]);
+        }
+        return cycle(player, board, picks);
+    }
+
+    /**
+     * Prise de 3 jetons différents, puis son undo.
+     */
+    private static LongSupplier pickDiffProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        Resources picked = new Resources();
+        picked.setNbResource(Resource.DIAMOND, 1);
+        picked.setNbResource(Resource.EMERALD, 1);
+        picked.setNbResource(Resource.ONYX, 1);
+        return cycle(player, board, new PickDiffTokensAction(picked));
+    }
+
+    /**
+     * Défausse de 3 jetons par un joueur qui en a 12, puis son undo.
+     */
+    private static LongSupplier discardProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        for (Resource r : Resource.values()) {
+            player.updateNbResource(r, 2);
+        }
+        player.updateNbResource(Resource.RUBY, 2);
+        Resources back = new Resources();
+        back.setNbResource(Resource.RUBY, 2);
+        back.setNbResource(Resource.ONYX, 1);
+        return cycle(player, board, new DiscardTokensAction(back));
+    }
+
+    /**
+     * Achat d'une carte visible (paiement, pioche de la carte qui la remplace, visite des nobles),
+     * puis son undo, les 12 cartes à tour de rôle, par un joueur assez riche pour tout acheter.
+     */
+    private static LongSupplier buyProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = richPlayer();
+        Action[] buys = new Action[12];
+        for (int slot = 0; slot < 12; slot++) {
+            buys[slot] = new BuyCardAction(slot / 4, slot % 4);
+        }
+        return cycle(player, board, buys);
+    }
+
+    /**
+     * Réservation d'une carte visible ou de la pioche (avec un jeton or), puis son undo,
+     * les 12 cartes puis les 3 pioches à tour de rôle.
+     */
+    private static LongSupplier reserveProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        Action[] reserves = new Action[15];
+        for (int slot = 0; slot < 12; slot++) {
+            reserves[slot] = new ReserveCardAction(slot / 4, slot % 4);
+        }
+        for (int level = 0; level < 3; level++) {
+            reserves[12 + level] = new ReserveCardAction(level);
+        }
+        return cycle(player, board, reserves);
+    }
+
+    /**
+     * Achat d'une carte réservée, puis son undo, par un joueur riche qui a réservé 3 cartes.
+     */
+    private static LongSupplier buyReservedProcess() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = richPlayer();
+        for (int level = 0; level < 3; level++) {
+            new ReserveCardAction(level).process(player, board);
+        }
+        Action[] buys = new Action[Player.MAX_RESERVED];
+        for (int i = 0; i < buys.length; i++) {
+            buys[i] = new BuyReservedCardAction(i);
+        }
+        return cycle(player, board, buys);
+    }
+
+    /**
+     * Retourne un joueur assez riche pour acheter toutes les cartes.
+     * @return Le joueur
+     */
+    private static Player richPlayer() {
+        Player player = new DumbRobotPlayer();
+        for (Resource r : Resource.values()) {
+            player.updateNbResource(r, 1_000);
+        }
+        return player;
+    }
+
+    /**
+     * Retourne une opération qui exécute puis annule des actions, chacune à son tour.
+     * @param player Le joueur qui effectue les actions
+     * @param board Le plateau de jeu
+     * @param actions Les actions
+     * @return L'opération
+     */
+    private static LongSupplier cycle(Player player, Board board, Action... actions) {
+        int[] i = {0};
+        return () -> {
+            Action action = actions[Integer.remainderUnsigned(i[0]++, actions.length)];
+            action.process(player, board);
+            action.undo(player, board);
+            return player.getHash();
+        };
+    }
+
+    /**
+     * Décision de DumbRobotPlayer (parcours des 12 cartes puis prise de jetons) et son exécution,
+     * puis son undo.
+     */
+    private static LongSupplier robotDecision() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        Player player = new DumbRobotPlayer();
+        return () -> {
+            Action action = player.chooseAction();
+            action.process(player, board);
+            action.undo(player, board);
+            return player.getHash();
+        };
+    }
+
+    /**
+     * Partie complète entre deux robots, sans affichage, graines 0, 1, 2...
+     */
+    private static LongSupplier robotGame() {
+        long[] seed = {0};
+        return () -> playRobotGame(seed[0]++, NullOutput.INSTANCE).getNbTurns();
+    }
+
+    /**
+     * Partie complète entre deux robots, avec l'affichage du plateau à chaque tour
+     * (dans une sortie mémoire), graines 0, 1, 2...
+     */
+    private static LongSupplier displayedRobotGame() {
+        long[] seed = {0};
+        return () -> {
+            BufferedOutput screen = new BufferedOutput();
+            playRobotGame(seed[0]++ % 20, screen);
+            return screen.getText().length();
+        };
+    }
+
+    /**
+     * Joue une partie complète entre deux robots.
+     * @param seed La graine de la partie
+     * @param screen L'affichage du plateau
+     * @return La partie terminée
+     */
+    private static Game playRobotGame(long seed, GameOutput screen) {
+        List<Player> players = new ArrayList<>();
+        players.add(new DumbRobotPlayer());
+        players.add(new DumbRobotPlayer());
+        Game game = new Game(players, NullOutput.INSTANCE, screen, seed);
+        game.setMaxTurns(1000);
+        game.play();
+        return game;
+    }
+
+    /**
+     * Affichage du plateau en tableau de chaînes, le plateau changeant entre deux affichages
+     * (un jeton pris ou rendu), comme à chaque tour d'une partie.
+     */
+    private static LongSupplier boardRendering() {
+        Board board = new Board(2, NullOutput.INSTANCE, new SplittableRandom(1));
+        int[] i = {0};
+        return () -> {
+            board.updateNbResource(Resource.RUBY, (i[0]++ & 1) == 0 ? -1 : 1);
+            return board.toStringArray().length;
+        };
+    }
+
+    /**
+     * Image complète de la partie (Game.renderFrame : plateau et joueurs, voir FrameBuffer),
+     * avec les mêmes changements que boardRendering entre deux images.
+     */
+    private static LongSupplier gameFrame() {
+        List<Player> players = new ArrayList<>();
+        players.add(new DumbRobotPlayer());
+        players.add(new DumbRobotPlayer());
+        Game game = new Game(players, NullOutput.INSTANCE, NullOutput.INSTANCE, 1);
+        Board board = game.getBoard();
+        int[] i = {0};
+        return () -> {
+            board.updateNbResource(Resource.RUBY, (i[0]++ & 1) == 0 ? -1 : 1);
+            return game.renderFrame().length;
+        };
+    }
+}
@@ -1,40 +1,77 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Stack;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.Collections;
-import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * Auteur : Brelier Vincent
  * La classe Board modélise le plateau de jeu dans Splendor.
- * Elle gère les cartes visibles, les piles de cartes cachées, et les ressources disponibles sur le plateau.
+ * Elle gère les cartes visibles, les piles de cartes cachées, et les ressources et jetons or disponibles sur le plateau.
  */
 public class Board implements Displayable {
+
+    /** Nombre de jetons or au début de la partie, quel que soit le nombre de joueurs. */
+    public static final int GOLD_TOKENS = 5;
     
-    protected ArrayList<DevCard> cardList;
     protected Resources resources;
     protected int nbresources;
+    protected int gold;            // jetons or (jokers) disponibles
     protected DevCard[][] visibleCards;
-    protected ArrayList<Stack<DevCard>> ListStack;
+    protected int[] visibleCosts;  // coût compacté de chaque case (niveau * 4 + colonne), voir evaluateCards
+    protected int visibleSlots;    // masque des cases occupées par une carte
+    protected DevCard[][] decks;   // pour chaque niveau, les cartes des piles : les deckSizes[i] premières restent à tirer
+    protected int[] deckSizes;
+    protected long deckSeed;       // graine des tirages (voir deckSwap)
+    protected Noble[] nobles;      // les nobles de la partie (nbJoueurs + 1), à leur place sur le plateau
+    protected int nobleMask;       // masque des places dont le noble est encore sur le plateau
+    protected GameOutput out;
+    protected long hash;
+    private String[] rendered;     // dernier affichage du plateau
+    private long renderedHash;     // hash du plateau lors de ce dernier affichage
     
     /**
-     * Constructeur du plateau de jeu. Initialise les cartes, les piles mélangées et les ressources.
+     * Constructeur du plateau de jeu sans sortie (les messages des actions sont ignorés).
+     * @param nbJoueurs le nombre de joueurs
      */
     public Board(int nbJoueurs){
-        // les pile de cartes faces cacher
-        cardList = getCardList();
-        ListStack = new ArrayList<Stack<DevCard>>();
-        Stack<DevCard> stackOne = getStackList(1);
-        ListStack.add(stackOne);
-        Stack<DevCard> stackTwo = getStackList(2);
-        ListStack.add(stackTwo);
-        Stack<DevCard> stackTree = getStackList(3);
-        ListStack.add(stackTree);
+        this(nbJoueurs, NullOutput.INSTANCE, new SplittableRandom());
+    }
+    
+    /**
+     * Constructeur du plateau de jeu. Initialise les cartes, les piles, les nobles et les ressources.
+     * @param nbJoueurs le nombre de joueurs
+     * @param out la sortie où les actions jouées sur ce plateau écrivent leurs messages
+     * @param random le générateur aléatoire de la partie, qui donne la graine des tirages dans les piles
+     *               et les nobles de la partie
+     */
+    public Board(int nbJoueurs, GameOutput out, SplittableRandom random){
+        this.out = out;
+        this.deckSeed = random.nextLong();
+        // les piles de cartes faces cachées, tirées du catalogue partagé
+        CardCatalog catalog = CardCatalog.getInstance();
+        decks = new DevCard[3][];
+        deckSizes = new int[3];
+        for (int i = 0; i < 3; i++){
+            int[] ids = catalog.getTierIds(i + 1);
+            decks[i] = new DevCard[ids.length];
+            for (int k = 0; k < ids.length; k++){
+                decks[i][k] = catalog.getCard(ids[k]);
+            }
+            deckSizes[i] = ids.length;
+        }
+
+        // les nobles : nbJoueurs + 1 tirés au hasard parmi ceux du catalogue
+        int[] nobleIds = new int[catalog.getNbNobles()];
+        for (int k = 0; k < nobleIds.length; k++){
+            nobleIds[k] = k;
+        }
+        nobles = new Noble[Math.min(nbJoueurs + 1, nobleIds.length)];
+        for (int k = 0; k < nobles.length; k++){
+            int j = k + random.nextInt(nobleIds.length - k);
+            nobles[k] = catalog.getNoble(nobleIds[j]);
+            nobleIds[j] = nobleIds[k];
+        }
+        nobleMask = (1 << nobles.length) - 1;
         
         // Initialisation des resources.
         if (nbJoueurs == 2){
@@ -49,79 +86,54 @@ public class Board implements Displayable {
         resources.setNbResource(Resource.EMERALD, nbresources);
         resources.setNbResource(Resource.RUBY, nbresources);
         resources.setNbResource(Resource.ONYX, nbresources);
+        gold = GOLD_TOKENS;
         
         // tableau à deux dimensions de 3 lignes et 4 colonnes.
         visibleCards = new DevCard[3][4];
+        visibleCosts = new int[12];
         for (int i = 0; i < 3; i++) {  // i = 0 pour tier 1, etc.
             for (int j = 0; j < 4; j++) {
-                if (!ListStack.get(i).isEmpty()) {
-                    visibleCards[i][j] = ListStack.get(i).pop();
-                } else {
-                    visibleCards[i][j] = null;
-                }
+                visibleCards[i][j] = drawCard(i + 1);
+                updateVisibleCost(i, j);
             }
         }
+        hash = computeHash();
     }
     
     /**
-     * Crée et retourne une pile de cartes mélangées pour un niveau donné.
-     * @param tier le niveau des cartes (1, 2 ou 3)
-     * @return une pile Stack<DevCard> mélangée pour ce niveau
+     * Retourne la case échangée avec le sommet d'une pile lors d'un tirage (mélange paresseux).
+     * Les piles ne sont pas mélangées à la création du plateau : chaque tirage fait un seul pas
+     * de Fisher-Yates, en échangeant la dernière carte restante avec une carte restante au hasard.
+     * Le hasard ne dépend que de la graine, du niveau et du nombre de cartes restantes : un tirage
+     * annulé (restoreCard) se défait par le même échange, et le tirage rejoué donne la même carte.
+     * @param seed la graine des tirages
+     * @param tierIndex l'indice du niveau (0-2)
+     * @param size le nombre de cartes restant dans la pile avant le tirage (> 0)
+     * @return l'indice de la carte tirée, entre 0 et size - 1
      */
-    private Stack<DevCard> getStackList(int tier){
-        Stack<DevCard> cardList = new Stack<DevCard>();
-        for (DevCard carte : this.cardList){
-            if (tier == carte.getTier()){
-                cardList.push(carte);
-            }
-        }
-        Collections.shuffle(cardList);
-        return cardList;
-    } 
+    static int deckSwap(long seed, int tierIndex, int size){
+        long z = seed + (tierIndex * 128L + size) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * size) >>> 32);
+    }
+
+    /**
+     * Retourne le nombre de cartes restant dans la pile d'un niveau.
+     * @param tier le niveau de la pile (1, 2 ou 3)
+     * @return le nombre de cartes de la pile
+     */
+    public int getDeckSize(int tier){
+        return deckSizes[tier - 1];
+    }
     
     /**
-     * Lit le fichier CSV et crée une liste de toutes les cartes de développement.
-     * Ignore les lignes "NOBLE".
-     * @return une ArrayList<DevCard> contenant toutes les cartes
-     */
-    private ArrayList<DevCard> getCardList(){
-        ArrayList<DevCard> cardList = new ArrayList<DevCard>();
-        try{
-            File file = new File("stats.csv");
-            Scanner readableFile = new Scanner(file);
-            if (readableFile.hasNextLine()){
-                readableFile.nextLine();
-            }
-            //boucle de fabrication d'une liste de toutes les cartes.
-            while (readableFile.hasNextLine()) {
-                String ligne = readableFile.nextLine();
-                String[] valeurs = ligne.split(",");
-                int tier = Integer.parseInt(valeurs[0]);
-                int coutDiamond = Integer.parseInt(valeurs[1]);
-                int coutSapphire = Integer.parseInt(valeurs[2]);
-                int coutEmerald = Integer.parseInt(valeurs[3]);
-                int coutRuby = Integer.parseInt(valeurs[4]);
-                int coutOnyx = Integer.parseInt(valeurs[5]);
-                int points = Integer.parseInt(valeurs[6]);
-                String typeStr = valeurs[7];
-                
-                if ("NOBLE".equals(typeStr)) {
-                    continue;
-                }
-                Resource resourceType = Resource.valueOf(typeStr);
-                Resources cost = new Resources();
-                cost.setNbResource(Resource.DIAMOND, coutDiamond);
-                cost.setNbResource(Resource.SAPPHIRE, coutSapphire);
-                cost.setNbResource(Resource.EMERALD, coutEmerald);
-                cost.setNbResource(Resource.RUBY, coutRuby);
-                cost.setNbResource(Resource.ONYX, coutOnyx);
-                
-                DevCard carte = new DevCard(tier, resourceType, points, cost);
-                cardList.add(carte);
-            }
-        }
-        catch (FileNotFoundException ignore){}
-        return cardList;
+     * Retourne la sortie où les actions écrivent leurs messages.
+     * @return la sortie de la partie
+     */
+    public GameOutput getOutput(){
+        return out;
     }
     
     /**
@@ -140,7 +152,9 @@ public class Board implements Displayable {
      */
     public void setNbResource(Resource r, int v)
     {
+        int old = resources.getNbResource(r);
         resources.setNbResource(r,v);
+        rehashTokens(r, old);
     }
     
     /**
@@ -150,7 +164,67 @@ public class Board implements Displayable {
      * @param v la quantité à ajouter (positive) ou retirer (négative)
      */
     public void updateNbResource(Resource r, int v){
+        int old = resources.getNbResource(r);
         resources.updateNbResource(r, v);
+        rehashTokens(r, old);
+    }
+
+    /**
+     * Met à jour le hash après un changement du nombre de jetons d'une ressource.
+     * @param r le type de ressource
+     * @param old l'ancienne quantité
+     */
+    private void rehashTokens(Resource r, int old){
+        hash ^= Zobrist.boardTokens(r.ordinal(), old) ^ Zobrist.boardTokens(r.ordinal(), resources.getNbResource(r));
+    }
+
+    /**
+     * Retourne le nombre de jetons or disponibles sur le plateau.
+     * @return le nombre de jetons or
+     */
+    public int getGold(){
+        return gold;
+    }
+
+    /**
+     * Modifie le nombre de jetons or du plateau.
+     * @param v le nombre de jetons or à ajouter (positif) ou retirer (négatif)
+     */
+    public void updateGold(int v){
+        hash ^= Zobrist.boardGold(gold) ^ Zobrist.boardGold(gold + v);
+        gold += v;
+    }
+
+    /**
+     * Retourne le hash de Zobrist du plateau (jetons, jetons or, cartes visibles, profondeur des piles),
+     * tenu à jour à chaque modification. Voir Zobrist.hash pour le hash de la position complète.
+     * @return le hash du plateau
+     */
+    public long getHash(){
+        return hash;
+    }
+
+    /**
+     * Calcule entièrement le hash du plateau.
+     * @return le hash du plateau
+     */
+    private long computeHash(){
+        long h = 0;
+        for (int i = 0; i < Resources.NB_TYPES; i++){
+            h ^= Zobrist.boardTokens(i, resources.getNbResource(Resources.resourceAt(i)));
+        }
+        h ^= Zobrist.boardGold(gold);
+        for (int tier = 0; tier < 3; tier++){
+            h ^= Zobrist.deck(tier + 1, deckSizes[tier]);
+            for (int col = 0; col < 4; col++){
+                DevCard card = visibleCards[tier][col];
+                h ^= Zobrist.slot(tier * 4 + col, card == null ? -1 : card.getId());
+            }
+        }
+        for (int mask = nobleMask; mask != 0; mask &= mask - 1){
+            h ^= Zobrist.noble(Integer.numberOfTrailingZeros(mask));
+        }
+        return h;
     }
     
     /**
@@ -185,25 +259,234 @@ public class Board implements Displayable {
 
         for (int col = 0; col < 4; col++){
             if (visibleCards[tierIndex][col] == carte){
-                visibleCards[tierIndex][col] = drawCard(carte.getTier());
+                DevCard next = drawCard(carte.getTier());
+                visibleCards[tierIndex][col] = next;
+                updateVisibleCost(tierIndex, col);
+                int slot = tierIndex * 4 + col;
+                hash ^= Zobrist.slot(slot, carte.getId()) ^ Zobrist.slot(slot, next == null ? -1 : next.getId());
                 return;
             }
         }
     }
     
     /**
-     * Tire une carte de la pile d'un niveau donné.
+     * Annule un updateCard : la carte tirée pour remplacer la carte achetée retourne
+     * à sa place dans sa pile (voir deckSwap), et la carte achetée reprend sa place.
+     * @param tierIndex L'indice du niveau (0-2)
+     * @param colIndex L'indice de la colonne (0-3)
+     * @param carte La carte à remettre à cette place
+     */
+    void restoreCard(int tierIndex, int colIndex, DevCard carte){
+        DevCard drawn = visibleCards[tierIndex][colIndex];
+        if (drawn != null){
+            undrawCard(tierIndex, drawn);
+        }
+        visibleCards[tierIndex][colIndex] = carte;
+        updateVisibleCost(tierIndex, colIndex);
+        int slot = tierIndex * 4 + colIndex;
+        hash ^= Zobrist.slot(slot, drawn == null ? -1 : drawn.getId()) ^ Zobrist.slot(slot, carte.getId());
+    }
+    /**
+     * Tire une carte de la pile d'un niveau donné, au hasard parmi les cartes restantes (voir deckSwap).
      * @param tiers le niveau de la carte (1, 2 ou 3)
      * @return la carte tirée, ou null si la pile est vide
      */
     public DevCard drawCard(int tiers){
-        if (tiers>0 && tiers<4 && !ListStack.get(tiers-1).isEmpty()){
-            return ListStack.get(tiers-1).pop();
+        if (tiers>0 && tiers<4 && deckSizes[tiers-1] > 0){
+            DevCard[] deck = decks[tiers-1];
+            int size = deckSizes[tiers-1];
+            int j = deckSwap(deckSeed, tiers-1, size);
+            DevCard card = deck[j];
+            deck[j] = deck[size - 1];
+            deck[size - 1] = card;
+            deckSizes[tiers-1] = size - 1;
+            hash ^= Zobrist.deck(tiers, size) ^ Zobrist.deck(tiers, size - 1);
+            return card;
         }else{
             return null;
         }
     }
+
+    /**
+     * Annule un drawCard : la carte tirée retourne à sa place dans sa pile (voir deckSwap).
+     * @param tierIndex L'indice du niveau (0-2)
+     * @param carte La dernière carte tirée de cette pile
+     */
+    void undrawCard(int tierIndex, DevCard carte){
+        DevCard[] deck = decks[tierIndex];
+        int size = deckSizes[tierIndex] + 1;
+        int j = deckSwap(deckSeed, tierIndex, size);
+        deck[size - 1] = deck[j];
+        deck[j] = carte;
+        deckSizes[tierIndex] = size;
+        hash ^= Zobrist.deck(tierIndex + 1, size - 1) ^ Zobrist.deck(tierIndex + 1, size);
+    }
+
+    /**
+     * Retourne les cartes restant dans la pile d'un niveau, dans l'ordre où elles seront tirées
+     * (la prochaine carte tirée en dernier), utilisé par GameState.
+     * @param tierIndex l'indice du niveau (0-2)
+     * @return les cartes de la pile, du fond jusqu'à la prochaine carte à tirer
+     */
+    DevCard[] drawOrder(int tierIndex){
+        DevCard[] order = Arrays.copyOf(decks[tierIndex], deckSizes[tierIndex]);
+        for (int size = order.length; size > 1; size--){
+            int j = deckSwap(deckSeed, tierIndex, size);
+            DevCard tmp = order[j];
+            order[j] = order[size - 1];
+            order[size - 1] = tmp;
+        }
+        return order;
+    }
     
+    /**
+     * Remplace le contenu des piles de cartes cachées (utilisé par GameState pour restaurer une position).
+     * Les cartes sont rangées de façon que les prochains tirages (voir deckSwap) les donnent dans l'ordre indiqué.
+     * Le hash est recalculé entièrement : les cartes visibles doivent déjà être en place.
+     * @param order pour chaque niveau (index 0 à 2), les cartes de la pile, du fond jusqu'à la prochaine carte à tirer
+     */
+    void restoreDecks(List<List<DevCard>> order){
+        for (int i = 0; i < 3; i++){
+            DevCard[] deck = decks[i];
+            int size = order.get(i).size();
+            for (int k = 0; k < size; k++){
+                deck[k] = order.get(i).get(k);
+            }
+            // on défait les tirages, du dernier au premier
+            for (int n = 2; n <= size; n++){
+                int j = deckSwap(deckSeed, i, n);
+                DevCard tmp = deck[j];
+                deck[j] = deck[n - 1];
+                deck[n - 1] = tmp;
+            }
+            deckSizes[i] = size;
+            for (int col = 0; col < 4; col++){
+                updateVisibleCost(i, col);
+            }
+        }
+        hash = computeHash();
+    }
+    
+    /**
+     * Met à jour le coût compacté et le masque des cases occupées après un changement de carte visible.
+     * @param tierIndex L'indice du niveau (0-2)
+     * @param colIndex L'indice de la colonne (0-3)
+     */
+    private void updateVisibleCost(int tierIndex, int colIndex){
+        int slot = tierIndex * 4 + colIndex;
+        DevCard card = visibleCards[tierIndex][colIndex];
+        visibleCosts[slot] = card == null ? 0 : card.getPackedCost();
+        visibleSlots = card == null ? visibleSlots & ~(1 << slot) : visibleSlots | 1 << slot;
+    }
+
+    /**
+     * Évalue d'un coup les 12 cartes visibles pour un pouvoir d'achat donné (voir Player.getPackedPower) :
+     * les coûts sont tenus à jour sous forme compactée, et chaque carte ne coûte qu'une soustraction
+     * sur les 5 ressources à la fois (voir PackedResources.missing), sans objet ni table de hachage.
+     * Une carte est achetable si les jetons or couvrent ce qui manque.
+     * @param power Le pouvoir d'achat compacté (jetons + bonus)
+     * @param gold Le nombre de jetons or du joueur
+     * @param missing Si non null, reçoit pour chaque case (niveau * 4 + colonne) les quantités manquantes
+     *                compactées pour acheter sa carte sans jeton or (0 pour une case vide)
+     * @return Le masque des cases dont la carte est achetable (bit niveau * 4 + colonne)
+     */
+    public int evaluateCards(int power, int gold, int[] missing){
+        int affordable = 0;
+        for (int slot = 0; slot < 12; slot++){
+            int miss = PackedResources.missing(power, visibleCosts[slot]);
+            if (missing != null){
+                missing[slot] = miss;
+            }
+            affordable |= (miss == 0 || PackedResources.total(miss) <= gold ? 1 : 0) << slot;
+        }
+        return affordable & visibleSlots;
+    }
+    
+    /* --- Nobles --- */
+
+    /**
+     * Retourne le nombre de nobles de la partie (y compris ceux qui ont déjà rendu visite à un joueur).
+     * @return le nombre de nobles
+     */
+    public int getNbNobles(){
+        return nobles.length;
+    }
+
+    /**
+     * Retourne le noble d'une place du plateau.
+     * @param slot la place du noble (0 à getNbNobles()-1)
+     * @return le noble
+     */
+    public Noble getNoble(int slot){
+        return nobles[slot];
+    }
+
+    /**
+     * Vérifie si le noble d'une place est encore sur le plateau.
+     * @param slot la place du noble
+     * @return true si le noble n'a encore rendu visite à personne
+     */
+    public boolean isNobleAvailable(int slot){
+        return (nobleMask & (1 << slot)) != 0;
+    }
+
+    /**
+     * Retourne le masque des places dont le noble, encore sur le plateau, rendrait visite
+     * à un joueur ayant ces bonus : une comparaison compactée par noble restant.
+     * @param packedBonuses les bonus compactés du joueur (voir Player.getPackedBonuses)
+     * @return le masque des nobles qui rendraient visite au joueur
+     */
+    public int eligibleNobles(int packedBonuses){
+        int eligible = 0;
+        for (int mask = nobleMask; mask != 0; mask &= mask - 1){
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (nobles[slot].isVisiting(packedBonuses)){
+                eligible |= 1 << slot;
+            }
+        }
+        return eligible;
+    }
+
+    /**
+     * Fin du tour d'un joueur : le premier noble (dans l'ordre des places) dont le joueur couvre
+     * les exigences lui rend visite. Un seul noble rend visite par tour ; les autres restent sur le plateau.
+     * @param player le joueur qui termine son tour
+     * @return la place du noble qui a rendu visite au joueur, ou -1 si aucun
+     */
+    public int visitNoble(Player player){
+        int eligible = eligibleNobles(player.getPackedBonuses());
+        if (eligible == 0){
+            return -1;
+        }
+        int slot = Integer.numberOfTrailingZeros(eligible);
+        nobleMask &= ~(1 << slot);
+        hash ^= Zobrist.noble(slot);
+        player.addNoble(nobles[slot]);
+        return slot;
+    }
+
+    /**
+     * Annule visitNoble : le noble retourne à sa place sur le plateau.
+     * @param slot la place du noble
+     * @param player le joueur qui l'avait reçu
+     */
+    void restoreNoble(int slot, Player player){
+        player.removeNoble(nobles[slot]);
+        nobleMask |= 1 << slot;
+        hash ^= Zobrist.noble(slot);
+    }
+
+    /**
+     * Remplace les nobles de la partie (utilisé par GameState pour restaurer une position,
+     * avant restoreDecks qui recalcule le hash).
+     * @param list les nobles de la partie, à leur place sur le plateau
+     * @param mask le masque des places dont le noble est encore sur le plateau
+     */
+    void restoreNobles(Noble[] list, int mask){
+        nobles = list.clone();
+        nobleMask = mask;
+    }
+
     /**
      * Vérifie si on peut donner 2 jetons de la même ressource (nécessite au moins 4 jetons disponibles).
      * @param token le type de ressource
@@ -223,8 +506,8 @@ public class Board implements Displayable {
      * @return true si toutes les ressources demandées sont disponibles en quantité suffisante, false sinon
      */
     public boolean canGiveDiffTokens(Resources listResources){
-        Set<Resource> listeResourceDispo = listResources.getAvailableResources();
-        for (Resource resource : listeResourceDispo){
+        for (int mask = listResources.getAvailableMask(); mask != 0; mask &= mask - 1){
+            Resource resource = Resources.resourceAt(Integer.numberOfTrailingZeros(mask));
             if (listResources.getNbResource(resource) > resources.getNbResource(resource)){
                 return false;
             }
@@ -251,7 +534,7 @@ public class Board implements Displayable {
          * └────────┘ │
          *  ╲________╲│
          */
-        int nbCards = ListStack.get(tier-1).size();
+        int nbCards = deckSizes[tier-1];
         String[] deckStr = {"\u250C\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2510  ",
                             "\u2502        \u2502\u2572 ",
                             "\u2502 reste: \u2502 \u2502",
@@ -265,22 +548,44 @@ public class Board implements Displayable {
     }
 
     /**
-     * Retourne une représentation textuelle des ressources disponibles sur le plateau.
+     * Retourne une représentation textuelle des ressources et des jetons or disponibles sur le plateau.
      * @return un tableau de chaînes listant les ressources
      */
     private String[] resourcesToStringArray(){
         /** EXAMPLE
-         * Resources disponibles : 4♥R 4♣E 4♠S 4♦D 4●O
+         * Resources disponibles : 4♥R 4♣E 4♠S 4♦D 4●O 5★G
          */
         String[] resStr = {"Resources disponibles : "};
         
-        for(Resource res : resources.keySet()){
+        for(Resource res : Resource.values()){
             resStr[0] += resources.getNbResource(res)+res.toSymbol()+" ";
         }
-        resStr[0] += "        ";
+        resStr[0] += gold+Resources.GOLD_SYMBOL+"     ";
         return resStr;
     }
 
+    /**
+     * Retourne une représentation des nobles encore sur le plateau, deux par ligne, après une ligne vide.
+     * @return un tableau de chaînes listant les nobles
+     */
+    private String[] noblesToStringArray(){
+        /** EXAMPLE
+         *
+         * Nobles :
+         * [3pts 3♦D 3♠S 3●O] [3pts 4♣E 4♥R]
+         */
+        String[] nobleStr = new String[2 + (Integer.bitCount(nobleMask) + 1) / 2];
+        nobleStr[0] = "";
+        nobleStr[1] = "Nobles :";
+        int n = 0;
+        for (int mask = nobleMask; mask != 0; mask &= mask - 1, n++){
+            String noble = nobles[Integer.numberOfTrailingZeros(mask)].toString();
+            int line = 2 + n / 2;
+            nobleStr[line] = n % 2 == 0 ? noble : nobleStr[line] + " " + noble;
+        }
+        return nobleStr;
+    }
+
     /**
      * Retourne une représentation complète du plateau de jeu.
      * @return un tableau de chaînes représentant le board entier
@@ -289,7 +594,7 @@ public class Board implements Displayable {
         String[] res = Display.emptyStringArray(0, 0);
         //Deck display
         String[] deckDisplay = Display.emptyStringArray(0, 0);
-        for(int i=ListStack.size();i>0;i--){
+        for(int i=decks.length;i>0;i--){
             deckDisplay = Display.concatStringArray(deckDisplay, deckToStringArray(i), true);
         }
 
@@ -307,18 +612,113 @@ public class Board implements Displayable {
         res = Display.concatStringArray(deckDisplay, cardDisplay, false);
         res = Display.concatStringArray(res, Display.emptyStringArray(1, 52), true);
         res = Display.concatStringArray(res, resourcesToStringArray(), true);
+        res = Display.concatStringArray(res, noblesToStringArray(), true);
         res = Display.concatStringArray(res, Display.emptyStringArray(35, 1, " \u250A"), false);
         res = Display.concatStringArray(res, Display.emptyStringArray(1, 54, "\u2509"), true);
         
         return res;
     }
 
+    /**
+     * Dessine le plateau dans une image, avec la même disposition que toStringArray
+     * (piles à gauche, cartes visibles, ressources disponibles, nobles puis les bordures),
+     * sans construire de chaînes : seuls les nombres qui changent sont réécrits.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     */
+    @Override
+    public void draw(FrameBuffer fb, int row, int col){
+        // piles, du niveau 3 au niveau 1
+        for(int tier = decks.length; tier > 0; tier--){
+            drawDeck(fb, row + (decks.length - tier) * 9, col, tier);
+        }
+        // cartes visibles, une ligne vide avant chaque niveau
+        int r = row;
+        for(int i = 2; i >= 0; i--){
+            fb.fill(r, col + 12, col + 52, ' ');
+            r++;
+            for(int j = 0; j < 4; j++){
+                if(visibleCards[i][j] != null){
+                    visibleCards[i][j].draw(fb, r, col + 12 + 10 * j);
+                }else{
+                    DevCard.drawNoCard(fb, r, col + 12 + 10 * j);
+                }
+            }
+            r += 8;
+        }
+        fb.fill(r++, col, col + 52, ' ');
+        // ressources disponibles
+        int c = fb.write(r, col, "Resources disponibles : ");
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            Resource res = Resources.resourceAt(i);
+            c = fb.writeNumber(r, c, resources.getNbResource(res), 1);
+            c = fb.write(r, c, res.toSymbol());
+            c = fb.put(r, c, ' ');
+        }
+        c = fb.write(r, fb.writeNumber(r, c, gold, 1), Resources.GOLD_SYMBOL);
+        fb.fill(r, c, col + 52, ' ');
+        // nobles encore sur le plateau, deux par ligne (voir noblesToStringArray)
+        fb.fill(++r, col, col + 52, ' ');
+        r++;
+        fb.fill(r, fb.write(r, col, "Nobles :"), col + 52, ' ');
+        int mask = nobleMask;
+        while (mask != 0){
+            r++;
+            c = fb.write(r, col, nobles[Integer.numberOfTrailingZeros(mask)].toString());
+            mask &= mask - 1;
+            if (mask != 0){
+                c = fb.put(r, c, ' ');
+                c = fb.write(r, c, nobles[Integer.numberOfTrailingZeros(mask)].toString());
+                mask &= mask - 1;
+            }
+            fb.fill(r, c, col + 52, ' ');
+        }
+        // lignes vides sous les ressources et les nobles, bordure droite et bordure basse
+        for(r++; r < row + 35; r++){
+            fb.fill(r, col, col + 52, ' ');
+        }
+        for(r = row; r < row + 35; r++){
+            fb.put(r, col + 52, ' ');
+            fb.put(r, col + 53, '\u250A');
+        }
+        fb.fill(row + 35, col, col + 54, '\u2509');
+    }
+
+    /**
+     * Dessine une pile de cartes dans une image (voir deckToStringArray).
+     */
+    private void drawDeck(FrameBuffer fb, int row, int col, int tier){
+        int nbCards = deckSizes[tier-1];
+        fb.write(row,     col, "\u250C\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2510  ");
+        fb.write(row + 1, col, "\u2502        \u2502\u2572 ");
+        fb.write(row + 2, col, "\u2502 reste: \u2502 \u2502");
+        fb.write(row + 3, col, "\u2502   ");
+        fb.writeNumber(row + 3, col + 4, nbCards, 2);
+        fb.write(row + 3, col + 6, "   \u2502 \u2502");
+        fb.write(row + 4, col, "\u2502 carte");
+        fb.put(row + 4, col + 7, nbCards > 1 ? 's' : ' ');
+        fb.write(row + 4, col + 8, " \u2502 \u2502");
+        fb.write(row + 5, col, "\u2502 tier ");
+        fb.put(row + 5, col + 7, '0' + tier);
+        fb.write(row + 5, col + 8, " \u2502 \u2502");
+        fb.write(row + 6, col, "\u2502        \u2502 \u2502");
+        fb.write(row + 7, col, "\u2514\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2518 \u2502");
+        fb.write(row + 8, col, " \u2572________\u2572\u2502");
+    }
+
     /**
      * Retourne la représentation graphique du plateau.
+     * L'affichage n'est reconstruit que si le plateau a changé depuis le dernier appel
+     * (jetons, cartes visibles ou piles, c'est-à-dire son hash).
      * @return un tableau de chaînes pour l'affichage
      */
     @Override
     public String[] toStringArray() {
-        return boardToStringArray();
+        if (rendered == null || renderedHash != hash){
+            rendered = boardToStringArray();
+            renderedHash = hash;
+        }
+        return rendered.clone();
     }
 }
\ No newline at end of file
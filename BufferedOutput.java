@@ -0,0 +1,48 @@
+/**
+ * Sortie qui conserve le texte écrit en mémoire.
+ * Pratique pour les parties sans interface graphique dont on veut relire le déroulement.
+ */
+public class BufferedOutput implements GameOutput
+{
+    private final StringBuilder buffer;
+
+    /**
+     * Constructeur d'une sortie mémoire vide.
+     */
+    public BufferedOutput(){
+        this.buffer = new StringBuilder();
+    }
+
+    @Override
+    public void print(String s){
+        buffer.append(s);
+    }
+
+    @Override
+    public void println(String s){
+        buffer.append(s).append('\n');
+    }
+
+    @Override
+    public void println(){
+        buffer.append('\n');
+    }
+
+    @Override
+    public void clean(){
+        buffer.setLength(0);
+    }
+
+    /**
+     * Retourne tout le texte écrit depuis le dernier nettoyage.
+     * @return Le texte conservé
+     */
+    public String getText(){
+        return buffer.toString();
+    }
+
+    @Override
+    public String toString(){
+        return getText();
+    }
+}
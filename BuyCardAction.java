@@ -8,6 +8,8 @@ public class BuyCardAction implements Action {
 
     private int level;   // 0..2
     private int column;  // 0..3
+    private DevCard bought; // carte achetée par le dernier process (null si aucune)
+    private long paid;      // paiement du dernier process (voir PackedResources.payment)
 
     /**
      * Constructeur de l'action d'achat de carte.
@@ -28,38 +30,34 @@ public class BuyCardAction implements Action {
     @Override
     public void process(Player player, Board board) {
         DevCard card = board.getCard(level, column);
+        bought = null;
 
         if (card == null) {
-            Game.display.out.println("❌ Pas de carte à cet endroit.");
+            board.getOutput().println("❌ Pas de carte à cet endroit.");
             return;
         }
 
         if (!player.canBuyCard(card)) {
-            Game.display.out.println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
+            board.getOutput().println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
             // (Debug utile) montre ce qui manque
             for (Resource r : Resource.values()) {
-                int cost = card.getCost().getNbResource(r);
+                int cost = card.getCostOf(r);
                 int bonus = player.getResFromCards(r);
                 int need = Math.max(0, cost - bonus);
                 int have = player.getNbResource(r);
                 if (need > 0) {
-                    Game.display.out.println(" - " + r.toSymbol() + " besoin " + need + ", tu as " + have + " (bonus " + bonus + ")");
+                    board.getOutput().println(" - " + r.toSymbol() + " besoin " + need + ", tu as " + have + " (bonus " + bonus + ")");
                 }
             }
+            if (player.getGold() > 0) {
+                board.getOutput().println(" - " + Resources.GOLD_SYMBOL + " tu as " + player.getGold() + " jeton(s) or");
+            }
             return;
         }
 
-        // Paiement
-        for (Resource r : Resource.values()) {
-            int cost = card.getCost().getNbResource(r);
-            int bonus = player.getResFromCards(r);
-            int pay = Math.max(0, cost - bonus);
-
-            if (pay > 0) {
-                player.updateNbResource(r, -pay);
-                board.updateNbResource(r, +pay);
-            }
-        }
+        // Paiement : jetons de couleur d'abord, jetons or pour le reste (voir PackedResources.payment)
+        paid = player.payFor(card, board);
+        bought = card;
 
         // Ajout carte (ajoute déjà les points via Player.addPurchasedCard)
         player.addPurchasedCard(card);
@@ -71,9 +69,49 @@ public class BuyCardAction implements Action {
         // Remplacer la carte sur le board
         board.updateCard(card);
         
-        Game.display.out.println(player.getName() + " achète une carte.");
+        board.getOutput().println(player.getName() + " achète une carte.");
     }
     
+    /**
+     * Annule le dernier achat : la carte tirée retourne sur sa pile, la carte achetée
+     * reprend sa place et le paiement est rendu au joueur.
+     * @param player Le joueur qui a acheté la carte
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        if (bought == null) return;
+        board.restoreCard(level, column, bought);
+        player.removePurchasedCard(bought);
+        player.refund(paid, board);
+        bought = null;
+        paid = 0;
+    }
+
+    /**
+     * Retourne le niveau de la carte achetée.
+     * @return L'indice du niveau (0-2)
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Retourne la colonne de la carte achetée.
+     * @return L'indice de la colonne (0-3)
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Retourne la carte achetée par le dernier process.
+     * @return La carte achetée, ou null si l'achat n'a pas eu lieu
+     */
+    public DevCard getBoughtCard() {
+        return bought;
+    }
+
     @Override
     public String toString() {
         return "Achète une carte";
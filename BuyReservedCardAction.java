@@ -0,0 +1,84 @@
+/**
+ * La classe BuyReservedCardAction représente l'achat d'une carte que le joueur a réservée
+ * (voir ReserveCardAction). Le paiement suit les mêmes règles qu'un achat sur le plateau
+ * (voir Player.payFor), mais aucune carte n'est tirée pour remplacer la carte achetée.
+ */
+
+public class BuyReservedCardAction implements Action {
+
+    private int index;      // indice de la carte parmi les cartes réservées
+    private DevCard bought; // carte achetée par le dernier process (null si aucune)
+    private long paid;      // paiement du dernier process (voir PackedResources.payment)
+
+    /**
+     * Constructeur de l'action d'achat d'une carte réservée.
+     * @param index L'indice de la carte parmi les cartes réservées du joueur (0-2)
+     */
+    public BuyReservedCardAction(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Exécute l'achat : vérifie la carte et les ressources du joueur, effectue le paiement
+     * et ajoute la carte aux cartes achetées.
+     * @param player Le joueur qui achète la carte
+     * @param board Le plateau de jeu, qui reçoit le paiement
+     */
+    @Override
+    public void process(Player player, Board board) {
+        bought = null;
+
+        if (index < 0 || index >= player.getNbReservedCards()) {
+            board.getOutput().println("❌ Pas de carte réservée à cet endroit.");
+            return;
+        }
+        DevCard card = player.getReservedCard(index);
+        paid = player.payFor(card, board);
+        if (paid < 0) {
+            board.getOutput().println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
+            return;
+        }
+        bought = card;
+        player.removeReservedCard(index);
+        player.addPurchasedCard(card);
+
+        board.getOutput().println(player.getName() + " achète une carte réservée.");
+    }
+
+    /**
+     * Annule le dernier achat : la carte retourne parmi les cartes réservées, à sa place,
+     * et le paiement est rendu au joueur.
+     * @param player Le joueur qui a acheté la carte
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        if (bought == null) return;
+        player.removePurchasedCard(bought);
+        player.insertReservedCard(index, bought);
+        player.refund(paid, board);
+        bought = null;
+        paid = 0;
+    }
+
+    /**
+     * Retourne l'indice de la carte achetée parmi les cartes réservées.
+     * @return L'indice de la carte (0-2)
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Retourne la carte achetée par le dernier process.
+     * @return La carte achetée, ou null si l'achat n'a pas eu lieu
+     */
+    public DevCard getBoughtCard() {
+        return bought;
+    }
+
+    @Override
+    public String toString() {
+        return "Achète une carte réservée";
+    }
+}
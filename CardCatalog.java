@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue des cartes de développement et des nobles, lu une seule fois depuis stats.csv et partagé
+ * par toutes les parties (y compris celles jouées en parallèle) : les cartes et les nobles sont immuables.
+ * Chaque carte reçoit un identifiant dense (0 à getNbCards()-1), dans l'ordre du fichier,
+ * ce qui permet aux plateaux de ne manipuler que des identifiants ; de même pour les nobles.
+ */
+public final class CardCatalog
+{
+    /** Nom du fichier des cartes, relatif au répertoire courant. */
+    public static final String FILE_NAME = "stats.csv";
+
+    private final DevCard[] cards;
+    private final Noble[] nobles;
+    private final int[][] tierIds;
+
+    /**
+     * Chargement paresseux et thread-safe : la classe Holder n'est initialisée qu'au premier appel.
+     */
+    private static final class Holder {
+        private static final CardCatalog INSTANCE = load(Paths.get(FILE_NAME));
+    }
+
+    private CardCatalog(DevCard[] cards, Noble[] nobles){
+        this.cards = cards;
+        this.nobles = nobles;
+        this.tierIds = new int[3][];
+        for(int tier = 1; tier <= 3; tier++){
+            int n = 0;
+            for(DevCard card : cards){
+                if(card.getTier() == tier) n++;
+            }
+            int[] ids = new int[n];
+            n = 0;
+            for(DevCard card : cards){
+                if(card.getTier() == tier) ids[n++] = card.getId();
+            }
+            tierIds[tier-1] = ids;
+        }
+    }
+
+    /**
+     * Retourne le catalogue partagé, en lisant stats.csv au premier appel.
+     * @return Le catalogue des cartes
+     * @throws IllegalStateException si le fichier est absent ou mal formé
+     */
+    public static CardCatalog getInstance() throws IllegalStateException {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Lit un fichier de cartes au format de stats.csv.
+     * Les lignes "NOBLE" (niveau 0) donnent les nobles : leurs coûts sont les bonus exigés.
+     * @param file Le fichier à lire
+     * @return Le catalogue des cartes du fichier
+     * @throws IllegalStateException si le fichier est absent ou mal formé
+     */
+    static CardCatalog load(Path file) throws IllegalStateException {
+        List<String> lines;
+        try{
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch(IOException e){
+            throw new IllegalStateException("Impossible de lire le fichier des cartes : " + file.toAbsolutePath(), e);
+        }
+
+        List<DevCard> cardList = new ArrayList<>();
+        List<Noble> nobleList = new ArrayList<>();
+        for(int i = 1; i < lines.size(); i++){ // la première ligne est l'en-tête
+            String ligne = lines.get(i).trim();
+            if(ligne.isEmpty()) continue;
+            String[] valeurs = ligne.split(",");
+            try{
+                int tier = Integer.parseInt(valeurs[0]);
+                int coutDiamond = Integer.parseInt(valeurs[1]);
+                int coutSapphire = Integer.parseInt(valeurs[2]);
+                int coutEmerald = Integer.parseInt(valeurs[3]);
+                int coutRuby = Integer.parseInt(valeurs[4]);
+                int coutOnyx = Integer.parseInt(valeurs[5]);
+                int points = Integer.parseInt(valeurs[6]);
+                String typeStr = valeurs[7];
+
+                if("NOBLE".equals(typeStr)){
+                    nobleList.add(new Noble(nobleList.size(), points,
+                                            coutDiamond, coutSapphire, coutEmerald, coutRuby, coutOnyx));
+                    continue;
+                }
+                Resource resourceType = Resource.valueOf(typeStr);
+                cardList.add(new DevCard(cardList.size(), tier, resourceType, points,
+                                         coutDiamond, coutSapphire, coutEmerald, coutRuby, coutOnyx));
+            } catch(RuntimeException e){
+                throw new IllegalStateException("Ligne " + (i+1) + " invalide dans " + file + " : " + ligne, e);
+            }
+        }
+        return new CardCatalog(cardList.toArray(new DevCard[0]), nobleList.toArray(new Noble[0]));
+    }
+
+    /**
+     * Retourne le nombre de cartes du catalogue.
+     * @return Le nombre de cartes
+     */
+    public int getNbCards(){
+        return cards.length;
+    }
+
+    /**
+     * Retourne la carte d'identifiant donné.
+     * @param id L'identifiant de la carte (0 à getNbCards()-1)
+     * @return La carte
+     */
+    public DevCard getCard(int id){
+        return cards[id];
+    }
+
+    /**
+     * Retourne le nombre de nobles du catalogue.
+     * @return Le nombre de nobles
+     */
+    public int getNbNobles(){
+        return nobles.length;
+    }
+
+    /**
+     * Retourne le noble d'identifiant donné.
+     * @param id L'identifiant du noble (0 à getNbNobles()-1)
+     * @return Le noble
+     */
+    public Noble getNoble(int id){
+        return nobles[id];
+    }
+
+    /**
+     * Retourne les identifiants des cartes d'un niveau, dans l'ordre du fichier.
+     * Le tableau retourné est une copie : l'appelant peut le mélanger.
+     * @param tier Le niveau (1, 2 ou 3)
+     * @return Les identifiants des cartes de ce niveau
+     */
+    public int[] getTierIds(int tier){
+        return tierIds[tier-1].clone();
+    }
+
+    /**
+     * Retourne le nombre de cartes d'un niveau.
+     * @param tier Le niveau (1, 2 ou 3)
+     * @return Le nombre de cartes de ce niveau
+     */
+    public int getTierSize(int tier){
+        return tierIds[tier-1].length;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Action dont le choix n'est fait qu'au moment de l'exécution, quand le joueur voit le plateau
+ * (robots, joueur humain). decide retourne l'action concrète, qui est alors exécutée ;
+ * undo annule cette action concrète.
+ */
+public abstract class DeferredAction implements Action
+{
+    private Action delegate;
+
+    /**
+     * Choisit l'action concrète à exécuter. Avec un temps de réflexion, le joueur et le plateau
+     * reçus sont des copies (voir Player.chooseActionAsync) : seuls les paramètres sont à utiliser.
+     * @param player Le joueur qui effectue l'action
+     * @param board Le plateau de jeu
+     * @return L'action choisie, ou null pour ne rien faire
+     */
+    protected abstract Action decide(Player player, Board board);
+
+    /**
+     * Choisit l'action concrète puis l'exécute.
+     * @param player Le joueur qui effectue l'action
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void process(Player player, Board board){
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        delegate = decide(player, board);
+        if(Metrics.ENABLED){
+            Metrics.noteDecide(System.nanoTime() - start);
+        }
+        if(delegate != null){
+            delegate.process(player, board);
+        }
+    }
+
+    /**
+     * Annule l'action concrète exécutée par le dernier process.
+     * @param player Le joueur qui a effectué l'action
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board){
+        if(delegate != null){
+            delegate.undo(player, board);
+        }
+    }
+
+    /**
+     * Retourne l'action concrète choisie par le dernier process.
+     * @return L'action concrète, ou null si process n'a pas encore été appelé
+     */
+    public Action getDelegate(){
+        return delegate;
+    }
+
+    @Override
+    public String toString(){
+        return delegate == null ? "Action à choisir" : delegate.toString();
+    }
+}
@@ -4,10 +4,22 @@
  * Elle contient le niveau (tier), le type de ressource, les points de victoire, et le coût en ressources.
  */
 public class DevCard implements Displayable {
+    final int id;
     final int tier;
     final Resource resourceType;
     final int points;
-    Resources cost;
+    final Resources cost;
+    final int packedCost;
+    // affichage d'une case vide
+    private static final String[] NO_CARD = {"\u250C\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2510",
+                                             "\u2502 \\    / \u2502",
+                                             "\u2502  \\  /  \u2502",
+                                             "\u2502   \\/   \u2502",
+                                             "\u2502   /\\   \u2502",
+                                             "\u2502  /  \\  \u2502",
+                                             "\u2502 /    \\ \u2502",
+                                             "\u2514\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2518"};
+    private volatile String[] lines; // affichage de la carte, construit au premier appel
     
     /**
      * Constructeur d'une carte de développement avec un objet Resources pour le coût.
@@ -17,10 +29,12 @@ public class DevCard implements Displayable {
      * @param resources l'objet Resources contenant le coût de la carte
      */
     public DevCard(int tier, Resource resourceType, int nbPoints, Resources resources){
+        this.id = -1;
         this.tier = tier;
         this.resourceType = resourceType;
         this.points = nbPoints;
-        this.cost = resources;
+        this.cost = new Resources(resources);
+        this.packedCost = PackedResources.pack(cost);
         }
         
     /**
@@ -36,6 +50,24 @@ public class DevCard implements Displayable {
      */
     public DevCard(int tier, Resource resourceType, int nbPoints, int nbDIAMOND, int nbSAPPHIRE, int nbEMERALD,
                     int nbRUBY, int nbONYX){
+        this(-1, tier, resourceType, nbPoints, nbDIAMOND, nbSAPPHIRE, nbEMERALD, nbRUBY, nbONYX);
+        }
+        
+    /**
+     * Constructeur d'une carte du catalogue (voir CardCatalog), avec son identifiant.
+     * @param id l'identifiant de la carte dans le catalogue
+     * @param tier le niveau de la carte (1, 2 ou 3)
+     * @param resourceType le type de ressource que la carte produit
+     * @param nbPoints le nombre de points de victoire de la carte
+     * @param nbDIAMOND nombre de diamants requis
+     * @param nbSAPPHIRE nombre de saphirs requis
+     * @param nbEMERALD nombre d'émeraudes requis
+     * @param nbRUBY nombre de rubis requis
+     * @param nbONYX nombre d'onyx requis
+     */
+    DevCard(int id, int tier, Resource resourceType, int nbPoints, int nbDIAMOND, int nbSAPPHIRE, int nbEMERALD,
+                    int nbRUBY, int nbONYX){
+        this.id = id;
         this.tier = tier;
         this.resourceType = resourceType;
         
@@ -46,8 +78,17 @@ public class DevCard implements Displayable {
         this.cost.setNbResource(Resource.EMERALD, nbEMERALD);
         this.cost.setNbResource(Resource.RUBY, nbRUBY);
         this.cost.setNbResource(Resource.ONYX, nbONYX);
+        this.packedCost = PackedResources.pack(cost);
         }
         
+    /**
+     * Retourne l'identifiant de la carte dans le catalogue.
+     * @return l'identifiant, ou -1 si la carte n'est pas issue du catalogue
+     */
+    public int getId(){
+        return id;
+    }
+    
     /**
      * Retourne le niveau (tier) de la carte.
      * @return le tier (1, 2 ou 3)
@@ -73,11 +114,38 @@ public class DevCard implements Displayable {
     }
     
     /**
-     * Retourne l'objet Resources contenant le coût de la carte.
+     * Retourne une copie de l'objet Resources contenant le coût de la carte.
+     * La carte est immuable (elle est partagée entre les parties) : modifier la copie ne la change pas.
      * @return l'objet Resources du coût
      */
     public Resources getCost(){
-        return cost;
+        return new Resources(cost);
+    }
+    
+    /**
+     * Retourne la quantité d'une ressource requise pour acheter la carte.
+     * @param r la ressource
+     * @return le nombre de jetons de cette ressource dans le coût
+     */
+    public int getCostOf(Resource r){
+        return cost.getNbResource(r);
+    }
+    
+    /**
+     * Retourne le coût compacté de la carte (voir PackedResources).
+     * @return le coût compacté
+     */
+    public int getPackedCost(){
+        return packedCost;
+    }
+    
+    /**
+     * Vérifie si la carte peut être achetée avec un pouvoir d'achat donné (jetons + bonus).
+     * @param packedPower le pouvoir d'achat compacté (voir PackedResources)
+     * @return true si chaque ressource du coût est couverte, false sinon
+     */
+    public boolean isAffordable(int packedPower){
+        return PackedResources.covers(packedPower, packedCost);
     }
     
     /**
@@ -85,7 +153,7 @@ public class DevCard implements Displayable {
      * @return le nombre de diamants
      */
     public double getDIAMOND(){
-        return cost.getNbResource(Resource.DIAMOND);
+        return getCostOf(Resource.DIAMOND);
     }
     
     /**
@@ -93,7 +161,7 @@ public class DevCard implements Displayable {
      * @return le nombre de saphirs
      */
     public double getSAPPHIRE(){
-        return cost.getNbResource(Resource.SAPPHIRE);
+        return getCostOf(Resource.SAPPHIRE);
     }
     
     /**
@@ -101,7 +169,7 @@ public class DevCard implements Displayable {
      * @return le nombre d'émeraudes
      */
     public double getEMERALD(){
-        return cost.getNbResource(Resource.EMERALD);
+        return getCostOf(Resource.EMERALD);
     }
     
     /**
@@ -109,7 +177,7 @@ public class DevCard implements Displayable {
      * @return le nombre de rubis
      */
     public double getRUBY(){
-        return cost.getNbResource(Resource.RUBY);
+        return getCostOf(Resource.RUBY);
     }
     
     /**
@@ -117,11 +185,12 @@ public class DevCard implements Displayable {
      * @return le nombre d'onyx
      */
     public double getONYX(){
-        return cost.getNbResource(Resource.ONYX);
+        return getCostOf(Resource.ONYX);
     }
         
     /**
      * Retourne une représentation graphique de la carte sous forme de tableau de chaînes.
+     * Une carte ne change jamais : ses lignes sont construites une seule fois.
      * @return un tableau de chaînes représentant la carte
      */
     public String[] toStringArray(){
@@ -135,6 +204,10 @@ public class DevCard implements Displayable {
          * │3 ♥R    │
          * └────────┘
          */
+        String[] cached = lines;
+        if(cached != null){
+            return cached.clone();
+        }
         String pointStr = "  ";
         if(getPoints()>0){
             pointStr = new String(new int[] {getPoints()+9311}, 0, 1);
@@ -149,13 +222,40 @@ public class DevCard implements Displayable {
                             "\u2514\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2518"};
         //update cost of the repr
         int i=6;
-        for(Resource res : cost.keySet()){ //-- parcourir l'ensemble des resources (res)en utilisant l'énumération Resource
-            if(getCost().getNbResource(res)>0){
-                cardStr[i] = "\u2502"+getCost().getNbResource(res)+" "+res.toSymbol()+"    \u2502";
+        for(Resource res : Resource.values()){ //-- parcourir l'ensemble des resources (res)en utilisant l'énumération Resource
+            if(getCostOf(res)>0){
+                cardStr[i] = "\u2502"+getCostOf(res)+" "+res.toSymbol()+"    \u2502";
                 i--;
             }
         }
-        return cardStr;
+        lines = cardStr;
+        return cardStr.clone();
+    }
+
+    /**
+     * Dessine la carte dans une image, à partir de ses lignes construites une seule fois.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     */
+    @Override
+    public void draw(FrameBuffer fb, int row, int col){
+        String[] cached = lines;
+        if(cached == null){
+            toStringArray();
+            cached = lines;
+        }
+        fb.draw(row, col, cached);
+    }
+
+    /**
+     * Dessine une case vide dans une image.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     */
+    public static void drawNoCard(FrameBuffer fb, int row, int col){
+        fb.draw(row, col, NO_CARD);
     }
 
     /**
@@ -173,16 +273,7 @@ public class DevCard implements Displayable {
          * │ /    \ │
          * └────────┘
          */
-        String[] cardStr = {"\u250C\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2510",
-                            "\u2502 \\    / \u2502",
-                            "\u2502  \\  /  \u2502",
-                            "\u2502   \\/   \u2502",
-                            "\u2502   /\\   \u2502",
-                            "\u2502  /  \\  \u2502",
-                            "\u2502 /    \\ \u2502",
-                            "\u2514\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2500\u2518"};
-        
-        return cardStr;
+        return NO_CARD.clone();
     }
 
     /**
@@ -192,9 +283,9 @@ public class DevCard implements Displayable {
     public String toString(){
         String cardStr = "";
         cardStr = getPoints()+"pts, type "+resourceType.toSymbol()+" | coût: ";
-        for(Resource res : cost.keySet()){ //-- parcourir l'ensemble des resources (res) en utilisant l'énumération Resource
-            if(getCost().getNbResource(res)>0){
-                cardStr += getCost().getNbResource(res)+res.toSymbol()+" ";
+        for(Resource res : Resource.values()){ //-- parcourir l'ensemble des resources (res) en utilisant l'énumération Resource
+            if(getCostOf(res)>0){
+                cardStr += getCostOf(res)+res.toSymbol()+" ";
             }
         }
         return cardStr;
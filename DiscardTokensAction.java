@@ -6,6 +6,7 @@
 public class DiscardTokensAction implements Action {
 
     private final Resources resourcesToDiscard;
+    private int discarded; // jetons défaussés par le dernier process (voir PackedResources)
 
     /**
      * Crée une action de défausse de jetons.
@@ -26,9 +27,11 @@ public class DiscardTokensAction implements Action {
     @Override
     
     public void process(Player player, Board board) {
+        discarded = 0;
         if (resourcesToDiscard == null) return;
 
-        for (Resource r : resourcesToDiscard.getAvailableResources()) {
+        for (int mask = resourcesToDiscard.getAvailableMask(); mask != 0; mask &= mask - 1) {
+            Resource r = Resources.resourceAt(Integer.numberOfTrailingZeros(mask));
             int asked = resourcesToDiscard.getNbResource(r);
             if (asked <= 0) continue;
 
@@ -38,10 +41,38 @@ public class DiscardTokensAction implements Action {
             if (real > 0) {
                 player.updateNbResource(r, -real);
                 board.updateNbResource(r, +real);
+                discarded = PackedResources.with(discarded, r.ordinal(), real);
             }
         }
     }
 
+    /**
+     * Rend au joueur les jetons défaussés par le dernier process.
+     *
+     * @param player Le joueur qui a défaussé les jetons.
+     * @param board  Le plateau de jeu.
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        for (int i = 0; i < Resources.NB_TYPES; i++) {
+            int n = PackedResources.get(discarded, i);
+            if (n > 0) {
+                Resource r = Resources.resourceAt(i);
+                board.updateNbResource(r, -n);
+                player.updateNbResource(r, n);
+            }
+        }
+        discarded = 0;
+    }
+
+    /**
+     * Retourne une copie des ressources à défausser.
+     * @return Les jetons demandés à la défausse
+     */
+    public Resources getResourcesToDiscard() {
+        return resourcesToDiscard == null ? new Resources() : new Resources(resourcesToDiscard);
+    }
+
     /**
      * Retourne une description textuelle de l'action.
      *
@@ -210,6 +210,8 @@ class Display {
     }
 
     public void close(){
+        out.stop();
+        outBoard.stop();
         frame.dispose();
     }
 
@@ -221,15 +223,191 @@ class Display {
         return boardTextAreaBoard.getRows();
     }
 
-    public class JTextAreaPrintStream {
+    /**
+     * Sortie texte dans une zone de la fenêtre.
+     * Le thread du jeu n'écrit jamais dans le composant Swing : le texte, les images (printFrame)
+     * et les effacements sont accumulés, puis appliqués dans le thread de Swing au plus
+     * MAX_FPS fois par seconde. Entre deux mises à jour, une image remplace les précédentes
+     * et le texte qui la précédait, qui ne seraient de toute façon jamais vus.
+     * Le texte en attente et le texte affiché sont limités aux SCROLLBACK_LINES dernières lignes,
+     * pour que la mémoire reste stable pendant une longue partie entre robots.
+     * Une image est copiée dans un des trois tableaux de lignes qui tournent entre le jeu et Swing,
+     * puis écrite dans le document en un seul remplacement : sans allocation d'une image à l'autre,
+     * hormis le texte remplacé.
+     */
+    public class JTextAreaPrintStream implements GameOutput {
+        private static final int MAX_FPS = 30;
+        private static final int SCROLLBACK_LINES = 1000;
+
         private JTextArea textArea;
+        private final Timer timer;
+        private long lastFlush; // date de la dernière mise à jour, en ms (thread de Swing)
+
+        // Thread de Swing : dernière image affichée, image à afficher et texte à écrire
+        private String[] frame;
+        private boolean frameShown;
+        private String[] nextFrame;
+        private final StringBuilder frameText = new StringBuilder();
+
+        // En attente d'affichage, protégé par pending
+        private final LineRing pending = new LineRing(SCROLLBACK_LINES);
+        private String[] pendingFrame;
+        private boolean hasPendingFrame;
+        private boolean pendingClean;
+        private boolean scheduled;
     
         public JTextAreaPrintStream(JTextArea textArea) {
             this.textArea = textArea;
+            this.timer = new Timer(0, e -> flush());
+            this.timer.setRepeats(false);
         }
 
         public void clean(){
-            textArea.setText("");
+            synchronized (pending) {
+                pending.clear();
+                hasPendingFrame = false;
+                pendingClean = true;
+                schedule();
+            }
+        }
+
+        /**
+         * Affiche une image en ne remplaçant dans le document que les lignes qui ont changé
+         * depuis l'image précédente (voir showFrame). Les lignes sont copiées dans un tableau
+         * réutilisé ; les mises à jour sont faites dans le thread de Swing.
+         */
+        @Override
+        public void printFrame(String[] lines) {
+            synchronized (pending) {
+                pending.clear();
+                if (pendingFrame == null || pendingFrame.length != lines.length) {
+                    pendingFrame = new String[lines.length];
+                }
+                System.arraycopy(lines, 0, pendingFrame, 0, lines.length);
+                hasPendingFrame = true;
+                schedule();
+            }
+        }
+
+        /**
+         * Demande une mise à jour de la zone, si aucune n'est déjà prévue. Appelée avec le verrou.
+         */
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                SwingUtilities.invokeLater(this::startTimer);
+            }
+        }
+
+        /**
+         * Lance la mise à jour dès que l'intervalle minimal depuis la précédente est écoulé
+         * (thread de Swing).
+         */
+        private void startTimer() {
+            long wait = lastFlush + 1000 / MAX_FPS - System.currentTimeMillis();
+            timer.setInitialDelay((int) Math.max(0, wait));
+            timer.restart();
+        }
+
+        /**
+         * Applique à la zone tout ce qui a été écrit depuis la mise à jour précédente (thread de Swing).
+         */
+        private void flush() {
+            boolean clean;
+            boolean hasFrame;
+            String text;
+            synchronized (pending) {
+                clean = pendingClean;
+                hasFrame = hasPendingFrame;
+                if (hasFrame) {
+                    // L'image en attente passe au thread de Swing, le jeu remplira l'autre tableau.
+                    String[] swap = nextFrame;
+                    nextFrame = pendingFrame;
+                    pendingFrame = swap;
+                }
+                text = pending.drain();
+                pendingClean = false;
+                hasPendingFrame = false;
+                scheduled = false;
+            }
+            lastFlush = System.currentTimeMillis();
+            if (clean) {
+                textArea.setText("");
+                frameShown = false;
+            }
+            if (hasFrame) {
+                showFrame();
+            }
+            if (!text.isEmpty()) {
+                textArea.append(text);
+                trimScrollback();
+            }
+        }
+
+        /**
+         * Retire du début de la zone les lignes au-delà de SCROLLBACK_LINES.
+         */
+        private void trimScrollback() {
+            Element root = textArea.getDocument().getDefaultRootElement();
+            int excess = root.getElementCount() - SCROLLBACK_LINES;
+            if (excess > 0) {
+                textArea.replaceRange("", 0, root.getElement(excess - 1).getEndOffset());
+            }
+        }
+
+        /**
+         * Arrête les mises à jour de la zone.
+         */
+        private void stop() {
+            timer.stop();
+        }
+
+        /**
+         * Écrit nextFrame dans le document en un seul remplacement, de la première à la dernière
+         * ligne qui diffère de l'image précédente (tout le document s'il ne contient pas exactement
+         * cette image), puis en fait l'image affichée (thread de Swing).
+         */
+        private void showFrame() {
+            String[] lines = nextFrame;
+            String[] previous = frame;
+            int first = 0;
+            int last = lines.length - 1;
+            int start = 0;
+            int end = 0;
+            boolean whole = !frameShown || previous.length != lines.length;
+            if (!whole) {
+                // La première et la dernière ligne changées, et leurs positions dans le document.
+                while (first < lines.length && lines[first].equals(previous[first])) {
+                    start += previous[first].length() + 1;
+                    first++;
+                }
+                end = start;
+                for (int i = first; i < lines.length; i++) {
+                    end += previous[i].length() + 1;
+                }
+                // Quelque chose d'autre a pu être écrit depuis l'image précédente.
+                whole = end != textArea.getDocument().getLength();
+            }
+            if (whole) {
+                first = 0;
+                start = 0;
+                end = textArea.getDocument().getLength();
+            } else if (first == lines.length) {
+                return;
+            } else {
+                while (lines[last].equals(previous[last])) {
+                    end -= previous[last].length() + 1;
+                    last--;
+                }
+            }
+            frameText.setLength(0);
+            for (int i = first; i <= last; i++) {
+                frameText.append(lines[i]).append('\n');
+            }
+            textArea.replaceRange(frameText.toString(), start, end);
+            nextFrame = previous;
+            frame = lines;
+            frameShown = true;
         }
 
         private void newLine() {
@@ -268,7 +446,10 @@ class Display {
             if (s == null) {
                 s = "null";
             }
-            textArea.append(s);
+            synchronized (pending) {
+                pending.append(s);
+                schedule();
+            }
         }
 
         public void print(Object obj) {
@@ -327,6 +508,74 @@ class Display {
 
     }
     
+    /**
+     * Tampon circulaire des dernières lignes écrites : quand il est plein, une nouvelle ligne
+     * remplace la plus ancienne. La dernière ligne peut rester ouverte (sans retour à la ligne)
+     * et être complétée par l'écriture suivante.
+     */
+    private static class LineRing {
+        private final String[] lines;
+        private int first;   // indice de la plus ancienne ligne
+        private int size;    // nombre de lignes, y compris la ligne ouverte
+        private boolean open; // vrai si la dernière ligne n'est pas terminée
+
+        LineRing(int capacity) {
+            lines = new String[capacity];
+        }
+
+        void append(String s) {
+            int from = 0;
+            while (true) {
+                int nl = s.indexOf('\n', from);
+                String part = s.substring(from, nl < 0 ? s.length() : nl);
+                if (open) {
+                    int last = (first + size - 1) % lines.length;
+                    lines[last] = lines[last] + part;
+                } else if (nl >= 0 || !part.isEmpty()) {
+                    add(part);
+                }
+                if (nl < 0) {
+                    open = open || !part.isEmpty();
+                    return;
+                }
+                open = false;
+                from = nl + 1;
+            }
+        }
+
+        private void add(String line) {
+            if (size == lines.length) {
+                lines[first] = line;
+                first = (first + 1) % lines.length;
+            } else {
+                lines[(first + size) % lines.length] = line;
+                size++;
+            }
+        }
+
+        /**
+         * Retourne le texte du tampon et le vide.
+         */
+        String drain() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                text.append(lines[(first + i) % lines.length]);
+                if (i < size - 1 || !open) {
+                    text.append('\n');
+                }
+            }
+            clear();
+            return text.toString();
+        }
+
+        void clear() {
+            Arrays.fill(lines, null);
+            first = 0;
+            size = 0;
+            open = false;
+        }
+    }
+    
     private class ReadableJTextField extends JTextField implements Readable {
         private BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
     
@@ -345,11 +594,24 @@ class Display {
             });
         }
     
+        /**
+         * Attend qu'une ligne soit tapée, puis copie les caractères disponibles (bloquant, comme
+         * une console : un Scanner ne tourne pas à vide en attendant la saisie).
+         * @return Le nombre de caractères copiés, ou -1 si le thread est interrompu
+         */
         @Override
         public int read(CharBuffer cb) {
             synchronized (queue) {
+                try {
+                    while (queue.isEmpty()) {
+                        queue.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
                 int n;
-                for(n=0;!queue.isEmpty();n++){
+                for(n=0;!queue.isEmpty() && cb.hasRemaining();n++){
                     cb.put((char)queue.poll().intValue());
                 }
                 return n;
@@ -1,6 +1,7 @@
 /**
  * Interface pour les objets affichables dans le jeu.
- * Permet de convertir un objet en tableau de chaînes pour l'affichage.
+ * Permet de convertir un objet en tableau de chaînes pour l'affichage,
+ * ou de le dessiner directement dans une image (voir FrameBuffer).
  */
 
 public interface Displayable {
@@ -9,6 +10,17 @@ public interface Displayable {
      * @return Un tableau de chaînes pour l'affichage
      */
     public String[] toStringArray();
+
+    /**
+     * Dessine l'objet dans une image, son coin haut gauche à la position donnée.
+     * Par défaut, dessine les lignes de toStringArray ; les objets affichés à chaque tour
+     * redéfinissent cette méthode pour écrire directement dans l'image, sans construire de chaînes.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     */
+    public default void draw(FrameBuffer fb, int row, int col){
+        fb.draw(row, col, toStringArray());
+    }
 }
  
-
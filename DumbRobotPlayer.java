@@ -1,5 +1,4 @@
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,29 +29,27 @@ public class DumbRobotPlayer extends Player {
      */
     @Override
     public Action chooseAction() {
-        return new Action(){
+        return new DeferredAction(){
             /**
-             * Traite l'action choisie par le robot selon sa stratégie.
+             * Choisit l'action du robot selon sa stratégie.
              *
              * @param player Le joueur robot qui effectue l'action
              * @param board Le plateau de jeu
+             * @return L'action choisie
              */
             @Override
-            public void process(Player player, Board board) {
+            protected Action decide(Player player, Board board) {
+                int affordable = board.evaluateCards(player.getPackedPower(), player.getGold(), null);
                 for(int tier = 2; tier >= 0; tier--){
-                    for(int col = 0; col < 4; col++){
-                        DevCard card = board.getCard(tier, col);
-                        if(card != null && player.canBuyCard(card)){
-                            new BuyCardAction(tier, col).process(player, board);
-                            return;
-                        }
+                    int cols = (affordable >>> (4 * tier)) & 0xF;
+                    if(cols != 0){
+                        return new BuyCardAction(tier, Integer.numberOfTrailingZeros(cols));
                     }
                 }
                 
                 for(Resource r : Resource.values()){
                     if(board.canGiveSameTokens(r)){
-                        new PickSameTokensAction(r).process(player, board);
-                        return;
+                        return new PickSameTokensAction(r);
                     }
                 }
 
@@ -66,11 +63,10 @@ public class DumbRobotPlayer extends Player {
                     }
                 }
                 if(count == 3 && board.canGiveDiffTokens(picked)){
-                    new PickDiffTokensAction(picked).process(player, board);
-                    return;
+                    return new PickDiffTokensAction(picked);
                 }
 
-                new PassAction().process(player, board);
+                return new PassAction();
             }
         };
     }
@@ -78,7 +74,8 @@ public class DumbRobotPlayer extends Player {
     /**
      * Le robot choisit aléatoirement les jetons à défausser si le nombre dépasse 10.
      * Il crée une "bourse" contenant tous ses jetons, les mélange, puis sélectionne
-     * les premiers jetons à défausser.
+     * les premiers jetons à défausser. Seuls les premiers jetons sont tirés (mélange
+     * de Fisher-Yates partiel) avec le générateur aléatoire du joueur.
      *
      * @return Une liste des ressources à défausser sélectionnées aléatoirement
      */
@@ -94,10 +91,11 @@ public class DumbRobotPlayer extends Player {
                 bag.add(r);
             }
         }
-        Collections.shuffle(bag);
-
         for(int i=0; i<excess && i<bag.size(); i++){
-            discard.add(bag.get(i));
+            int j = i + random.nextInt(bag.size() - i);
+            Resource picked = bag.get(j);
+            bag.set(j, bag.get(i));
+            discard.add(picked);
         }
         return discard;
     }
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * Image de l'écran sous forme de grille de caractères, allouée une seule fois : les objets
+ * affichables (voir Displayable.draw) y écrivent directement à une position (ligne, colonne),
+ * au lieu de construire et recoller des tableaux de chaînes à chaque image.
+ *
+ * Les colonnes sont des colonnes d'affichage : les chiffres cerclés (①, ⓪...) occupent deux
+ * colonnes, comme dans la police du jeu. Une ligne n'est marquée modifiée que si l'un de ses
+ * caractères change réellement, et toLines ne reconstruit que les chaînes des lignes modifiées :
+ * une image identique à la précédente ne coûte aucune allocation de chaîne.
+ */
+public class FrameBuffer
+{
+    /** Case occupée par la seconde moitié d'un caractère double largeur. */
+    private static final int WIDE_TAIL = -1;
+
+    private final int rows;
+    private final int cols;
+    private final int[] cells;
+    private final boolean[] dirty;
+    private final String[] lines;
+    private final char[] lineChars;
+
+    /**
+     * Constructeur d'une image vide (remplie d'espaces).
+     * @param rows Le nombre de lignes
+     * @param cols Le nombre de colonnes d'affichage
+     */
+    public FrameBuffer(int rows, int cols){
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new int[rows * cols];
+        this.dirty = new boolean[rows];
+        this.lines = new String[rows];
+        this.lineChars = new char[cols * 2];
+        Arrays.fill(cells, ' ');
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Retourne le nombre de colonnes d'affichage d'un caractère.
+     * @param cp Le caractère (code point)
+     * @return 2 pour les chiffres cerclés de 0 à 20, 1 sinon
+     */
+    public static int displayWidth(int cp){
+        return (cp == 9450 || (cp >= 9312 && cp <= 9331)) ? 2 : 1;
+    }
+
+    public int getRows(){
+        return rows;
+    }
+
+    public int getCols(){
+        return cols;
+    }
+
+    /* ---------- ÉCRITURE ---------- */
+
+    /**
+     * Écrit un caractère. Rien n'est écrit hors de l'image.
+     * @param row La ligne
+     * @param col La colonne
+     * @param cp Le caractère (code point)
+     * @return La colonne qui suit le caractère
+     */
+    public int put(int row, int col, int cp){
+        int width = displayWidth(cp);
+        if(row < 0 || row >= rows || col < 0 || col + width > cols){
+            return col + width;
+        }
+        set(row, col, cp);
+        if(width == 2){
+            set(row, col + 1, WIDE_TAIL);
+        }
+        return col + width;
+    }
+
+    private void set(int row, int col, int value){
+        int i = row * cols + col;
+        if(cells[i] != value){
+            cells[i] = value;
+            dirty[row] = true;
+        }
+    }
+
+    /**
+     * Écrit une chaîne sur une ligne.
+     * @param row La ligne
+     * @param col La colonne du premier caractère
+     * @param s La chaîne
+     * @return La colonne qui suit le dernier caractère
+     */
+    public int write(int row, int col, String s){
+        for(int i = 0; i < s.length(); ){
+            int cp = s.codePointAt(i);
+            col = put(row, col, cp);
+            i += Character.charCount(cp);
+        }
+        return col;
+    }
+
+    /**
+     * Écrit un entier positif en décimal, complété à gauche par des zéros.
+     * @param row La ligne
+     * @param col La colonne du premier chiffre
+     * @param value La valeur (positive)
+     * @param minDigits Le nombre minimal de chiffres
+     * @return La colonne qui suit le dernier chiffre
+     */
+    public int writeNumber(int row, int col, int value, int minDigits){
+        int digits = 1;
+        for(int v = value / 10; v > 0; v /= 10){
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        for(int d = digits - 1; d >= 0; d--){
+            put(row, col + d, '0' + value % 10);
+            value /= 10;
+        }
+        return col + digits;
+    }
+
+    /**
+     * Remplit une portion de ligne avec un même caractère (simple largeur).
+     * @param row La ligne
+     * @param col La première colonne
+     * @param end La colonne qui suit la dernière (bornée à la largeur de l'image)
+     * @param cp Le caractère
+     * @return end
+     */
+    public int fill(int row, int col, int end, int cp){
+        for(int c = col; c < Math.min(end, cols); c++){
+            put(row, c, cp);
+        }
+        return end;
+    }
+
+    /**
+     * Dessine un tableau de chaînes (voir Displayable.toStringArray), une chaîne par ligne.
+     * @param row La ligne de la première chaîne
+     * @param col La colonne de début de chaque chaîne
+     * @param strarr Les lignes à dessiner
+     */
+    public void draw(int row, int col, String[] strarr){
+        for(int i = 0; i < strarr.length; i++){
+            write(row + i, col, strarr[i]);
+        }
+    }
+
+    /**
+     * Efface toute l'image (espaces).
+     */
+    public void clear(){
+        for(int row = 0; row < rows; row++){
+            fill(row, 0, cols, ' ');
+        }
+    }
+
+    /* ---------- LECTURE ---------- */
+
+    /**
+     * Retourne les lignes de l'image. Seules les lignes modifiées depuis l'appel précédent
+     * sont reconstruites : les autres sont les mêmes objets String que la fois précédente.
+     * @return Les lignes de l'image, dans un tableau réutilisé par l'appel suivant : à copier
+     *         pour les garder (voir toLines)
+     */
+    public String[] getLines(){
+        for(int row = 0; row < rows; row++){
+            if(dirty[row] || lines[row] == null){
+                lines[row] = rowToString(row);
+                dirty[row] = false;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Retourne une copie des lignes de l'image (voir getLines).
+     * @return Les lignes de l'image (un nouveau tableau, que l'appelant peut garder)
+     */
+    public String[] toLines(){
+        return getLines().clone();
+    }
+
+    private String rowToString(int row){
+        int n = 0;
+        for(int c = row * cols, end = c + cols; c < end; c++){
+            if(cells[c] != WIDE_TAIL){
+                n += Character.toChars(cells[c], lineChars, n);
+            }
+        }
+        return new String(lineChars, 0, n);
+    }
+
+    @Override
+    public String toString(){
+        return String.join("\n", toLines());
+    }
+}
@@ -1,48 +1,120 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Auteur : ghiles seddiki
  * 
  * La classe Game gère le déroulement principal du jeu Splendor.
  * Elle orchestre les tours de jeu, les actions des joueurs, et détermine le gagnant.
+ * Le jeu écrit uniquement sur des GameOutput : il peut donc tourner dans la fenêtre Swing
+ * (voir main) ou sans aucune interface graphique pour les simulations entre robots.
+ * Tout le hasard d'une partie (mélange des piles, choix des robots) vient d'une graine :
+ * une même graine avec les mêmes joueurs rejoue exactement la même partie.
  */
 public class Game {
 
-    private static final int ROWS_BOARD = 36, ROWS_CONSOLE = 8, COLS = 82;
-    public static final Display display = new Display(ROWS_BOARD, ROWS_CONSOLE, COLS);
+    static final int ROWS_BOARD = 36, ROWS_CONSOLE = 8, COLS = 82;
 
     private int nbre_joueurs;
     private Board board;
     private List<Player> players;
 
+    private GameOutput out;
+    private GameOutput outBoard;
+    private long seed;
+
+    private int currentPlayer;
+    private int nbTurns;
+    private int maxTurns;
+    private Player winner;
+    private final GameHistory history = new GameHistory();
+    private boolean historyEnabled = true;
+    private final List<GameListener> listeners = new ArrayList<>();
+    private long displayedHash;   // hash de la position affichée en dernier
+    private boolean displayed;    // vrai si une position a déjà été affichée
+    private FrameBuffer frame;    // image du plateau, allouée au premier affichage
+
     public static void main(String[] args) {
+        Display display = new Display(ROWS_BOARD, ROWS_CONSOLE, COLS);
         display.outBoard.println("Bienvenue sur Splendor !");
-        Game game = new Game(2);
+
+        List<Player> players = new ArrayList<>();
+        players.add(new HumanPlayer(display.in, display.out));
+        players.add(new DumbRobotPlayer());
+
+        Game game = new Game(players, display.out, display.outBoard);
         game.play();
         display.close();
+        Metrics.dump();
+    }
+
+    /**
+     * Constructeur d'une partie sans affichage (simulation).
+     * Les messages des actions sont ignorés et le plateau n'est jamais dessiné.
+     * @param players Les joueurs, dans l'ordre de jeu (2 à 4)
+     * @throws IllegalArgumentException si le nombre de joueurs n'est pas valide
+     */
+    public Game(List<Player> players) throws IllegalArgumentException {
+        this(players, NullOutput.INSTANCE, NullOutput.INSTANCE);
+    }
+
+    /**
+     * Constructeur d'une partie sans affichage (simulation) reproductible.
+     * @param players Les joueurs, dans l'ordre de jeu (2 à 4)
+     * @param seed La graine de la partie
+     * @throws IllegalArgumentException si le nombre de joueurs n'est pas valide
+     */
+    public Game(List<Player> players, long seed) throws IllegalArgumentException {
+        this(players, NullOutput.INSTANCE, NullOutput.INSTANCE, seed);
+    }
+
+    /**
+     * Constructeur du jeu Splendor avec une graine tirée au hasard.
+     * @param players Les joueurs, dans l'ordre de jeu (2 à 4)
+     * @param out La sortie des messages (actions, gagnant)
+     * @param outBoard La sortie où le plateau est dessiné à chaque tour
+     * @throws IllegalArgumentException si le nombre de joueurs n'est pas valide
+     */
+    public Game(List<Player> players, GameOutput out, GameOutput outBoard) throws IllegalArgumentException {
+        this(players, out, outBoard, new SplittableRandom().nextLong());
     }
 
     /**
      * Constructeur du jeu Splendor.
-     * Initialise les joueurs et le plateau de jeu.
-     * @param nbOfPlayers Le nombre de joueurs (doit être entre 2 et 4)
+     * Initialise le plateau de jeu pour les joueurs donnés. Le générateur de la partie est
+     * divisé (split) en un flux indépendant pour le plateau et un pour chaque joueur.
+     * @param players Les joueurs, dans l'ordre de jeu (2 à 4)
+     * @param out La sortie des messages (actions, gagnant)
+     * @param outBoard La sortie où le plateau est dessiné à chaque tour
+     * @param seed La graine de la partie
      * @throws IllegalArgumentException si le nombre de joueurs n'est pas valide
      */
-    public Game(int nbOfPlayers) throws IllegalArgumentException {
-        if (nbOfPlayers < 2 || nbOfPlayers > 4) {
+    public Game(List<Player> players, GameOutput out, GameOutput outBoard, long seed) throws IllegalArgumentException {
+        if (players.size() < 2 || players.size() > 4) {
             throw new IllegalArgumentException("Nombre de joueurs invalide (2 à 4).");
         }
-        this.nbre_joueurs = nbOfPlayers;
+        this.nbre_joueurs = players.size();
+        this.out = out;
+        this.outBoard = outBoard;
+        this.seed = seed;
 
-        
-        this.board = new Board(nbOfPlayers);
+        SplittableRandom random = new SplittableRandom(seed);
+        this.board = new Board(nbre_joueurs, out, random.split());
 
-        this.players = new ArrayList<>();
-        players.add(new HumanPlayer());
-        for (int i = 1; i < nbOfPlayers; i++) {
-            players.add(new DumbRobotPlayer());
+        this.players = new ArrayList<>(players);
+        for (int i = 0; i < nbre_joueurs; i++) {
+            this.players.get(i).setId(i);
+            this.players.get(i).setRandom(random.split());
+            this.players.get(i).setGame(this);
         }
+        this.currentPlayer = 0;
+        this.nbTurns = 0;
+        this.maxTurns = 0;
     }
 
     /**
@@ -53,31 +125,116 @@ public class Game {
         return nbre_joueurs;
     }
 
+    /**
+     * Retourne la graine de la partie.
+     * @return La graine qui permet de rejouer la partie
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retourne le plateau de la partie.
+     * @return Le plateau
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Retourne les joueurs de la partie, dans l'ordre de jeu.
+     * @return La liste des joueurs
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Retourne la place du joueur dont c'est le tour.
+     * @return L'indice du joueur courant dans getPlayers()
+     */
+    public int getCurrentPlayerIndex() {
+        return currentPlayer;
+    }
+
+    /**
+     * Retourne le nombre de tours joués (un tour = l'action d'un joueur).
+     * @return Le nombre de tours joués
+     */
+    public int getNbTurns() {
+        return nbTurns;
+    }
+
+    /**
+     * Retourne le hash de Zobrist de la position courante, sans la recalculer :
+     * le plateau et les joueurs tiennent leur part à jour à chaque action.
+     * @return Le hash de la position
+     */
+    public long getHash() {
+        return Zobrist.hash(board, players, currentPlayer);
+    }
+
+    /**
+     * Limite le nombre de tours de la partie (utile pour les simulations entre robots,
+     * qui peuvent se bloquer en passant leur tour indéfiniment).
+     * @param maxTurns Le nombre maximal de tours, ou 0 pour ne pas limiter
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Active ou désactive l'historique des tours (activé par défaut). Sans historique, undoTurn et
+     * redoTurn ne font rien : utile pour les simulations, qui n'annulent jamais de tour.
+     * @param enabled true pour retenir les tours joués
+     */
+    public void setHistoryEnabled(boolean enabled) {
+        this.historyEnabled = enabled;
+    }
+
+    /**
+     * Retourne le gagnant une fois la partie terminée.
+     * @return Le gagnant, ou null en cas d'égalité parfaite ou si la partie n'est pas finie
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
     /**
      * Affiche l'état actuel du plateau et des joueurs.
      * @param currentPlayer L'index du joueur courant à mettre en évidence
      */
     private void display(int currentPlayer) {
-        String[] boardDisplay = board.toStringArray();
-        String[] playerDisplay = Display.emptyStringArray(0, 0);
+        if (!outBoard.isActive()) return;
+        // Le hash couvre tout ce qui est affiché : si la position n'a pas changé, l'écran non plus.
+        long frameHash = getHash();
+        if (displayed && frameHash == displayedHash) return;
+        displayed = true;
+        displayedHash = frameHash;
 
-        for (int i = 0; i < players.size(); i++) {
-            String[] pArr = players.get(i).toStringArray();
-            if (i == currentPlayer) {
-                pArr[0] = "\u27A4 " + pArr[0];
-            }
-            playerDisplay = Display.concatStringArray(playerDisplay, pArr, true);
-            playerDisplay = Display.concatStringArray(
-                playerDisplay,
-                Display.emptyStringArray(1, COLS - 54, "\u2509"),
-                true
-            );
-        }
+        outBoard.printFrame(drawFrame(currentPlayer).getLines());
+    }
 
-        String[] mainDisplay = Display.concatStringArray(boardDisplay, playerDisplay, false);
+    /**
+     * Dessine l'état actuel du plateau et des joueurs, le joueur courant mis en évidence.
+     * À appeler depuis le thread qui joue la partie ; les lignes retournées ne changent plus ensuite :
+     * elles peuvent être affichées par un autre thread pendant que la partie continue (voir Spectator).
+     * @return Les lignes de l'image
+     */
+    public String[] renderFrame() {
+        return drawFrame(currentPlayer).toLines();
+    }
 
-        display.outBoard.clean();
-        display.outBoard.println(String.join("\n", mainDisplay));
+    private FrameBuffer drawFrame(int currentPlayer) {
+        if (frame == null) {
+            frame = new FrameBuffer(ROWS_BOARD, COLS);
+        }
+        board.draw(frame, 0, 0);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).draw(frame, 9 * i, 54, i == currentPlayer);
+            frame.fill(9 * i + 8, 54, COLS, '\u2509');
+        }
+        return frame;
     }
 
     /**
@@ -85,44 +242,209 @@ public class Game {
      * Alterne les tours des joueurs jusqu'à la fin du jeu.
      */
     public void play() {
-        int currentPlayer = 0;
-
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        for (GameListener listener : listeners) {
+            listener.gameStarted(this);
+        }
         while (!isGameOver()) {
-            display(currentPlayer);
+            playTurn();
+        }
 
-            Player player = players.get(currentPlayer);
+        gameOver();
+        if (Metrics.ENABLED) {
+            Metrics.recordGame(nbTurns, System.nanoTime() - start);
+        }
+        for (GameListener listener : listeners) {
+            listener.gameEnded(this);
+        }
+    }
 
-            move(player);
-            discardToken(player); // ne doit agir que si > 10 jetons
+    /**
+     * Prévient les observateurs du début d'une partie rejouée (voir GameRecordReader).
+     */
+    void replayStarted() {
+        for (GameListener listener : listeners) {
+            listener.gameStarted(this);
+        }
+    }
 
-            currentPlayer = (currentPlayer + 1) % players.size();
+    /**
+     * Rejoue une action enregistrée, sans la demander au joueur (voir GameRecordReader).
+     * Le tour passe au joueur suivant (après la visite éventuelle d'un noble) après une défausse,
+     * ou si le joueur a 10 jetons ou moins : sinon, l'action enregistrée suivante est sa défausse.
+     * @param seat La place du joueur qui a joué
+     * @param action L'action jouée
+     */
+    void replayAction(int seat, Action action) {
+        Player player = players.get(seat);
+        action.process(player, board);
+        for (GameListener listener : listeners) {
+            listener.actionPlayed(this, seat, action);
+        }
+        if (action instanceof DiscardTokensAction || player.getNbTokens() <= 10) {
+            board.visitNoble(player);
+            currentPlayer = (seat + 1) % players.size();
+            nbTurns++;
+            for (GameListener listener : listeners) {
+                listener.turnEnded(this);
+            }
         }
+    }
 
+    /**
+     * Termine une partie rejouée : détermine le gagnant et prévient les observateurs.
+     */
+    void replayEnded() {
         gameOver();
+        for (GameListener listener : listeners) {
+            listener.gameEnded(this);
+        }
+    }
+
+    /**
+     * Ajoute un observateur de la partie (voir GameListener).
+     * @param listener L'observateur
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Joue le tour du joueur courant (action, défausse éventuelle puis visite éventuelle d'un noble)
+     * et l'ajoute à l'historique.
+     */
+    public void playTurn() {
+        display(currentPlayer);
+
+        Player player = players.get(currentPlayer);
+
+        Action action = move(player);
+        for (GameListener listener : listeners) {
+            listener.actionPlayed(this, currentPlayer, action);
+        }
+        Action discard = discardToken(player); // ne doit agir que si > 10 jetons
+        if (discard != null) {
+            for (GameListener listener : listeners) {
+                listener.actionPlayed(this, currentPlayer, discard);
+            }
+        }
+        int noble = board.visitNoble(player);
+        if (noble >= 0) {
+            out.println(player.getName() + " reçoit la visite d'un noble " + board.getNoble(noble)
+                        + " : +" + board.getNoble(noble).getPoints() + " points.");
+        }
+        if (historyEnabled) {
+            history.record(currentPlayer, action, discard, noble);
+        }
+
+        currentPlayer = (currentPlayer + 1) % players.size();
+        nbTurns++;
+        for (GameListener listener : listeners) {
+            listener.turnEnded(this);
+        }
+    }
+
+    /**
+     * Annule le dernier tour joué (voir GameHistory) : c'est de nouveau à son joueur de jouer.
+     * @return true si un tour a été annulé, false s'il n'y en avait aucun
+     */
+    public boolean undoTurn() {
+        if (!history.canUndo()) return false;
+        currentPlayer = history.undo(players, board);
+        nbTurns--;
+        winner = null;
+        return true;
+    }
+
+    /**
+     * Rejoue le dernier tour annulé, avec les mêmes actions.
+     * @return true si un tour a été rejoué, false s'il n'y en avait aucun
+     */
+    public boolean redoTurn() {
+        if (!history.canRedo()) return false;
+        currentPlayer = (history.redo(players, board) + 1) % players.size();
+        nbTurns++;
+        return true;
+    }
+
+    /**
+     * Retourne l'historique des tours de la partie.
+     * @return L'historique
+     */
+    public GameHistory getHistory() {
+        return history;
     }
 
     /**
      * Traite l'action choisie par le joueur.
      * @param player Le joueur qui effectue l'action
+     * @return L'action concrète jouée (celle choisie par une DeferredAction), ou null si aucune
      */
-    private void move(Player player) {
-        Action action = player.chooseAction();
+    private Action move(Player player) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        Action action = awaitDecision(player);
 
         if (action == null) {
-            Game.display.out.println("Action invalide -> tour passé.");
-            return;
+            if (Metrics.ENABLED) {
+                Metrics.recordMove(player, null, System.nanoTime() - start, 0, false);
+            }
+            out.println("Action invalide -> tour passé.");
+            return null;
         }
 
+        long chosen = Metrics.ENABLED ? System.nanoTime() : 0L;
+        long boardHash = board.getHash(), playerHash = player.getHash();
+        if (Metrics.ENABLED) {
+            Metrics.takeDecide();
+        }
         action.process(player, board);
+        Action played = action;
+        if (action instanceof DeferredAction) {
+            played = ((DeferredAction) action).getDelegate();
+        }
+        if (Metrics.ENABLED) {
+            // Le choix d'une action différée est fait dans process : il compte comme décision.
+            long decide = Metrics.takeDecide();
+            boolean changed = board.getHash() != boardHash || player.getHash() != playerHash;
+            Metrics.recordMove(player, played, chosen - start + decide, System.nanoTime() - chosen - decide, changed);
+        }
+        return played;
+    }
+
+    /**
+     * Attend l'action choisie par le joueur (voir Player.chooseActionAsync) au plus son temps de réflexion.
+     * Passé ce délai, la décision est annulée et l'action de repli du joueur est jouée à sa place.
+     * @param player Le joueur qui doit jouer
+     * @return L'action choisie, ou l'action de repli
+     * @throws IllegalStateException si la décision du joueur a échoué
+     */
+    private Action awaitDecision(Player player) throws IllegalStateException {
+        CompletableFuture<Action> decision = player.chooseActionAsync();
+        long budget = player.getThinkingBudget();
+        try {
+            return budget > 0 ? decision.get(budget, TimeUnit.MILLISECONDS) : decision.get();
+        } catch (TimeoutException e) {
+            decision.cancel(true);
+            out.println(player.getName() + " n'a pas choisi à temps : coup par défaut.");
+            return player.fallbackAction(board);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            decision.cancel(true);
+            return player.fallbackAction(board);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(player.getName() + " n'a pas pu choisir son action.", e.getCause());
+        }
     }
 
     /**
      * Gère la défausse de jetons si le joueur en a plus de 10.
      * @param player Le joueur qui doit potentiellement défausser
+     * @return L'action de défausse jouée, ou null si le joueur n'a pas eu à défausser
      */
-    private void discardToken(Player player) {
-        if (player.getNbTokens() <= 10) return;
+    private Action discardToken(Player player) {
+        if (player.getNbTokens() <= 10) return null;
     
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
         List<Resource> toDiscardList = player.chooseDiscardingTokens();
     
         Resources toDiscard = new Resources();
@@ -130,15 +452,25 @@ public class Game {
             toDiscard.updateNbResource(r, 1);
         }
     
-        new DiscardTokensAction(toDiscard).process(player, board);
+        long chosen = Metrics.ENABLED ? System.nanoTime() : 0L;
+        int tokens = player.getNbTokens();
+        Action discard = new DiscardTokensAction(toDiscard);
+        discard.process(player, board);
+        if (Metrics.ENABLED) {
+            Metrics.recordDiscard(player, discard, tokens - player.getNbTokens(), chosen - start, System.nanoTime() - chosen);
+        }
+        return discard;
     }
 
 
     /**
      * Vérifie si la partie est terminée.
-     * @return true si un joueur a plus de 15 points, false sinon
+     * @return true si un joueur a plus de 15 points (ou si la limite de tours est atteinte), false sinon
      */
     public boolean isGameOver() {
+        if (isTurnLimitReached()) {
+            return true;
+        }
         // le sujet: vrai si un joueur a PLUS de 15 points :contentReference[oaicite:7]{index=7}
         for (Player player : players) {
             if (player.getPoints() > 15) {
@@ -148,6 +480,14 @@ public class Game {
         return false;
     }
 
+    /**
+     * Vérifie si la partie a atteint sa limite de tours (voir setMaxTurns).
+     * @return true si la limite est atteinte, false sinon ou s'il n'y a pas de limite
+     */
+    public boolean isTurnLimitReached() {
+        return maxTurns > 0 && nbTurns >= maxTurns;
+    }
+
     /**
      * Détermine le gagnant et affiche le résultat.
      */
@@ -169,10 +509,11 @@ public class Game {
             }
         }
 
+        this.winner = winner;
         if (winner != null) {
-            display.out.println("Le gagnant est " + winner.getName() + " avec " + maxPoints + " points !");
+            out.println("Le gagnant est " + winner.getName() + " avec " + maxPoints + " points !");
         } else {
-            display.out.println("Partie nulle !");
+            out.println("Partie nulle !");
         }
     }
 }
@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historique des tours d'une partie, pour annuler et rejouer des tours (voir Game.undoTurn et
+ * Game.redoTurn). Chaque tour retient les actions concrètes jouées (l'action du joueur puis sa
+ * défausse éventuelle) : elles savent s'annuler elles-mêmes en O(1) (voir Action.undo), sans copie
+ * du plateau. Le tour retient aussi la place du noble qui a rendu visite au joueur à la fin du tour.
+ * Jouer un nouveau tour après des annulations efface les tours qui pouvaient être rejoués.
+ */
+public class GameHistory
+{
+    /**
+     * Un tour joué : le joueur, son action, sa défausse (null si aucune) et son noble (-1 si aucun).
+     */
+    private static final class Turn {
+        final int player;
+        final Action action;
+        final Action discard;
+        final int noble;
+
+        Turn(int player, Action action, Action discard, int noble){
+            this.player = player;
+            this.action = action;
+            this.discard = discard;
+            this.noble = noble;
+        }
+    }
+
+    private final List<Turn> turns;
+    private int position;
+
+    /**
+     * Constructeur d'un historique vide.
+     */
+    public GameHistory(){
+        this.turns = new ArrayList<>();
+        this.position = 0;
+    }
+
+    /**
+     * Ajoute un tour joué à l'historique.
+     * @param player L'indice du joueur
+     * @param action L'action concrète jouée (null si le joueur n'a rien fait)
+     * @param discard La défausse jouée ensuite (null si aucune)
+     * @param noble La place du noble qui a rendu visite au joueur (-1 si aucun)
+     */
+    void record(int player, Action action, Action discard, int noble){
+        while(turns.size() > position){
+            turns.remove(turns.size() - 1);
+        }
+        turns.add(new Turn(player, action, discard, noble));
+        position++;
+    }
+
+    /**
+     * Retourne le nombre de tours joués et non annulés.
+     * @return La position dans l'historique
+     */
+    public int getPosition(){
+        return position;
+    }
+
+    /**
+     * Retourne le nombre de tours de l'historique, y compris ceux qui peuvent être rejoués.
+     * @return La taille de l'historique
+     */
+    public int size(){
+        return turns.size();
+    }
+
+    /**
+     * Vérifie s'il reste un tour à annuler.
+     * @return true si un tour peut être annulé
+     */
+    public boolean canUndo(){
+        return position > 0;
+    }
+
+    /**
+     * Vérifie s'il y a un tour annulé à rejouer.
+     * @return true si un tour peut être rejoué
+     */
+    public boolean canRedo(){
+        return position < turns.size();
+    }
+
+    /**
+     * Annule le dernier tour : la visite du noble, sa défausse puis son action.
+     * @param players Les joueurs de la partie
+     * @param board Le plateau de la partie
+     * @return L'indice du joueur dont le tour a été annulé
+     * @throws IllegalStateException s'il n'y a aucun tour à annuler
+     */
+    int undo(List<Player> players, Board board) throws IllegalStateException {
+        if(!canUndo()){
+            throw new IllegalStateException("Aucun tour à annuler.");
+        }
+        Turn turn = turns.get(--position);
+        Player player = players.get(turn.player);
+        if(turn.noble >= 0){
+            board.restoreNoble(turn.noble, player);
+        }
+        if(turn.discard != null){
+            turn.discard.undo(player, board);
+        }
+        if(turn.action != null){
+            turn.action.undo(player, board);
+        }
+        return turn.player;
+    }
+
+    /**
+     * Rejoue le prochain tour annulé : son action, sa défausse puis la visite du noble.
+     * @param players Les joueurs de la partie
+     * @param board Le plateau de la partie
+     * @return L'indice du joueur dont le tour a été rejoué
+     * @throws IllegalStateException s'il n'y a aucun tour à rejouer
+     */
+    int redo(List<Player> players, Board board) throws IllegalStateException {
+        if(!canRedo()){
+            throw new IllegalStateException("Aucun tour à rejouer.");
+        }
+        Turn turn = turns.get(position++);
+        Player player = players.get(turn.player);
+        if(turn.action != null){
+            turn.action.process(player, board);
+        }
+        if(turn.discard != null){
+            turn.discard.process(player, board);
+        }
+        if(turn.noble >= 0){
+            board.visitNoble(player);
+        }
+        return turn.player;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Observateur du déroulement d'une partie (voir Game.addListener) : enregistrement des parties,
+ * statistiques... Les méthodes sont appelées par le thread qui joue la partie, et ne font rien
+ * par défaut : un observateur n'implémente que ce qui l'intéresse.
+ */
+public interface GameListener
+{
+    /**
+     * Appelée au début de Game.play, avant le premier tour.
+     * @param game La partie
+     */
+    default void gameStarted(Game game){
+    }
+
+    /**
+     * Appelée après chaque action concrète jouée : l'action du joueur, puis sa défausse s'il en fait une.
+     * @param game La partie
+     * @param player L'indice du joueur qui a joué
+     * @param action L'action jouée (null si le joueur n'a rien proposé)
+     */
+    default void actionPlayed(Game game, int player, Action action){
+    }
+
+    /**
+     * Appelée à la fin de chaque tour, une fois la main passée au joueur suivant.
+     * @param game La partie
+     */
+    default void turnEnded(Game game){
+    }
+
+    /**
+     * Appelée à la fin de Game.play, une fois le gagnant déterminé.
+     * @param game La partie
+     */
+    default void gameEnded(Game game){
+    }
+}
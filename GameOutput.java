@@ -0,0 +1,49 @@
+/**
+ * Interface représentant une sortie texte du jeu (console ou zone de plateau).
+ * Le jeu n'écrit qu'au travers de cette interface, ce qui permet de le faire tourner
+ * soit avec la fenêtre Swing (Display), soit sans interface graphique (simulation).
+ */
+public interface GameOutput
+{
+    /**
+     * Écrit une chaîne sans retour à la ligne.
+     * @param s La chaîne à écrire
+     */
+    public void print(String s);
+
+    /**
+     * Écrit une chaîne suivie d'un retour à la ligne.
+     * @param s La chaîne à écrire
+     */
+    public void println(String s);
+
+    /**
+     * Écrit un retour à la ligne.
+     */
+    public void println();
+
+    /**
+     * Efface tout le contenu de la sortie.
+     */
+    public void clean();
+
+    /**
+     * Remplace tout le contenu de la sortie par une image, une ligne par élément.
+     * Les sorties qui le peuvent ne mettent à jour que les lignes qui ont changé depuis l'image précédente.
+     * @param lines Les lignes de l'image, lues pendant l'appel seulement : le tableau est réutilisé
+     *              par l'image suivante (voir FrameBuffer.getLines), la sortie copie ce qu'elle garde
+     */
+    public default void printFrame(String[] lines){
+        clean();
+        println(String.join("\n", lines));
+    }
+
+    /**
+     * Indique si ce qui est écrit sur cette sortie est réellement affiché ou conservé.
+     * Le jeu s'en sert pour ne pas construire l'affichage du plateau quand personne ne le lit.
+     * @return true si la sortie est active, false sinon
+     */
+    public default boolean isActive(){
+        return true;
+    }
+}
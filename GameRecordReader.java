@@ -0,0 +1,292 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lit en continu un fichier de parties écrit par GameRecordWriter (voir le format dans cette classe),
+ * avec un tampon de taille fixe : le fichier n'est jamais chargé entièrement en mémoire.
+ * Chaque partie est lue entière par nextGame, puis action par action (nextRecord) ou rejouée sur
+ * un vrai plateau avec Action.process (replayGame).
+ *
+ * Un fichier coupé pendant l'écriture d'une partie (processus tué) se termine par une partie
+ * incomplète : la lecture s'arrête proprement avant elle (voir isTruncated et getCompleteLength).
+ *
+ * Utilisation : java GameRecordReader fichier (rejoue toutes les parties et affiche le débit)
+ */
+public class GameRecordReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long seed;
+    private List<String> lineup;
+    private int[] records = new int[256];
+    private int nbRecords;
+    private int nextRecord;
+    private long completeLength;
+    private boolean truncated;
+
+    /**
+     * Joueur d'une partie rejouée : ses actions viennent du fichier, on ne lui demande jamais rien.
+     */
+    private static final class ReplayPlayer extends Player {
+        ReplayPlayer(String name){
+            super(name);
+        }
+
+        @Override
+        public Action chooseAction(){
+            throw new IllegalStateException("Partie rejouée désynchronisée : une action est demandée à "
+                + getName() + " au lieu d'être lue dans le fichier.");
+        }
+
+        @Override
+        public List<Resource> chooseDiscardingTokens(){
+            throw new IllegalStateException("Partie rejouée désynchronisée : une défausse est demandée à "
+                + getName() + " au lieu d'être lue dans le fichier.");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.out.println("Utilisation : java GameRecordReader fichier");
+            return;
+        }
+        long games = 0;
+        long actions = 0;
+        long start = System.nanoTime();
+        try(GameRecordReader reader = new GameRecordReader(Paths.get(args[0]))){
+            while(reader.nextGame()){
+                Game game = reader.replayGame();
+                games++;
+                actions += game.getNbTurns();
+            }
+            if(reader.isTruncated()){
+                System.out.println("Dernière partie incomplète ignorée (fichier coupé après l'octet "
+                    + reader.getCompleteLength() + ").");
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d parties, %d tours rejoués en %.2f s : %.0f tours/s%n",
+            games, actions, seconds, actions / seconds);
+    }
+
+    /**
+     * Ouvre un fichier de parties.
+     * @param file Le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas un fichier de parties
+     */
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+        try{
+            if(readInt() != GameRecordWriter.MAGIC || readByte() != GameRecordWriter.VERSION){
+                throw new IOException("Ce n'est pas un fichier de parties (version " + GameRecordWriter.VERSION + ") : " + file);
+            }
+            completeLength = position();
+        } catch(IOException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Passe à la partie suivante et la lit entière (les actions non lues de la partie courante
+     * sont sautées).
+     * @return true s'il y a une partie suivante, false à la fin du fichier ou devant une dernière
+     *         partie incomplète (voir isTruncated)
+     * @throws IOException en cas d'erreur de lecture ou de fichier corrompu
+     */
+    public boolean nextGame() throws IOException {
+        nbRecords = 0;
+        nextRecord = 0;
+        if(truncated || !fill(1)){
+            return false;
+        }
+        int marker = buffer.get();
+        if(marker != GameRecordWriter.GAME){
+            throw new IOException("Début de partie attendu, octet " + marker + " trouvé.");
+        }
+        try{
+            seed = readLong();
+            int nbPlayers = readByte();
+            List<String> names = new ArrayList<>();
+            for(int i = 0; i < nbPlayers; i++){
+                byte[] bytes = new byte[readVarint()];
+                for(int j = 0; j < bytes.length; j++){
+                    bytes[j] = (byte) readByte();
+                }
+                names.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            for(int record = readVarint(); record != GameRecordWriter.END_OF_GAME; record = readVarint()){
+                if(nbRecords == records.length){
+                    records = Arrays.copyOf(records, nbRecords * 2);
+                }
+                records[nbRecords++] = record;
+            }
+            lineup = Collections.unmodifiableList(names);
+        } catch(EOFException e){
+            nbRecords = 0;
+            truncated = true;
+            return false;
+        }
+        completeLength = position();
+        return true;
+    }
+
+    /**
+     * Indique si le fichier se termine par une partie incomplète, que nextGame a ignorée.
+     * @return true si la fin du fichier a été atteinte au milieu d'une partie
+     */
+    public boolean isTruncated(){
+        return truncated;
+    }
+
+    /**
+     * Retourne la longueur du fichier jusqu'à la fin de la dernière partie complète lue :
+     * après le dernier nextGame, c'est la longueur à garder pour ne plus avoir de partie incomplète
+     * (voir GameRecordWriter).
+     * @return La longueur en octets
+     */
+    public long getCompleteLength(){
+        return completeLength;
+    }
+
+    /**
+     * Retourne la graine de la partie courante.
+     * @return La graine
+     */
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * Retourne les noms des joueurs de la partie courante, dans l'ordre de jeu.
+     * @return Les noms des joueurs
+     */
+    public List<String> getLineup(){
+        return lineup;
+    }
+
+    /**
+     * Lit l'action suivante de la partie courante.
+     * @return L'enregistrement de l'action (voir seat et move), ou -1 à la fin de la partie
+     */
+    public int nextRecord(){
+        return nextRecord < nbRecords ? records[nextRecord++] : -1;
+    }
+
+    /**
+     * Retourne la place du joueur d'une action.
+     * @param record L'enregistrement de l'action
+     * @return La place du joueur (0-3)
+     */
+    public static int seat(int record){
+        return (record - 1) & 3;
+    }
+
+    /**
+     * Retourne le coup d'une action.
+     * @param record L'enregistrement de l'action
+     * @return Le coup (voir Move)
+     */
+    public static int move(int record){
+        return (record - 1) >>> 2;
+    }
+
+    /**
+     * Rejoue la partie courante sur une partie neuve de même graine, en exécutant chaque action
+     * avec Action.process.
+     * @param listeners Les observateurs de la partie rejouée (voir GameListener)
+     * @return La partie rejouée, terminée
+     */
+    public Game replayGame(GameListener... listeners){
+        List<Player> players = new ArrayList<>();
+        for(String name : lineup){
+            players.add(new ReplayPlayer(name));
+        }
+        Game game = new Game(players, seed);
+        for(GameListener listener : listeners){
+            game.addListener(listener);
+        }
+        game.replayStarted();
+        for(int record = nextRecord(); record >= 0; record = nextRecord()){
+            game.replayAction(seat(record), Move.toAction(move(record)));
+        }
+        game.replayEnded();
+        return game;
+    }
+
+    /* ---------- LECTURE DU TAMPON ---------- */
+
+    /**
+     * Remplit le tampon pour qu'il contienne au moins le nombre d'octets demandé.
+     * @param bytes Le nombre d'octets voulus (au plus la taille du tampon)
+     * @return false si la fin du fichier est atteinte avant
+     * @throws IOException en cas d'erreur de lecture
+     */
+    private boolean fill(int bytes) throws IOException {
+        if(buffer.remaining() >= bytes) return true;
+        buffer.compact();
+        try{
+            while(buffer.position() < bytes){
+                if(channel.read(buffer) < 0){
+                    return false;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return true;
+    }
+
+    /**
+     * Retourne la position de lecture dans le fichier (les octets du tampon déjà lus compris).
+     * @return La position en octets
+     * @throws IOException en cas d'erreur de lecture
+     */
+    private long position() throws IOException {
+        return channel.position() - buffer.remaining();
+    }
+
+    private int readByte() throws IOException {
+        if(!fill(1)) throw new EOFException("Fichier de parties tronqué.");
+        return buffer.get() & 0xFF;
+    }
+
+    private int readInt() throws IOException {
+        if(!fill(4)) throw new EOFException("Fichier de parties tronqué.");
+        return buffer.getInt();
+    }
+
+    private long readLong() throws IOException {
+        if(!fill(8)) throw new EOFException("Fichier de parties tronqué.");
+        return buffer.getLong();
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
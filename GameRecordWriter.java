@@ -0,0 +1,207 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Écrit des parties dans un fichier binaire compact, pour archiver un grand nombre de parties
+ * entre robots et les rejouer ensuite (voir GameRecordReader).
+ *
+ * Format du fichier (entiers en big-endian, « varint » = entier non signé sur 7 bits par octet,
+ * bit de poids fort à 1 s'il reste des octets) :
+ * - en-tête : MAGIC (4 octets), VERSION (1 octet) ;
+ * - puis, pour chaque partie : GAME (1 octet), graine (8 octets), nombre de joueurs (1 octet),
+ *   nom de chaque joueur (varint longueur + UTF-8), puis un varint par action jouée, et 0 pour finir.
+ * Une action est codée par ((coup << 2) | place du joueur) + 1, où coup est le codage de Move
+ * (type, niveau/colonne, masque de jetons, défausses, carte réservée) : un achat, une réservation
+ * ou une prise tient en 1 ou 2 octets.
+ *
+ * Les écritures passent par un tampon et un FileChannel. Les parties jouées en parallèle sont
+ * enregistrées chacune par son propre observateur (newRecorder) et écrites d'un bloc à leur fin,
+ * tampon vidé : un processus tué laisse au plus une partie incomplète en fin de fichier, que
+ * GameRecordReader ignore et que la réouverture en ajout efface.
+ */
+public class GameRecordWriter implements Closeable
+{
+    static final int MAGIC = 0x53504C52; // "SPLR"
+    static final int VERSION = 4;
+    static final int GAME = 1;
+    static final int END_OF_GAME = 0;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Ouvre un fichier de parties en ajout, et le crée avec son en-tête s'il n'existe pas.
+     * Un fichier existant est relu jusqu'à sa dernière partie complète, et coupé là : les parties
+     * ajoutées ne suivent jamais une partie incomplète.
+     * @param file Le fichier
+     * @throws IOException si le fichier ne peut pas être ouvert, ou n'est pas un fichier de parties
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if(channel.size() == 0){
+            buffer.putInt(MAGIC).put((byte) VERSION);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(5);
+            channel.read(header, 0);
+            header.flip();
+            if(header.remaining() < 5 || header.getInt() != MAGIC || header.get() != VERSION){
+                channel.close();
+                throw new IOException("Ce n'est pas un fichier de parties (version " + VERSION + ") : " + file);
+            }
+            try(GameRecordReader reader = new GameRecordReader(file)){
+                while(reader.nextGame()){
+                    // Seule la fin de la dernière partie complète est utile.
+                }
+                long length = reader.getCompleteLength();
+                if(length < channel.size()){
+                    channel.truncate(length);
+                }
+                channel.position(length);
+            } catch(IOException e){
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Code une action jouée.
+     * @param seat La place du joueur (0-3)
+     * @param move Le coup joué (voir Move)
+     * @return L'enregistrement de l'action
+     */
+    static int record(int seat, int move){
+        return ((move << 2) | seat) + 1;
+    }
+
+    /**
+     * Crée un observateur qui enregistre une partie et l'écrit dans ce fichier à sa fin.
+     * Chaque partie doit avoir son propre observateur.
+     * @return L'observateur à ajouter à la partie (voir Game.addListener)
+     */
+    public GameListener newRecorder(){
+        return new GameListener(){
+            private int[] records = new int[256];
+            private int size;
+
+            @Override
+            public void gameStarted(Game game){
+                size = 0;
+            }
+
+            @Override
+            public void actionPlayed(Game game, int player, Action action){
+                if(size == records.length){
+                    records = Arrays.copyOf(records, size * 2);
+                }
+                records[size++] = record(player, action == null ? Move.pass() : Move.fromAction(action));
+            }
+
+            @Override
+            public void gameEnded(Game game){
+                List<String> lineup = new ArrayList<>();
+                for(Player player : game.getPlayers()){
+                    lineup.add(player.getName());
+                }
+                try{
+                    writeGame(game.getSeed(), lineup, records, size);
+                } catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Écrit une partie complète et vide le tampon, pour que le fichier s'arrête à une fin de partie.
+     * @param seed La graine de la partie
+     * @param lineup Les noms des joueurs, dans l'ordre de jeu
+     * @param records Les actions jouées (voir record)
+     * @param size Le nombre d'actions
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public synchronized void writeGame(long seed, List<String> lineup, int[] records, int size) throws IOException {
+        ensure(10);
+        buffer.put((byte) GAME).putLong(seed).put((byte) lineup.size());
+        for(String name : lineup){
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length);
+            for(byte b : bytes){
+                ensure(1);
+                buffer.put(b);
+            }
+        }
+        for(int i = 0; i < size; i++){
+            putVarint(records[i]);
+        }
+        putVarint(END_OF_GAME);
+        flushBuffer();
+    }
+
+    /**
+     * Écrit un entier non signé sur 7 bits par octet.
+     * @param value La valeur (positive)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void putVarint(int value) throws IOException {
+        ensure(5);
+        while((value & ~0x7F) != 0){
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Vide le tampon s'il reste moins de place que demandé.
+     * @param bytes Le nombre d'octets à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void ensure(int bytes) throws IOException {
+        if(buffer.remaining() < bytes){
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Écrit dans le fichier ce qui reste dans le tampon (l'en-tête d'un fichier neuf sans partie).
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public synchronized void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Écrit les parties encore dans le tampon et ferme le fichier.
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try{
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
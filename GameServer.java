@@ -0,0 +1,359 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serveur de parties : héberge en même temps un grand nombre de tables, où des joueurs distants
+ * (RemotePlayer) affrontent les robots du serveur. Chaque connexion TCP ouvre une table, jouée
+ * du début à la fin par son propre thread ; les robots jouent dans ce thread, sans réseau.
+ * Le serveur n'écoute que sur l'adresse locale (localhost).
+ *
+ * Protocole texte, une ligne par message, en UTF-8 :
+ * - client : JOIN joueur1 joueur2 [joueur3] [joueur4], où chaque joueur est "remote" (joué par
+ *   cette connexion) ou un nom de Tournament.playerFactory ("robot", "mcts"...) ;
+ * - serveur : TABLE numéro graine, puis la partie commence ;
+ * - serveur : PLAYED place coup, après chaque action jouée (voir Move ; -1 si rien n'a été joué) ;
+ * - serveur : STATE … (voir RemotePlayer.stateLine ; les cartes réservées à l'aveugle par les
+ *   autres joueurs y sont cachées) puis ACTION demande place coup1 coup2 …,
+ *   et le client répond MOVE demande coup ;
+ * - serveur : DISCARD demande place nombre, et le client répond DISCARD demande r1 r2 …
+ *   (indices des ressources défaussées, un par jeton) ;
+ * - serveur : ERROR message, pour une demande ou une réponse invalide ;
+ * - serveur : END gagnant tours points1 points2 …, gagnant -1 en cas d'égalité ; la connexion
+ *   est ensuite fermée. Le client peut quitter la table à tout moment avec QUIT.
+ *
+ * Chaque demande faite à un joueur distant a un temps de réflexion, compté depuis son envoi
+ * (voir RemotePlayer) : passé ce délai, il joue son action de repli. Une table dont le client
+ * se déconnecte s'arrête.
+ *
+ * Utilisation : java GameServer [port] [--think=ms] [--max-turns=N] [--seed=graine]
+ * Avec -Dsplendor.metrics=fichier, les mesures du serveur sont écrites à l'arrêt (voir Metrics).
+ */
+public class GameServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7878;
+    private static final long DEFAULT_THINK_MILLIS = 30_000;
+    private static final int DEFAULT_MAX_TURNS = 1000;
+    private static final int JOIN_TIMEOUT_MILLIS = 10_000;
+    private static final int BACKLOG = 4096;
+    // Attente après un accept en échec (plus de descripteurs de fichiers...), doublée à chaque échec.
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 5;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+    // Une table n'a besoin que d'une pile modeste : on peut en faire tourner des milliers.
+    private static final long TABLE_STACK_SIZE = 256 * 1024;
+
+    private final ServerSocket server;
+    private final ExecutorService tables;
+    private final AtomicInteger activeTables = new AtomicInteger();
+    private final AtomicLong playedTables = new AtomicLong();
+    private final AtomicLong failedTables = new AtomicLong();
+    private final SplittableRandom seeds;
+    private long thinkMillis;
+    private int maxTurns;
+    private long nextTable;
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        long think = DEFAULT_THINK_MILLIS;
+        int maxTurns = DEFAULT_MAX_TURNS;
+        Long seed = null;
+        for (String arg : args) {
+            if (arg.startsWith("--think=")) {
+                think = Long.parseLong(arg.substring("--think=".length()));
+            } else if (arg.startsWith("--max-turns=")) {
+                maxTurns = Integer.parseInt(arg.substring("--max-turns=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+        try {
+            GameServer server = new GameServer(port, seed == null ? new SplittableRandom().nextLong() : seed);
+            server.setThinkingBudget(think);
+            server.setMaxTurns(maxTurns);
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::dump));
+            System.out.println("Serveur Splendor sur localhost:" + server.getPort());
+            server.serve();
+        } catch (IOException e) {
+            System.out.println("Impossible de lancer le serveur : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Constructeur du serveur : ouvre le port d'écoute sur l'adresse locale.
+     * @param port Le port d'écoute (0 : un port libre, voir getPort)
+     * @param seed La graine du serveur, d'où sont tirées les graines des tables
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public GameServer(int port, long seed) throws IOException {
+        this.server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.seeds = new SplittableRandom(seed);
+        this.thinkMillis = DEFAULT_THINK_MILLIS;
+        this.maxTurns = DEFAULT_MAX_TURNS;
+        AtomicLong threads = new AtomicLong();
+        this.tables = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(null, r, "table-" + threads.incrementAndGet(), TABLE_STACK_SIZE);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Retourne le port d'écoute du serveur.
+     * @return Le port
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Définit le temps de réflexion des joueurs distants pour chaque coup.
+     * @param millis Le temps de réflexion en millisecondes (0 : sans limite)
+     * @throws IllegalArgumentException si le temps est négatif ou trop grand
+     */
+    public void setThinkingBudget(long millis) throws IllegalArgumentException {
+        if (millis < 0 || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Temps de réflexion invalide : " + millis + " ms");
+        }
+        this.thinkMillis = millis;
+    }
+
+    /**
+     * Limite la durée de chaque partie.
+     * @param maxTurns Le nombre maximal de tours par partie (0 : sans limite)
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Retourne le nombre de tables en cours.
+     * @return Le nombre de tables
+     */
+    public int getActiveTables() {
+        return activeTables.get();
+    }
+
+    /**
+     * Retourne le nombre de tables terminées (partie finie, client déconnecté ou erreur du serveur).
+     * @return Le nombre de tables
+     */
+    public long getPlayedTables() {
+        return playedTables.get();
+    }
+
+    /**
+     * Retourne le nombre de tables arrêtées par une erreur du serveur (voir runTable).
+     * @return Le nombre de tables
+     */
+    public long getFailedTables() {
+        return failedTables.get();
+    }
+
+    /**
+     * Accepte les connexions dans un thread de fond (démon), jusqu'à close.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::serve, "accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Accepte les connexions jusqu'à close : chaque connexion ouvre une table dans son propre thread.
+     * Après un accept en échec (par exemple « Too many open files » quand les tables ont pris tous
+     * les descripteurs), le serveur attend un peu avant de réessayer, de plus en plus longtemps
+     * si les échecs se suivent ; les échecs sont comptés dans server.accept.errors (voir Metrics).
+     */
+    public void serve() {
+        long backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+                backoff = MIN_ACCEPT_BACKOFF_MILLIS;
+            } catch (IOException e) {
+                if (server.isClosed()) return;
+                if (Metrics.ENABLED) {
+                    Metrics.counter("server.accept.errors").increment();
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(2 * backoff, MAX_ACCEPT_BACKOFF_MILLIS);
+                continue;
+            }
+            long table = ++nextTable;
+            long seed = seeds.nextLong();
+            activeTables.incrementAndGet();
+            tables.execute(() -> {
+                try {
+                    runTable(socket, table, seed);
+                } finally {
+                    activeTables.decrementAndGet();
+                    playedTables.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Ferme le port d'écoute et interrompt les tables en cours.
+     * @throws IOException en cas d'erreur à la fermeture du port
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        tables.shutdownNow();
+    }
+
+    /**
+     * Joue une table : lit la composition de la table (JOIN), joue la partie puis envoie le résultat.
+     * Une erreur du serveur pendant la table (exception d'un joueur, d'une action...) n'arrête que
+     * cette table : le client reçoit ERROR, la connexion est fermée et la table est comptée dans
+     * getFailedTables (et server.table.errors, voir Metrics).
+     * @param socket La connexion du client
+     * @param table Le numéro de la table
+     * @param seed La graine de la partie
+     */
+    private void runTable(Socket socket, long table, long seed) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(JOIN_TIMEOUT_MILLIS);
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+            try {
+                playTable(s, in, out, table, seed);
+            } catch (UncheckedIOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                failedTables.incrementAndGet();
+                if (Metrics.ENABLED) {
+                    Metrics.counter("server.table.errors").increment();
+                }
+                System.err.println("Table " + table + " (graine " + seed + ") arrêtée par une erreur : " + e);
+                out.write("ERROR erreur du serveur, table arrêtée\n");
+                out.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // client déconnecté (ou parti avec QUIT) : la table s'arrête
+            if (Metrics.ENABLED) {
+                Metrics.counter("server.disconnects").increment();
+            }
+        } finally {
+            if (Metrics.ENABLED) {
+                Metrics.histogram("server.table.ns").record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Joue la partie d'une table, de son message JOIN à son message END.
+     * @param socket La connexion du client
+     * @param in L'entrée de la connexion
+     * @param out La sortie de la connexion
+     * @param table Le numéro de la table
+     * @param seed La graine de la partie
+     * @throws IOException si le client s'est déconnecté
+     */
+    private void playTable(Socket socket, BufferedReader in, Writer out, long table, long seed) throws IOException {
+        List<Player> players;
+        try {
+            players = join(in.readLine(), socket, in, out);
+        } catch (IllegalArgumentException e) {
+            out.write("ERROR " + e.getMessage() + "\n");
+            out.flush();
+            return;
+        }
+        socket.setSoTimeout(0); // chaque demande fixe ensuite son propre délai (voir RemotePlayer.ask)
+        for (Player p : players) {
+            if (p instanceof RemotePlayer) {
+                p.setThinkingBudget(thinkMillis);
+            }
+        }
+
+        Game game = new Game(players, seed);
+        game.setMaxTurns(maxTurns);
+        game.setHistoryEnabled(false);
+        game.addListener(new GameListener() {
+            @Override
+            public void actionPlayed(Game game, int player, Action action) {
+                try {
+                    out.write("PLAYED " + player + " " + (action == null ? -1 : Move.fromAction(action)) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        out.write("TABLE " + table + " " + seed + "\n");
+        game.play();
+
+        StringBuilder end = new StringBuilder("END ");
+        end.append(game.getWinner() == null ? -1 : game.getWinner().getId()).append(' ').append(game.getNbTurns());
+        for (Player p : game.getPlayers()) {
+            end.append(' ').append(p.getPoints());
+        }
+        out.write(end.append('\n').toString());
+        out.flush();
+        if (Metrics.ENABLED) {
+            Metrics.counter("server.tables").increment();
+        }
+    }
+
+    /**
+     * Crée les joueurs d'une table à partir du message JOIN.
+     * @param line Le message JOIN (null si le client s'est déconnecté)
+     * @param socket La connexion, partagée par les joueurs distants
+     * @param in L'entrée de la connexion, partagée par les joueurs distants
+     * @param out La sortie de la connexion, partagée par les joueurs distants
+     * @return Les joueurs, dans l'ordre de jeu
+     * @throws IllegalArgumentException si le message n'est pas valide
+     * @throws SocketException si le client s'est déconnecté
+     */
+    private static List<Player> join(String line, Socket socket, BufferedReader in, Writer out)
+            throws IllegalArgumentException, SocketException {
+        if (line == null) {
+            throw new SocketException("Connexion fermée avant JOIN.");
+        }
+        String[] words = line.trim().split(" +");
+        if (!words[0].equals("JOIN") || words.length < 3 || words.length > 5) {
+            throw new IllegalArgumentException("attendu : JOIN joueur1 joueur2 [joueur3] [joueur4]");
+        }
+        List<Player> players = new ArrayList<>();
+        boolean remote = false;
+        for (int i = 1; i < words.length; i++) {
+            if (words[i].equals("remote")) {
+                players.add(new RemotePlayer(socket, in, out));
+                remote = true;
+            } else {
+                players.add(Tournament.playerFactory(words[i]).get());
+            }
+        }
+        if (!remote) {
+            throw new IllegalArgumentException("au moins un joueur doit être remote");
+        }
+        return players;
+    }
+}
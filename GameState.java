@@ -0,0 +1,1080 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Représentation compacte de l'état complet d'une partie, pour la recherche (robots qui anticipent)
+ * et la simulation. Là où Board et Player stockent des objets (listes, piles, Resources),
+ * GameState n'utilise que des entiers :
+ * - les jetons du plateau et de chaque joueur sont compactés dans des long, 8 bits par ressource,
+ *   les jetons or dans le 6e champ (GOLD) ;
+ * - les bonus, les points et le nombre de cartes d'un joueur tiennent dans un long ;
+ * - les cartes achetées d'un joueur sont un ensemble de bits (identifiants du CardCatalog) sur 2 long ;
+ * - les cartes réservées d'un joueur tiennent dans un long, un octet (identifiant + 1) par carte ;
+ * - les cartes visibles et l'ordre des piles sont des tableaux d'octets d'identifiants de cartes ;
+ * - les nobles de la partie sont un tableau d'identifiants (partagé), et leur propriétaire
+ *   (ou NOBLE_FREE tant qu'ils sont sur le plateau) tient dans un int, 4 bits par noble.
+ * L'ordre des piles ne change jamais pendant la partie (on ne fait que déplacer le sommet) :
+ * ce tableau est partagé entre les copies, ce qui rend copy() indépendante de la taille des piles.
+ * apply(int) joue un coup (voir Move) et undo() annule le dernier coup joué.
+ * Le hash de Zobrist de la position (voir Zobrist) est tenu à jour par apply et restauré par undo :
+ * il est égal à Game.getHash() pour la même position.
+ */
+public class GameState
+{
+    private static final int LANE_BITS = 8;
+    private static final int LANE_MASK = 0xFF;
+    private static final long GEM_LANES = 0xFFFFFFFFFFL; // les 5 premiers champs
+    private static final long TOKEN_LANES = 0xFFFFFFFFFFFFL; // les 5 ressources et l'or
+    private static final int GOLD = Resources.NB_TYPES; // champ des jetons or
+    private static final long ONE_GOLD = 1L << (LANE_BITS * GOLD);
+    private static final int NO_CARD = -1;
+    private static final int NB_SLOTS = 12;
+    private static final int MAX_TOKENS = 10;
+    private static final int WINNING_POINTS = 15;
+
+    // Organisation des 5 long de chaque joueur.
+    private static final int PLAYER_WIDTH = 5;
+    private static final int TOKENS = 0;
+    private static final int BONUSES = 1;
+    private static final int CARDS_LO = 2;
+    private static final int CARDS_HI = 3;
+    private static final int RESERVED = 4;
+    private static final int POINTS_SHIFT = 40;
+    private static final int NB_CARDS_SHIFT = 48;
+
+    // Organisation d'une entrée de la pile d'annulation.
+    private static final int UNDO_WIDTH = 7;
+    private static final long[] NO_UNDO = new long[0];
+
+    // Données des cartes du catalogue, recopiées dans des tableaux primitifs.
+    private static final int NB_CARDS;
+    private static final int[] CARD_COST;
+    private static final long[] CARD_COST_LANES; // coût compacté comme les jetons (8 bits par ressource)
+    private static final int[] CARD_POINTS;
+    private static final int[] CARD_TYPE;
+    private static final int[] CARD_TIER;
+    private static final int[] DECK_OFFSET = new int[3];
+
+    // Exigences des nobles du catalogue, compactées comme les bonus (8 bits par ressource).
+    private static final long[] NOBLE_REQUIREMENT;
+    private static final int[] NOBLE_POINTS;
+    private static final int NOBLE_BITS = 4;
+    private static final int NOBLE_FREE = 0xF;
+
+    static {
+        CardCatalog catalog = CardCatalog.getInstance();
+        NB_CARDS = catalog.getNbCards();
+        if(NB_CARDS > 128){
+            throw new IllegalStateException("GameState gère au plus 128 cartes (" + NB_CARDS + " dans le catalogue).");
+        }
+        CARD_COST = new int[NB_CARDS];
+        CARD_COST_LANES = new long[NB_CARDS];
+        CARD_POINTS = new int[NB_CARDS];
+        CARD_TYPE = new int[NB_CARDS];
+        CARD_TIER = new int[NB_CARDS];
+        for(int id = 0; id < NB_CARDS; id++){
+            DevCard card = catalog.getCard(id);
+            CARD_COST[id] = card.getPackedCost();
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                CARD_COST_LANES[id] |= (long) card.getCostOf(Resources.resourceAt(i)) << (LANE_BITS * i);
+            }
+            CARD_POINTS[id] = card.getPoints();
+            CARD_TYPE[id] = card.getResourceType().ordinal();
+            CARD_TIER[id] = card.getTier();
+        }
+        DECK_OFFSET[0] = 0;
+        DECK_OFFSET[1] = catalog.getTierSize(1);
+        DECK_OFFSET[2] = DECK_OFFSET[1] + catalog.getTierSize(2);
+
+        NOBLE_REQUIREMENT = new long[catalog.getNbNobles()];
+        NOBLE_POINTS = new int[catalog.getNbNobles()];
+        for(int id = 0; id < catalog.getNbNobles(); id++){
+            Noble noble = catalog.getNoble(id);
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                NOBLE_REQUIREMENT[id] |= (long) noble.getRequirementOf(Resources.resourceAt(i)) << (LANE_BITS * i);
+            }
+            NOBLE_POINTS[id] = noble.getPoints();
+        }
+    }
+
+    private final int nbPlayers;
+    private long boardTokens;
+    private final long[] players;
+    private final byte[] visible;
+    private final byte[] decks;
+    private int deckCounts;
+    private final byte[] nobles;
+    private int nobleOwners;
+    private int currentPlayer;
+    private int turn;
+    private long hash;
+
+    private long[] undoStack;
+    private int undoSize;
+
+    /**
+     * Constructeur d'un état vide (sans jetons ni cartes).
+     * @param nbPlayers Le nombre de joueurs
+     * @param decks L'ordre des piles, partagé avec les copies
+     * @param nobles Les nobles de la partie, partagés avec les copies
+     */
+    private GameState(int nbPlayers, byte[] decks, byte[] nobles){
+        this.nbPlayers = nbPlayers;
+        this.players = new long[nbPlayers * PLAYER_WIDTH];
+        this.visible = new byte[NB_SLOTS];
+        this.decks = decks;
+        this.nobles = nobles;
+        this.undoStack = NO_UNDO;
+    }
+
+    /**
+     * Constructeur par copie. L'historique d'annulation n'est pas copié.
+     * @param other L'état à copier
+     * @param decks L'ordre des piles de la copie (celui de other s'il n'est pas modifié)
+     */
+    private GameState(GameState other, byte[] decks){
+        this.nbPlayers = other.nbPlayers;
+        this.boardTokens = other.boardTokens;
+        this.players = other.players.clone();
+        this.visible = other.visible.clone();
+        this.decks = decks;
+        this.deckCounts = other.deckCounts;
+        this.nobles = other.nobles;
+        this.nobleOwners = other.nobleOwners;
+        this.currentPlayer = other.currentPlayer;
+        this.turn = other.turn;
+        this.hash = other.hash;
+        this.undoStack = NO_UNDO;
+    }
+
+    /* ---------- CONVERSIONS ---------- */
+
+    /**
+     * Construit l'état compact d'une partie en cours.
+     * @param game La partie
+     * @return L'état de la partie
+     */
+    public static GameState from(Game game){
+        return from(game.getBoard(), game.getPlayers(), game.getCurrentPlayerIndex(), game.getNbTurns());
+    }
+
+    /**
+     * Construit l'état compact à partir d'un plateau et de ses joueurs.
+     * @param board Le plateau
+     * @param playerList Les joueurs, dans l'ordre de jeu
+     * @param currentPlayer L'indice du joueur dont c'est le tour
+     * @param turn Le nombre de tours déjà joués
+     * @return L'état de la partie
+     * @throws IllegalArgumentException si une carte n'est pas issue du CardCatalog
+     */
+    public static GameState from(Board board, List<Player> playerList, int currentPlayer, int turn)
+            throws IllegalArgumentException {
+        byte[] decks = new byte[NB_CARDS];
+        byte[] nobles = new byte[board.getNbNobles()];
+        GameState state = new GameState(playerList.size(), decks, nobles);
+
+        state.boardTokens = packTokens(board.resources) | (long) board.getGold() << (LANE_BITS * GOLD);
+        for(int tier = 0; tier < 3; tier++){
+            DevCard[] deck = board.drawOrder(tier);
+            for(int i = 0; i < deck.length; i++){
+                decks[DECK_OFFSET[tier] + i] = (byte) cardId(deck[i]);
+            }
+            state.deckCounts |= deck.length << (LANE_BITS * tier);
+            for(int col = 0; col < 4; col++){
+                DevCard card = board.visibleCards[tier][col];
+                state.visible[tier * 4 + col] = (byte) (card == null ? NO_CARD : cardId(card));
+            }
+        }
+
+        for(int p = 0; p < playerList.size(); p++){
+            Player player = playerList.get(p);
+            int base = p * PLAYER_WIDTH;
+            state.players[base + TOKENS] = packTokens(player.resources) | (long) player.getGold() << (LANE_BITS * GOLD);
+            long bonuses = packTokens(player.bonuses);
+            bonuses |= (long) player.getPoints() << POINTS_SHIFT;
+            bonuses |= (long) player.getNbPurchasedCards() << NB_CARDS_SHIFT;
+            state.players[base + BONUSES] = bonuses;
+            for(DevCard card : player.purchasedCards){
+                int id = cardId(card);
+                state.players[base + (id < 64 ? CARDS_LO : CARDS_HI)] |= 1L << (id & 63);
+            }
+            for(int i = 0; i < player.getNbReservedCards(); i++){
+                state.players[base + RESERVED] |= (long) (cardId(player.getReservedCard(i)) + 1) << (LANE_BITS * i);
+            }
+        }
+        for(int slot = 0; slot < nobles.length; slot++){
+            Noble noble = board.getNoble(slot);
+            nobles[slot] = (byte) noble.getId();
+            int owner = NOBLE_FREE;
+            for(int p = 0; p < playerList.size(); p++){
+                if(playerList.get(p).nobles.contains(noble)){
+                    owner = p;
+                }
+            }
+            state.nobleOwners |= owner << (NOBLE_BITS * slot);
+        }
+        state.currentPlayer = currentPlayer;
+        state.turn = turn;
+        state.hash = state.computeHash();
+        return state;
+    }
+
+    /**
+     * Recopie cet état dans un plateau et ses joueurs existants.
+     * Les cartes achetées de chaque joueur sont rangées par identifiant, ses cartes réservées
+     * dans l'ordre de réservation.
+     * @param board Le plateau à modifier
+     * @param playerList Les joueurs à modifier, dans l'ordre de jeu
+     */
+    public void copyTo(Board board, List<Player> playerList){
+        CardCatalog catalog = CardCatalog.getInstance();
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            board.setNbResource(Resources.resourceAt(i), lane(boardTokens, i));
+        }
+        board.updateGold(getBoardGold() - board.getGold());
+        List<List<DevCard>> deckLists = new ArrayList<>();
+        for(int tier = 0; tier < 3; tier++){
+            List<DevCard> deck = new ArrayList<>();
+            for(int i = 0; i < getDeckSize(tier + 1); i++){
+                deck.add(catalog.getCard(decks[DECK_OFFSET[tier] + i]));
+            }
+            deckLists.add(deck);
+            for(int col = 0; col < 4; col++){
+                int id = visible[tier * 4 + col];
+                board.visibleCards[tier][col] = id == NO_CARD ? null : catalog.getCard(id);
+            }
+        }
+        Noble[] nobleList = new Noble[nobles.length];
+        int available = 0;
+        for(int slot = 0; slot < nobles.length; slot++){
+            nobleList[slot] = catalog.getNoble(nobles[slot]);
+            if(getNobleOwner(slot) < 0){
+                available |= 1 << slot;
+            }
+        }
+        board.restoreNobles(nobleList, available);
+        board.restoreDecks(deckLists);
+
+        for(int p = 0; p < nbPlayers; p++){
+            Player player = playerList.get(p);
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                Resource r = Resources.resourceAt(i);
+                player.updateNbResource(r, getTokens(p, i) - player.getNbResource(r));
+            }
+            List<DevCard> cards = new ArrayList<>();
+            for(int id = 0; id < NB_CARDS; id++){
+                if(hasPurchased(p, id)){
+                    cards.add(catalog.getCard(id));
+                }
+            }
+            player.restoreCards(cards, getPoints(p));
+            List<Noble> playerNobles = new ArrayList<>();
+            for(int slot = 0; slot < nobles.length; slot++){
+                if(getNobleOwner(slot) == p){
+                    playerNobles.add(catalog.getNoble(nobles[slot]));
+                }
+            }
+            player.restoreNobles(playerNobles);
+            List<DevCard> reserved = new ArrayList<>();
+            for(int i = 0; i < getNbReservedCards(p); i++){
+                reserved.add(catalog.getCard(getReservedCard(p, i)));
+            }
+            player.restoreReserved(reserved, getGold(p));
+        }
+    }
+
+    /**
+     * Retourne une copie indépendante de cet état (sans l'historique d'annulation).
+     * Le coût ne dépend pas du nombre de cartes restant dans les piles.
+     * @return La copie
+     */
+    public GameState copy(){
+        return new GameState(this, decks);
+    }
+
+    /**
+     * Retourne une copie où les cartes restant dans chaque pile sont mélangées à nouveau.
+     * Un robot ne connaît pas l'ordre des piles : il cherche sur des copies ainsi « déterminisées ».
+     * @param random Le générateur utilisé pour le mélange
+     * @return La copie aux piles mélangées
+     */
+    public GameState copyWithShuffledDecks(SplittableRandom random){
+        byte[] shuffled = decks.clone();
+        for(int tier = 0; tier < 3; tier++){
+            int from = DECK_OFFSET[tier];
+            for(int i = getDeckSize(tier + 1) - 1; i > 0; i--){
+                int j = random.nextInt(i + 1);
+                byte tmp = shuffled[from + i];
+                shuffled[from + i] = shuffled[from + j];
+                shuffled[from + j] = tmp;
+            }
+        }
+        return new GameState(this, shuffled);
+    }
+
+    /* ---------- LECTURE ---------- */
+
+    /**
+     * Retourne le nombre de joueurs.
+     * @return Le nombre de joueurs
+     */
+    public int getNbPlayers(){
+        return nbPlayers;
+    }
+
+    /**
+     * Retourne l'indice du joueur dont c'est le tour.
+     * @return Le joueur courant
+     */
+    public int getCurrentPlayer(){
+        return currentPlayer;
+    }
+
+    /**
+     * Retourne le nombre de tours joués.
+     * @return Le nombre de tours
+     */
+    public int getTurn(){
+        return turn;
+    }
+
+    /**
+     * Retourne le hash de Zobrist de la position, tenu à jour à chaque coup.
+     * @return Le hash de la position
+     */
+    public long getHash(){
+        return hash;
+    }
+
+    /**
+     * Retourne le nombre de jetons d'une ressource sur le plateau.
+     * @param index L'indice (ordinal) de la ressource
+     * @return Le nombre de jetons
+     */
+    public int getBoardTokens(int index){
+        return lane(boardTokens, index);
+    }
+
+    /**
+     * Retourne le nombre de jetons d'une ressource d'un joueur.
+     * @param player L'indice du joueur
+     * @param index L'indice (ordinal) de la ressource
+     * @return Le nombre de jetons
+     */
+    public int getTokens(int player, int index){
+        return lane(players[player * PLAYER_WIDTH + TOKENS], index);
+    }
+
+    /**
+     * Retourne le nombre de jetons or sur le plateau.
+     * @return Le nombre de jetons or
+     */
+    public int getBoardGold(){
+        return lane(boardTokens, GOLD);
+    }
+
+    /**
+     * Retourne le nombre de jetons or d'un joueur.
+     * @param player L'indice du joueur
+     * @return Le nombre de jetons or
+     */
+    public int getGold(int player){
+        return lane(players[player * PLAYER_WIDTH + TOKENS], GOLD);
+    }
+
+    /**
+     * Retourne le nombre total de jetons d'un joueur, jetons or compris.
+     * @param player L'indice du joueur
+     * @return Le nombre de jetons
+     */
+    public int getNbTokens(int player){
+        return sumLanes(players[player * PLAYER_WIDTH + TOKENS]);
+    }
+
+    /**
+     * Retourne le bonus d'une ressource d'un joueur (nombre de cartes de ce type achetées).
+     * @param player L'indice du joueur
+     * @param index L'indice (ordinal) de la ressource
+     * @return Le bonus
+     */
+    public int getBonus(int player, int index){
+        return lane(players[player * PLAYER_WIDTH + BONUSES], index);
+    }
+
+    /**
+     * Retourne les points d'un joueur.
+     * @param player L'indice du joueur
+     * @return Les points
+     */
+    public int getPoints(int player){
+        return (int) (players[player * PLAYER_WIDTH + BONUSES] >>> POINTS_SHIFT) & LANE_MASK;
+    }
+
+    /**
+     * Retourne le nombre de cartes achetées par un joueur.
+     * @param player L'indice du joueur
+     * @return Le nombre de cartes
+     */
+    public int getNbPurchasedCards(int player){
+        return (int) (players[player * PLAYER_WIDTH + BONUSES] >>> NB_CARDS_SHIFT) & LANE_MASK;
+    }
+
+    /**
+     * Vérifie si un joueur a acheté une carte.
+     * @param player L'indice du joueur
+     * @param cardId L'identifiant de la carte
+     * @return true si la carte fait partie des cartes achetées du joueur
+     */
+    public boolean hasPurchased(int player, int cardId){
+        long bits = players[player * PLAYER_WIDTH + (cardId < 64 ? CARDS_LO : CARDS_HI)];
+        return (bits & (1L << (cardId & 63))) != 0;
+    }
+
+    /**
+     * Retourne le nombre de cartes réservées par un joueur.
+     * @param player L'indice du joueur
+     * @return Le nombre de cartes réservées (au plus Player.MAX_RESERVED)
+     */
+    public int getNbReservedCards(int player){
+        return nbReserved(players[player * PLAYER_WIDTH + RESERVED]);
+    }
+
+    /**
+     * Retourne une carte réservée par un joueur.
+     * @param player L'indice du joueur
+     * @param index L'indice de la carte parmi les cartes réservées (dans l'ordre de réservation)
+     * @return L'identifiant de la carte
+     */
+    public int getReservedCard(int player, int index){
+        return lane(players[player * PLAYER_WIDTH + RESERVED], index) - 1;
+    }
+
+    /**
+     * Retourne la carte visible à une position.
+     * @param level L'indice du niveau (0-2)
+     * @param column L'indice de la colonne (0-3)
+     * @return L'identifiant de la carte, ou -1 si la case est vide
+     */
+    public int getVisibleCard(int level, int column){
+        return visible[level * 4 + column];
+    }
+
+    /**
+     * Retourne le nombre de cartes restant dans une pile.
+     * @param tier Le niveau (1, 2 ou 3)
+     * @return Le nombre de cartes de la pile
+     */
+    public int getDeckSize(int tier){
+        return (deckCounts >>> (LANE_BITS * (tier - 1))) & LANE_MASK;
+    }
+
+    /**
+     * Retourne le nombre de nobles de la partie.
+     * @return Le nombre de nobles
+     */
+    public int getNbNobles(){
+        return nobles.length;
+    }
+
+    /**
+     * Retourne le noble d'une place du plateau.
+     * @param slot La place du noble (0 à getNbNobles()-1)
+     * @return L'identifiant du noble (voir CardCatalog.getNoble)
+     */
+    public int getNoble(int slot){
+        return nobles[slot];
+    }
+
+    /**
+     * Retourne le joueur qui a reçu la visite du noble d'une place.
+     * @param slot La place du noble
+     * @return L'indice du joueur, ou -1 si le noble est encore sur le plateau
+     */
+    public int getNobleOwner(int slot){
+        int owner = (nobleOwners >>> (NOBLE_BITS * slot)) & NOBLE_FREE;
+        return owner == NOBLE_FREE ? -1 : owner;
+    }
+
+    /**
+     * Vérifie si un joueur peut acheter une carte avec ses jetons, ses bonus et ses jetons or.
+     * @param player L'indice du joueur
+     * @param cardId L'identifiant de la carte
+     * @return true si la carte est abordable
+     */
+    public boolean canBuy(int player, int cardId){
+        return PackedResources.total(PackedResources.missing(getPackedPower(player), CARD_COST[cardId])) <= getGold(player);
+    }
+
+    /**
+     * Évalue d'un coup les cartes visibles pour un joueur (voir Board.evaluateCards) :
+     * chaque carte ne coûte qu'une soustraction compactée sur les 5 ressources.
+     * @param player L'indice du joueur
+     * @param missing Si non null, reçoit pour chaque case les quantités manquantes compactées
+     *                pour acheter sa carte sans jeton or (0 pour une case vide)
+     * @return Le masque des cases dont la carte est achetable (bit niveau * 4 + colonne)
+     */
+    public int evaluateCards(int player, int[] missing){
+        int power = getPackedPower(player);
+        int gold = getGold(player);
+        int affordable = 0;
+        for(int slot = 0; slot < NB_SLOTS; slot++){
+            int id = visible[slot];
+            int miss = id == NO_CARD ? 0 : PackedResources.missing(power, CARD_COST[id]);
+            if(missing != null){
+                missing[slot] = miss;
+            }
+            affordable |= (id != NO_CARD && (miss == 0 || PackedResources.total(miss) <= gold) ? 1 : 0) << slot;
+        }
+        return affordable;
+    }
+
+    /**
+     * Évalue les cartes réservées d'un joueur, comme evaluateCards.
+     * @param player L'indice du joueur
+     * @return Le masque des cartes réservées achetables (bit indice de la carte)
+     */
+    public int evaluateReserved(int player){
+        int power = getPackedPower(player);
+        int gold = getGold(player);
+        long reserved = players[player * PLAYER_WIDTH + RESERVED];
+        int affordable = 0;
+        for(int i = 0; i < nbReserved(reserved); i++){
+            int miss = PackedResources.missing(power, CARD_COST[lane(reserved, i) - 1]);
+            affordable |= (PackedResources.total(miss) <= gold ? 1 : 0) << i;
+        }
+        return affordable;
+    }
+
+    /**
+     * Retourne le pouvoir d'achat compacté d'un joueur : jetons + bonus, pour chaque ressource.
+     * @param player L'indice du joueur
+     * @return Le pouvoir d'achat compacté (voir PackedResources)
+     */
+    public int getPackedPower(int player){
+        int base = player * PLAYER_WIDTH;
+        long tokens = players[base + TOKENS];
+        long bonuses = players[base + BONUSES];
+        int power = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            power = PackedResources.with(power, i, lane(tokens, i) + lane(bonuses, i));
+        }
+        return power;
+    }
+
+    /**
+     * Vérifie si la partie est terminée (un joueur a plus de 15 points).
+     * @return true si la partie est terminée
+     */
+    public boolean isGameOver(){
+        for(int p = 0; p < nbPlayers; p++){
+            if(getPoints(p) > WINNING_POINTS){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Détermine le gagnant selon les règles de Game : le plus de points,
+     * puis le moins de cartes achetées en cas d'égalité.
+     * @return L'indice du gagnant, ou -1 en cas d'égalité parfaite
+     */
+    public int getWinner(){
+        int winner = -1;
+        int maxPoints = -1;
+        for(int p = 0; p < nbPlayers; p++){
+            int points = getPoints(p);
+            if(points > maxPoints){
+                maxPoints = points;
+                winner = p;
+            } else if(points == maxPoints && winner != -1){
+                if(getNbPurchasedCards(p) < getNbPurchasedCards(winner)){
+                    winner = p;
+                } else if(getNbPurchasedCards(p) == getNbPurchasedCards(winner)){
+                    winner = -1;
+                }
+            }
+        }
+        return winner;
+    }
+
+    /* ---------- COUPS ---------- */
+
+    /**
+     * Joue un coup pour le joueur courant, avec les mêmes règles que les actions sur un Board :
+     * un coup impossible (carte absente ou trop chère, jetons insuffisants, trop de cartes réservées)
+     * ne change rien.
+     * Le tour passe au joueur suivant sauf si le joueur a plus de 10 jetons : il doit alors
+     * jouer des coups DISCARD jusqu'à revenir à 10.
+     * @param move Le coup (voir Move)
+     */
+    public void apply(int move){
+        int p = currentPlayer;
+        int base = p * PLAYER_WIDTH;
+        pushUndo(base, 0xFF, 0xFF);
+        long oldBoard = boardTokens;
+        long oldTokens = players[base + TOKENS];
+        long oldBonuses = players[base + BONUSES];
+
+        switch(Move.type(move)){
+            case Move.BUY:
+                applyBuy(base, Move.level(move) * 4 + Move.column(move));
+                break;
+            case Move.BUY_RESERVED:
+                applyBuyReserved(p, base, Move.index(move));
+                break;
+            case Move.RESERVE:
+                applyReserve(p, base, Move.level(move), Move.column(move));
+                break;
+            case Move.PICK_SAME: {
+                int r = Move.resource(move);
+                if(lane(boardTokens, r) >= 4){
+                    boardTokens -= 2L << (LANE_BITS * r);
+                    players[base + TOKENS] += 2L << (LANE_BITS * r);
+                }
+                break;
+            }
+            case Move.PICK_DIFF: {
+                long picked = 0;
+                for(int m = Move.mask(move); m != 0; m &= m - 1){
+                    picked |= 1L << (LANE_BITS * Integer.numberOfTrailingZeros(m));
+                }
+                if(coversLanes(boardTokens, picked)){
+                    boardTokens -= picked;
+                    players[base + TOKENS] += picked;
+                }
+                break;
+            }
+            case Move.DISCARD: {
+                long tokens = players[base + TOKENS];
+                for(int i = 0; i < Resources.NB_TYPES; i++){
+                    int real = Math.min(Move.discarded(move, i), lane(tokens, i));
+                    tokens -= (long) real << (LANE_BITS * i);
+                    boardTokens += (long) real << (LANE_BITS * i);
+                }
+                players[base + TOKENS] = tokens;
+                break;
+            }
+            default:
+                break;
+        }
+
+        boolean endOfTurn = getNbTokens(p) <= MAX_TOKENS;
+        if(endOfTurn){
+            visitNoble(p, base);
+        }
+        if(boardTokens != oldBoard){
+            hash ^= boardHash(oldBoard) ^ boardHash(boardTokens);
+        }
+        if(players[base + TOKENS] != oldTokens || players[base + BONUSES] != oldBonuses){
+            hash ^= playerHash(p, oldTokens, oldBonuses) ^ playerHash(p, players[base + TOKENS], players[base + BONUSES]);
+        }
+        if(endOfTurn){
+            currentPlayer = (p + 1) % nbPlayers;
+            turn++;
+            hash ^= Zobrist.side(p) ^ Zobrist.side(currentPlayer);
+        }
+    }
+
+    /**
+     * Achète la carte d'une case pour le joueur, si c'est possible, et la remplace par la
+     * prochaine carte de la pile de son niveau.
+     * @param base L'indice du premier long du joueur
+     * @param slot La case (niveau * 4 + colonne)
+     */
+    private void applyBuy(int base, int slot){
+        int id = visible[slot];
+        if(id == NO_CARD || !pay(base, id)) return;
+        // On note la case et la carte achetée pour pouvoir annuler l'achat.
+        noteCard(slot, id);
+        refill(slot, CARD_TIER[id] - 1);
+    }
+
+    /**
+     * Achète une carte réservée pour le joueur, si c'est possible. Les cartes réservées
+     * après elle prennent sa place, comme dans Player.removeReservedCard.
+     * @param p L'indice du joueur
+     * @param base L'indice du premier long du joueur
+     * @param index L'indice de la carte parmi les cartes réservées
+     */
+    private void applyBuyReserved(int p, int base, int index){
+        long reserved = players[base + RESERVED];
+        if(index >= nbReserved(reserved)) return;
+        int id = lane(reserved, index) - 1;
+        if(!pay(base, id)) return;
+        noteCard(0xFF, id);
+
+        long below = reserved & ((1L << (LANE_BITS * index)) - 1);
+        players[base + RESERVED] = below | (reserved >>> (LANE_BITS * (index + 1))) << (LANE_BITS * index);
+        hash ^= Zobrist.reserved(p, id);
+    }
+
+    /**
+     * Réserve pour le joueur une carte visible, ou la carte du dessus d'une pile
+     * (colonne Move.DECK_COLUMN), si c'est possible, et lui donne un jeton or s'il en reste.
+     * @param p L'indice du joueur
+     * @param base L'indice du premier long du joueur
+     * @param level L'indice du niveau (0-2)
+     * @param column L'indice de la colonne (0-3) ou Move.DECK_COLUMN
+     */
+    private void applyReserve(int p, int base, int level, int column){
+        long reserved = players[base + RESERVED];
+        int count = nbReserved(reserved);
+        if(count >= Player.MAX_RESERVED) return;
+
+        int id;
+        if(column == Move.DECK_COLUMN){
+            int remaining = (deckCounts >>> (LANE_BITS * level)) & LANE_MASK;
+            if(remaining == 0) return;
+            // deckCounts, restauré par undo, suffit à remettre la carte sur sa pile.
+            id = decks[DECK_OFFSET[level] + remaining - 1];
+            deckCounts -= 1 << (LANE_BITS * level);
+            hash ^= Zobrist.deck(level + 1, remaining) ^ Zobrist.deck(level + 1, remaining - 1);
+        } else {
+            int slot = level * 4 + column;
+            id = visible[slot];
+            if(id == NO_CARD) return;
+            noteCard(slot, id);
+            refill(slot, level);
+        }
+        players[base + RESERVED] = reserved | (long) (id + 1) << (LANE_BITS * count);
+        hash ^= Zobrist.reserved(p, id);
+        if(lane(boardTokens, GOLD) > 0){
+            boardTokens -= ONE_GOLD;
+            players[base + TOKENS] += ONE_GOLD;
+        }
+    }
+
+    /**
+     * Paie une carte pour le joueur, si c'est possible (voir PackedResources.payment, avec des
+     * champs de 8 bits) : les bonus réduisent le coût, les jetons de couleur paient ce qu'ils
+     * peuvent et les jetons or le reste. Ajoute ensuite la carte aux cartes achetées du joueur.
+     * @param base L'indice du premier long du joueur
+     * @param id L'identifiant de la carte
+     * @return false si le joueur ne peut pas payer (rien ne change)
+     */
+    private boolean pay(int base, int id){
+        long tokens = players[base + TOKENS];
+        long bonuses = players[base + BONUSES];
+        long need = missingLanes(bonuses & GEM_LANES, CARD_COST_LANES[id]);
+        long shortfall = missingLanes(tokens & GEM_LANES, need);
+        int gold = sumLanes(shortfall);
+        if(gold > lane(tokens, GOLD)) return false;
+
+        long paid = need - shortfall + gold * ONE_GOLD;
+        players[base + TOKENS] = tokens - paid;
+        boardTokens += paid;
+        bonuses += 1L << (LANE_BITS * CARD_TYPE[id]);
+        bonuses += (long) CARD_POINTS[id] << POINTS_SHIFT;
+        bonuses += 1L << NB_CARDS_SHIFT;
+        players[base + BONUSES] = bonuses;
+        players[base + (id < 64 ? CARDS_LO : CARDS_HI)] |= 1L << (id & 63);
+        return true;
+    }
+
+    /**
+     * Note dans l'entrée d'annulation du coup en cours la carte prise et sa case.
+     * @param slot La case de la carte (0xFF pour une carte réservée)
+     * @param id L'identifiant de la carte
+     */
+    private void noteCard(int slot, int id){
+        int meta = undoSize - UNDO_WIDTH + 3;
+        undoStack[meta] = (undoStack[meta] & ~0xFFFFL) | slot | (id & LANE_MASK) << 8;
+    }
+
+    /**
+     * Remplace la carte d'une case par la prochaine carte de la pile de son niveau.
+     * @param slot La case (niveau * 4 + colonne)
+     * @param tier L'indice du niveau (0-2)
+     */
+    private void refill(int slot, int tier){
+        int id = visible[slot];
+        int remaining = (deckCounts >>> (LANE_BITS * tier)) & LANE_MASK;
+        if(remaining > 0){
+            visible[slot] = decks[DECK_OFFSET[tier] + remaining - 1];
+            deckCounts -= 1 << (LANE_BITS * tier);
+            hash ^= Zobrist.deck(tier + 1, remaining) ^ Zobrist.deck(tier + 1, remaining - 1);
+        } else {
+            visible[slot] = NO_CARD;
+        }
+        hash ^= Zobrist.slot(slot, id) ^ Zobrist.slot(slot, visible[slot]);
+    }
+
+    /**
+     * Fin du tour d'un joueur (voir Board.visitNoble) : le premier noble encore sur le plateau
+     * dont les bonus du joueur couvrent les exigences lui rend visite et ajoute ses points.
+     * Le hash du joueur est mis à jour par apply, avec ses bonus.
+     * @param p L'indice du joueur
+     * @param base L'indice du premier long du joueur
+     */
+    private void visitNoble(int p, int base){
+        long bonuses = players[base + BONUSES];
+        for(int slot = 0; slot < nobles.length; slot++){
+            int shift = NOBLE_BITS * slot;
+            if(((nobleOwners >>> shift) & NOBLE_FREE) == NOBLE_FREE
+               && coversLanes(bonuses & GEM_LANES, NOBLE_REQUIREMENT[nobles[slot]])){
+                nobleOwners = (nobleOwners & ~(NOBLE_FREE << shift)) | p << shift;
+                players[base + BONUSES] = bonuses + ((long) NOBLE_POINTS[nobles[slot]] << POINTS_SHIFT);
+                hash ^= Zobrist.noble(slot);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Annule le dernier coup joué avec apply.
+     * @throws IllegalStateException s'il n'y a aucun coup à annuler
+     */
+    public void undo() throws IllegalStateException {
+        if(undoSize == 0){
+            throw new IllegalStateException("Aucun coup à annuler.");
+        }
+        undoSize -= UNDO_WIDTH;
+        long meta = undoStack[undoSize + 3];
+        int p = (int) (meta >>> 40) & 3;
+        int base = p * PLAYER_WIDTH;
+
+        boardTokens = undoStack[undoSize];
+        players[base + TOKENS] = undoStack[undoSize + 1];
+        players[base + BONUSES] = undoStack[undoSize + 2];
+
+        players[base + RESERVED] = undoStack[undoSize + 6];
+
+        // Carte achetée ou réservée : elle quitte les cartes achetées (sans effet pour une
+        // réservation) et reprend sa case si elle était visible.
+        int id = (int) (meta >>> 8) & LANE_MASK;
+        if(id != 0xFF){
+            players[base + (id < 64 ? CARDS_LO : CARDS_HI)] &= ~(1L << (id & 63));
+            int slot = (int) meta & LANE_MASK;
+            if(slot != 0xFF){
+                visible[slot] = (byte) id;
+            }
+        }
+        deckCounts = (int) (meta >>> 16) & 0xFFFFFF;
+        currentPlayer = p;
+        turn = (int) (meta >>> 42);
+        hash = undoStack[undoSize + 4];
+        nobleOwners = (int) undoStack[undoSize + 5];
+    }
+
+    /**
+     * Empile ce qu'il faut pour annuler le prochain coup du joueur.
+     * @param base L'indice du premier long du joueur
+     * @param slot La case de la carte achetée ou réservée (0xFF si aucune)
+     * @param cardId La carte achetée ou réservée (0xFF si aucune)
+     */
+    private void pushUndo(int base, int slot, int cardId){
+        if(undoSize == undoStack.length){
+            undoStack = Arrays.copyOf(undoStack, Math.max(16 * UNDO_WIDTH, undoStack.length * 2));
+        }
+        undoStack[undoSize] = boardTokens;
+        undoStack[undoSize + 1] = players[base + TOKENS];
+        undoStack[undoSize + 2] = players[base + BONUSES];
+        undoStack[undoSize + 3] = slot | (long) cardId << 8 | (long) deckCounts << 16
+                                  | (long) currentPlayer << 40 | (long) turn << 42;
+        undoStack[undoSize + 4] = hash;
+        undoStack[undoSize + 5] = nobleOwners;
+        undoStack[undoSize + 6] = players[base + RESERVED];
+        undoSize += UNDO_WIDTH;
+    }
+
+    /* ---------- HASH ---------- */
+
+    /**
+     * Calcule entièrement le hash de Zobrist de la position.
+     * @return Le hash
+     */
+    private long computeHash(){
+        long h = boardHash(boardTokens) ^ Zobrist.side(currentPlayer);
+        for(int tier = 0; tier < 3; tier++){
+            h ^= Zobrist.deck(tier + 1, getDeckSize(tier + 1));
+        }
+        for(int slot = 0; slot < NB_SLOTS; slot++){
+            h ^= Zobrist.slot(slot, visible[slot]);
+        }
+        for(int slot = 0; slot < nobles.length; slot++){
+            if(getNobleOwner(slot) < 0){
+                h ^= Zobrist.noble(slot);
+            }
+        }
+        for(int p = 0; p < nbPlayers; p++){
+            int base = p * PLAYER_WIDTH;
+            h ^= playerHash(p, players[base + TOKENS], players[base + BONUSES]);
+            long reserved = players[base + RESERVED];
+            for(int i = 0; i < nbReserved(reserved); i++){
+                h ^= Zobrist.reserved(p, lane(reserved, i) - 1);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Retourne la part du hash due aux jetons du plateau.
+     * @param tokens Les jetons compactés du plateau
+     * @return La part du hash
+     */
+    private static long boardHash(long tokens){
+        long h = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            h ^= Zobrist.boardTokens(i, lane(tokens, i));
+        }
+        return h ^ Zobrist.boardGold(lane(tokens, GOLD));
+    }
+
+    /**
+     * Retourne la part du hash due à un joueur : jetons, jetons or, bonus et points.
+     * @param p L'indice du joueur
+     * @param tokens Les jetons compactés du joueur
+     * @param bonuses Les bonus compactés du joueur (avec les points)
+     * @return La part du hash
+     */
+    private static long playerHash(int p, long tokens, long bonuses){
+        long h = Zobrist.playerPoints(p, (int) (bonuses >>> POINTS_SHIFT) & LANE_MASK);
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            h ^= Zobrist.playerTokens(p, i, lane(tokens, i));
+            h ^= Zobrist.playerBonus(p, i, lane(bonuses, i));
+        }
+        return h ^ Zobrist.playerGold(p, lane(tokens, GOLD));
+    }
+
+    /* ---------- OUTILS ---------- */
+
+    /**
+     * Retourne l'identifiant d'une carte du catalogue.
+     * @param card La carte
+     * @return Son identifiant
+     * @throws IllegalArgumentException si la carte n'est pas issue du catalogue
+     */
+    private static int cardId(DevCard card) throws IllegalArgumentException {
+        if(card.getId() < 0){
+            throw new IllegalArgumentException("Carte hors catalogue : " + card);
+        }
+        return card.getId();
+    }
+
+    /**
+     * Compacte des jetons, 8 bits par ressource.
+     * @param res Les jetons
+     * @return Les jetons compactés
+     */
+    private static long packTokens(Resources res){
+        long packed = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            packed |= (long) Math.min(LANE_MASK, res.getNbResource(Resources.resourceAt(i))) << (LANE_BITS * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Retourne le champ d'une ressource dans un long compacté.
+     * @param packed Les valeurs compactées
+     * @param index L'indice (ordinal) de la ressource
+     * @return La valeur du champ
+     */
+    private static int lane(long packed, int index){
+        return (int) (packed >>> (LANE_BITS * index)) & LANE_MASK;
+    }
+
+    /**
+     * Additionne les 6 champs de jetons (5 ressources et or) d'un long compacté (total inférieur à 256).
+     * @param packed Les valeurs compactées
+     * @return La somme des champs
+     */
+    private static int sumLanes(long packed){
+        return (int) (((packed & TOKEN_LANES) * 0x010101010101L) >>> 40) & LANE_MASK;
+    }
+
+    /**
+     * Retourne le nombre de cartes réservées d'un long de cartes réservées (octets non nuls).
+     * @param reserved Les cartes réservées compactées
+     * @return Le nombre de cartes
+     */
+    private static int nbReserved(long reserved){
+        return (64 - Long.numberOfLeadingZeros(reserved) + LANE_BITS - 1) / LANE_BITS;
+    }
+
+    /**
+     * Retourne, pour chaque champ de 8 bits, ce qui manque à have pour couvrir need
+     * (need - have, ou 0), comme PackedResources.missing : le 8e bit de chaque champ
+     * sert de garde et efface les champs où have suffit.
+     * @param have Les valeurs disponibles (5 champs de 7 bits utiles)
+     * @param need Les valeurs demandées
+     * @return Les valeurs manquantes
+     */
+    private static long missingLanes(long have, long need){
+        long guards = 0x8080808080L;
+        long diff = (need | guards) - have;
+        long ge = diff & guards;
+        return diff & (ge - (ge >>> (LANE_BITS - 1)));
+    }
+
+    /**
+     * Vérifie que chaque champ de have est supérieur ou égal au champ correspondant de need
+     * (champs de 7 bits utiles, le 8e sert de garde pour la soustraction).
+     * @param have Les valeurs disponibles
+     * @param need Les valeurs demandées
+     * @return true si toutes les valeurs demandées sont couvertes
+     */
+    private static boolean coversLanes(long have, long need){
+        long guards = 0x8080808080L;
+        return (((have | guards) - need) & guards) == guards;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o) return true;
+        if(!(o instanceof GameState)) return false;
+        GameState other = (GameState) o;
+        if(nbPlayers != other.nbPlayers || boardTokens != other.boardTokens || deckCounts != other.deckCounts
+           || currentPlayer != other.currentPlayer || turn != other.turn || nobleOwners != other.nobleOwners
+           || !Arrays.equals(nobles, other.nobles)
+           || !Arrays.equals(players, other.players) || !Arrays.equals(visible, other.visible)){
+            return false;
+        }
+        for(int tier = 0; tier < 3; tier++){
+            int from = DECK_OFFSET[tier];
+            int to = from + getDeckSize(tier + 1);
+            if(!Arrays.equals(decks, from, to, other.decks, from, to)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode(){
+        int h = Long.hashCode(boardTokens);
+        h = 31 * h + Arrays.hashCode(players);
+        h = 31 * h + Arrays.hashCode(visible);
+        h = 31 * h + deckCounts;
+        h = 31 * h + nobleOwners;
+        h = 31 * h + currentPlayer;
+        return 31 * h + turn;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tour ").append(turn).append(", joueur ").append(currentPlayer + 1).append('\n');
+        sb.append("Plateau :");
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            sb.append(' ').append(getBoardTokens(i)).append(Resources.resourceAt(i).toSymbol());
+        }
+        sb.append(' ').append(getBoardGold()).append(Resources.GOLD_SYMBOL).append('\n');
+        for(int p = 0; p < nbPlayers; p++){
+            sb.append("Joueur ").append(p + 1).append(" : ").append(getPoints(p)).append("pts");
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                sb.append(' ').append(Resources.resourceAt(i).toSymbol())
+                  .append('(').append(getTokens(p, i)).append(")[").append(getBonus(p, i)).append(']');
+            }
+            sb.append(' ').append(Resources.GOLD_SYMBOL).append('(').append(getGold(p)).append(')');
+            if(getNbReservedCards(p) > 0){
+                sb.append(" réservées: ").append(getNbReservedCards(p));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
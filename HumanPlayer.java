@@ -1,22 +1,45 @@
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Auteur : Hachem Kouhel Mohammed
  * Classe représentant un joueur humain dans le jeu Splendor.
  * Un joueur humain prend ses décisions par interaction avec l'utilisateur via la console.
+ * L'entrée est lue ligne par ligne par un seul thread, propre au joueur : les questions attendent
+ * leurs réponses dans une file, au plus jusqu'à la fin du temps de réflexion (voir setThinkingBudget).
  */
 public class HumanPlayer extends Player {
 
+    /** Échéance des questions sans temps de réflexion. */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    /** Marque de fin de l'entrée dans la file des lignes (comparée par identité). */
+    private static final String END_OF_INPUT = new String("fin de l'entrée");
+
+    private final Readable in;
+    private final GameOutput out;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private Thread reader;     // lit l'entrée dans la file, créé à la première question
+    private boolean timedOut;  // la dernière question a expiré : les lignes tapées depuis sont périmées
+
     /**
      * Constructeur du joueur humain.
      * Initialise un joueur avec le nom "Humain".
+     * @param in L'entrée où le joueur tape ses choix
+     * @param out La sortie où sont affichés les menus et les messages d'erreur
      */
-    public HumanPlayer() {
+    public HumanPlayer(Readable in, GameOutput out) {
         super("Humain");
+        this.in = in;
+        this.out = out;
     }
 
     /**
@@ -26,116 +49,190 @@ public class HumanPlayer extends Player {
     * 2) Prendre 2 jetons identiques
     * 3) Prendre 3 jetons différents
     * 4) Passer son tour
+    * 5) Réserver une carte (visible, ou sur une pile)
+    * 6) Acheter une carte réservée
     *
     * @param player Le joueur qui effectue l'action
     * @param board Le plateau de jeu
     */
     @Override
     public Action chooseAction() {
-        return new Action() {
+        return new DeferredAction() {
             @Override
-            public void process(Player player, Board board) {
+            protected Action decide(Player player, Board board) {
+                long budget = getThinkingBudget();
+                long deadline = budget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget) : NO_DEADLINE;
+                try {
+                    return askAction(player, board, deadline);
+                } catch(TimeoutException e){
+                    timedOut = true;
+                    out.println(getName() + " n'a pas choisi à temps : coup par défaut.");
+                    return fallbackAction(board);
+                }
+            }
+        };
+    }
 
-                Scanner sc = new Scanner(Game.display.in);
+    /**
+     * Retourne chooseAction déjà terminée : les questions sont posées pendant process, dans le thread
+     * de la partie, et chaque réponse n'est attendue que jusqu'à la fin du temps de réflexion.
+     * Aucun thread de décision ne reste donc bloqué sur l'entrée après le temps écoulé.
+     * @return L'action choisie, déjà terminée
+     */
+    @Override
+    public CompletableFuture<Action> chooseActionAsync() {
+        return CompletableFuture.completedFuture(chooseAction());
+    }
+
+    /**
+     * Demande son action au joueur jusqu'à obtenir une action valide.
+     * @param player Le joueur qui effectue l'action
+     * @param board Le plateau de jeu
+     * @param deadline L'échéance de la réponse (System.nanoTime), ou NO_DEADLINE
+     * @return L'action choisie
+     * @throws TimeoutException si le joueur n'a pas choisi avant l'échéance
+     */
+    private Action askAction(Player player, Board board, long deadline) throws TimeoutException {
+        if(timedOut){
+            // réponses tardives à la question expirée : elles ne valent pas pour ce tour
+            lines.removeIf(line -> line != END_OF_INPUT);
+            timedOut = false;
+        }
+
+        while(true){
+            out.println("\n=== " + getName() + " : Choisis une action ===");
+            out.println("1) Acheter une carte");
+            out.println("2) Prendre 2 jetons identiques");
+            out.println("3) Prendre 3 jetons différents");
+            out.println("4) Passer");
+            out.println("5) Réserver une carte");
+            out.println("6) Acheter une carte réservée");
+
+            int choice = askInt("Ton choix (1-6) : ", 1, 6, deadline);
+
+            if(choice == 4){
+                return new PassAction();
+            }
 
-                while(true){
-                    Game.display.out.println("\n=== " + getName() + " : Choisis une action ===");
-                    Game.display.out.println("1) Acheter une carte");
-                    Game.display.out.println("2) Prendre 2 jetons identiques");
-                    Game.display.out.println("3) Prendre 3 jetons différents");
-                    Game.display.out.println("4) Passer");
+            if(choice == 1){
+                int tier = askInt("Tier (1-3) : ", 1, 3, deadline);
+                int col  = askInt("Colonne (1-4) : ", 1, 4, deadline);
 
-                    int choice = askInt(sc, "Ton choix (1-4) : ", 1, 4);
+                int tierIdx = tier - 1;
+                int colIdx  = col - 1;
 
-                    if(choice == 4){
-                        new PassAction().process(player, board);
-                        return;
+                DevCard card = board.getCard(tierIdx, colIdx);
+                if(card == null){
+                    out.println("❌ Pas de carte à cet endroit.");
+                    continue;
+                }
+                if(!player.canBuyCard(card)){
+                    out.println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
+                    continue;
+                }
+
+                return new BuyCardAction(tierIdx, colIdx);
+            }
+
+            if(choice == 5){
+                if(player.getNbReservedCards() >= MAX_RESERVED){
+                    out.println("❌ Tu as déjà " + MAX_RESERVED + " cartes réservées.");
+                    continue;
+                }
+                int tier = askInt("Tier (1-3) : ", 1, 3, deadline);
+                int col  = askInt("Colonne (1-4, 5 pour la pile) : ", 1, 5, deadline);
+
+                int tierIdx = tier - 1;
+                if(col == 5){
+                    if(board.getDeckSize(tier) == 0){
+                        out.println("❌ La pile de niveau " + tier + " est vide.");
+                        continue;
                     }
+                    return new ReserveCardAction(tierIdx);
+                }
+                if(board.getCard(tierIdx, col - 1) == null){
+                    out.println("❌ Pas de carte à cet endroit.");
+                    continue;
+                }
+                return new ReserveCardAction(tierIdx, col - 1);
+            }
+
+            if(choice == 6){
+                int nb = player.getNbReservedCards();
+                if(nb == 0){
+                    out.println("❌ Tu n'as aucune carte réservée.");
+                    continue;
+                }
+                for(int i = 0; i < nb; i++){
+                    out.println((i + 1) + ") " + player.getReservedCard(i));
+                }
+                int index = askInt("Carte réservée (1-" + nb + ") : ", 1, nb, deadline) - 1;
+                if(!player.canBuyCard(player.getReservedCard(index))){
+                    out.println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
+                    continue;
+                }
+                return new BuyReservedCardAction(index);
+            }
+
+            if(choice == 2){
+                Resource r = askResource("Choisis la ressource (1-5) : ", deadline);
+                if(!board.canGiveSameTokens(r)){
+                    out.println("❌ Impossible : il faut au moins 4 jetons de ce type sur le board.");
+                    continue;
+                }
+                return new PickSameTokensAction(r);
+            }
+
+            if(choice == 3){
+                // demander 3 ressources différentes
+                out.println("Donne 3 numéros différents séparés par espaces (ex: 1 3 5)");
+                out.println(resourceMenuLine());
 
-                    if(choice == 1){
-                        int tier = askInt(sc, "Tier (1-3) : ", 1, 3);
-                        int col  = askInt(sc, "Colonne (1-4) : ", 1, 4);
-
-                        int tierIdx = tier - 1;
-                        int colIdx  = col - 1;
-
-                        DevCard card = board.getCard(tierIdx, colIdx);
-                        if(card == null){
-                            Game.display.out.println("❌ Pas de carte à cet endroit.");
-                            continue;
-                        }
-                        if(!player.canBuyCard(card)){
-                            Game.display.out.println("❌ Tu ne peux pas acheter cette carte (ressources insuffisantes).");
-                            continue;
-                        }
-
-                        new BuyCardAction(tierIdx, colIdx).process(player, board);
-                        return;
+                String line = nextLine(deadline).trim();
+                String[] parts = line.split("\\s+");
+                if(parts.length != 3){
+                    out.println("❌ Il faut exactement 3 choix.");
+                    continue;
+                }
+
+                try{
+                    int a = Integer.parseInt(parts[0]);
+                    int b = Integer.parseInt(parts[1]);
+                    int c = Integer.parseInt(parts[2]);
+
+                    if(a<1||a>5||b<1||b>5||c<1||c>5){
+                        out.println("❌ Choix hors limites (1-5).");
+                        continue;
                     }
 
-                    if(choice == 2){
-                        Resource r = askResource(sc, "Choisis la ressource (1-5) : ");
-                        if(!board.canGiveSameTokens(r)){
-                            Game.display.out.println("❌ Impossible : il faut au moins 4 jetons de ce type sur le board.");
-                            continue;
-                        }
-                        new PickSameTokensAction(r).process(player, board);
-                        return;
+                    Resource r1 = Resource.values()[a-1];
+                    Resource r2 = Resource.values()[b-1];
+                    Resource r3 = Resource.values()[c-1];
+
+                    Set<Resource> set = new HashSet<>();
+                    set.add(r1); set.add(r2); set.add(r3);
+                    if(set.size() != 3){
+                        out.println("❌ Les 3 ressources doivent être différentes.");
+                        continue;
                     }
 
-                    if(choice == 3){
-                        // demander 3 ressources différentes
-                        Game.display.out.println("Donne 3 numéros différents séparés par espaces (ex: 1 3 5)");
-                        Game.display.out.println(resourceMenuLine());
-
-                        String line = sc.nextLine().trim();
-                        String[] parts = line.split("\\s+");
-                        if(parts.length != 3){
-                            Game.display.out.println("❌ Il faut exactement 3 choix.");
-                            continue;
-                        }
-
-                        try{
-                            int a = Integer.parseInt(parts[0]);
-                            int b = Integer.parseInt(parts[1]);
-                            int c = Integer.parseInt(parts[2]);
-
-                            if(a<1||a>5||b<1||b>5||c<1||c>5){
-                                Game.display.out.println("❌ Choix hors limites (1-5).");
-                                continue;
-                            }
-
-                            Resource r1 = Resource.values()[a-1];
-                            Resource r2 = Resource.values()[b-1];
-                            Resource r3 = Resource.values()[c-1];
-
-                            Set<Resource> set = new HashSet<>();
-                            set.add(r1); set.add(r2); set.add(r3);
-                            if(set.size() != 3){
-                                Game.display.out.println("❌ Les 3 ressources doivent être différentes.");
-                                continue;
-                            }
-
-                            Resources picked = new Resources();
-                            picked.setNbResource(r1, 1);
-                            picked.setNbResource(r2, 1);
-                            picked.setNbResource(r3, 1);
-
-                            if(!board.canGiveDiffTokens(picked)){
-                                Game.display.out.println("❌ Impossible : le board n'a pas ces jetons disponibles.");
-                                continue;
-                            }
-
-                            new PickDiffTokensAction(picked).process(player, board);
-                            return;
-                        } catch(NumberFormatException e){
-                            Game.display.out.println("❌ Entrée invalide (il faut des nombres).");
-                            continue;
-                        }
+                    Resources picked = new Resources();
+                    picked.setNbResource(r1, 1);
+                    picked.setNbResource(r2, 1);
+                    picked.setNbResource(r3, 1);
+
+                    if(!board.canGiveDiffTokens(picked)){
+                        out.println("❌ Impossible : le board n'a pas ces jetons disponibles.");
+                        continue;
                     }
+
+                    return new PickDiffTokensAction(picked);
+                } catch(NumberFormatException e){
+                    out.println("❌ Entrée invalide (il faut des nombres).");
+                    continue;
                 }
             }
-        };
+        }
     }
     
     /**
@@ -151,23 +248,28 @@ public class HumanPlayer extends Player {
         List<Resource> discard = new ArrayList<>();
         if(excess <= 0) return discard;
 
-        Scanner sc = new Scanner(Game.display.in);
-
         // copie locale des quantités (pour vérifier pendant que user choisit)
         Resources tmp = new Resources();
         for(Resource r : Resource.values()){
             tmp.setNbResource(r, getNbResource(r));
         }
 
-        Game.display.out.println("\n⚠ Tu as trop de jetons (" + getNbTokens() + "). Tu dois en défausser " + excess + ".");
+        out.println("\n⚠ Tu as trop de jetons (" + getNbTokens() + "). Tu dois en défausser " + excess + ".");
 
         for(int i=0; i<excess; i++){
             while(true){
-                Game.display.out.println("Jetons actuels: " + tokensLine(tmp));
-                Resource r = askResource(sc, "Choisis une ressource à défausser (1-5) : ");
+                out.println("Jetons actuels: " + tokensLine(tmp));
+                Resource r;
+                try{
+                    r = askResource("Choisis une ressource à défausser (1-5) : ", NO_DEADLINE);
+                } catch(TimeoutException e){
+                    // thread interrompu : le reste est défaussé des ressources dont le joueur a le plus
+                    discard.addAll(fallbackDiscard(tmp, excess - i));
+                    return discard;
+                }
 
                 if(tmp.getNbResource(r) <= 0){
-                    Game.display.out.println("❌ Tu n'as pas ce jeton.");
+                    out.println("❌ Tu n'as pas ce jeton.");
                     continue;
                 }
 
@@ -182,25 +284,71 @@ public class HumanPlayer extends Player {
 
     /* ------------------ Helpers ------------------ */
 
+    /**
+     * Lit la ligne suivante de l'entrée, au plus jusqu'à une échéance.
+     * Le thread de lecture est créé à la première ligne demandée ; c'est le seul à lire l'entrée.
+     *
+     * @param deadline L'échéance (System.nanoTime), ou NO_DEADLINE
+     * @return La ligne lue
+     * @throws TimeoutException si aucune ligne n'est arrivée avant l'échéance (ou si le thread est interrompu)
+     * @throws NoSuchElementException si l'entrée est terminée
+     */
+    private String nextLine(long deadline) throws TimeoutException, NoSuchElementException {
+        if(reader == null){
+            Scanner sc = new Scanner(in);
+            reader = new Thread(() -> {
+                try{
+                    while(true){
+                        lines.offer(sc.nextLine());
+                    }
+                } catch(NoSuchElementException | IllegalStateException e){
+                    lines.offer(END_OF_INPUT);
+                }
+            }, "human-input");
+            reader.setDaemon(true);
+            reader.start();
+        }
+        String line;
+        try{
+            if(deadline == NO_DEADLINE){
+                line = lines.take();
+            } else {
+                line = lines.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            line = null;
+        }
+        if(line == null){
+            throw new TimeoutException();
+        }
+        if(line == END_OF_INPUT){
+            lines.offer(END_OF_INPUT); // les lectures suivantes voient aussi la fin de l'entrée
+            throw new NoSuchElementException("Fin de l'entrée.");
+        }
+        return line;
+    }
+
     /**
      * Demande à l'utilisateur un nombre entier dans une plage spécifiée.
      * Réaffiche le message d'erreur et le prompt tant que l'entrée est invalide.
      *
-     * @param sc Le scanner pour lire l'entrée utilisateur
      * @param prompt Le message à afficher pour demander l'entrée
      * @param min La valeur minimale acceptable (incluse)
      * @param max La valeur maximale acceptable (incluse)
+     * @param deadline L'échéance de la réponse (System.nanoTime), ou NO_DEADLINE
      * @return L'entier saisi valide
+     * @throws TimeoutException si l'échéance est passée
      */
-    private int askInt(Scanner sc, String prompt, int min, int max){
+    private int askInt(String prompt, int min, int max, long deadline) throws TimeoutException {
         while(true){
-            Game.display.out.println(prompt);
-            String line = sc.nextLine().trim();
+            out.println(prompt);
+            String line = nextLine(deadline).trim();
             try{
                 int v = Integer.parseInt(line);
                 if(v >= min && v <= max) return v;
             } catch(NumberFormatException ignore){}
-            Game.display.out.println("❌ Entrée invalide.");
+            out.println("❌ Entrée invalide.");
         }
     }
 
@@ -208,22 +356,23 @@ public class HumanPlayer extends Player {
     * Demande à l'utilisateur de choisir une ressource (1-5).
     * Réaffiche le menu et le message d'erreur tant que le choix est invalide.
     *
-    * @param sc Le scanner pour lire l'entrée utilisateur
     * @param prompt Le message à afficher pour demander l'entrée
+    * @param deadline L'échéance de la réponse (System.nanoTime), ou NO_DEADLINE
     * @return La ressource choisie
+    * @throws TimeoutException si l'échéance est passée
     */
-    private Resource askResource(Scanner sc, String prompt){
+    private Resource askResource(String prompt, long deadline) throws TimeoutException {
         while(true){
-            Game.display.out.println(prompt);
-            Game.display.out.println(resourceMenuLine());
-            String line = sc.nextLine().trim();
+            out.println(prompt);
+            out.println(resourceMenuLine());
+            String line = nextLine(deadline).trim();
             try{
                 int v = Integer.parseInt(line);
                 if(v >= 1 && v <= 5){
                     return Resource.values()[v-1];
                 }
             } catch(NumberFormatException ignore){}
-            Game.display.out.println("❌ Choix invalide.");
+            out.println("❌ Choix invalide.");
         }
     }
 
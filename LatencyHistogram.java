@@ -0,0 +1,143 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de valeurs positives (durées en ns, nombres de tours...) à précision relative fixe,
+ * sur le principe de HdrHistogram : chaque puissance de 2 est découpée en SUB_BUCKETS cases égales,
+ * ce qui donne une erreur relative d'au plus 1/SUB_BUCKETS (3 %) de 0 à Long.MAX_VALUE
+ * avec moins de 2000 compteurs.
+ *
+ * L'enregistrement est sans verrou (un incrément atomique par valeur) : plusieurs threads peuvent
+ * enregistrer en même temps. Les lectures (percentile, count...) voient une image approximative
+ * si des valeurs sont enregistrées pendant la lecture.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Retourne la case d'une valeur : la valeur elle-même en dessous de SUB_BUCKETS,
+     * puis SUB_BUCKETS cases par puissance de 2.
+     */
+    private static int index(long value){
+        if(value < SUB_BUCKETS){
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * Retourne la plus grande valeur rangée dans une case.
+     */
+    private static long highestValue(int index){
+        if(index < SUB_BUCKETS){
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index - SUB_BUCKETS * shift) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Enregistre une valeur. Les valeurs négatives sont comptées comme 0.
+     * @param value La valeur
+     */
+    public void record(long value){
+        value = Math.max(value, 0);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées.
+     * @return Le nombre de valeurs
+     */
+    public long getCount(){
+        return count.sum();
+    }
+
+    /**
+     * Retourne la somme des valeurs enregistrées.
+     * @return La somme
+     */
+    public long getSum(){
+        return sum.sum();
+    }
+
+    /**
+     * Retourne la plus petite valeur enregistrée.
+     * @return Le minimum, ou 0 si aucune valeur n'a été enregistrée
+     */
+    public long getMin(){
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée.
+     * @return Le maximum, ou 0 si aucune valeur n'a été enregistrée
+     */
+    public long getMax(){
+        return max.get();
+    }
+
+    /**
+     * Retourne la moyenne des valeurs enregistrées.
+     * @return La moyenne, ou 0 si aucune valeur n'a été enregistrée
+     */
+    public double getMean(){
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    /**
+     * Retourne une valeur telle qu'un pourcentage donné des valeurs enregistrées lui sont inférieures
+     * ou égales, à la précision de l'histogramme près.
+     * @param percentile Le pourcentage (entre 0 et 100)
+     * @return La valeur, ou 0 si aucune valeur n'a été enregistrée
+     */
+    public long getPercentile(double percentile){
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for(int i = 0; i < snapshot.length; i++){
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if(total == 0){
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for(int i = 0; i < snapshot.length; i++){
+            seen += snapshot[i];
+            if(seen >= target){
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Remet l'histogramme à zéro. Les valeurs enregistrées pendant la remise à zéro peuvent être perdues.
+     */
+    public void reset(){
+        for(int i = 0; i < counts.length(); i++){
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+}
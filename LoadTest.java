@@ -0,0 +1,318 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de charge de GameServer : des connexions simultanées jouent chacune table après table
+ * comme joueur distant, avec une stratégie simple (un achat si possible, sinon une prise de jetons,
+ * sinon un coup légal au hasard), jusqu'à avoir joué le nombre de tables demandé.
+ *
+ * La latence d'un tour est mesurée côté client : du coup envoyé (ou du JOIN) à la demande
+ * suivante (ACTION ou DISCARD), c'est-à-dire le traitement du coup par le serveur et les tours
+ * des robots de la table. Le rapport donne ses percentiles (voir LatencyHistogram), le débit
+ * en tables par seconde et par cœur, et le nombre de tables simultanées par cœur : les tables
+ * en cours sont relevées toutes les SAMPLE_MILLIS ms côté client et, avec --embedded, côté serveur
+ * (GameServer.getActiveTables), car une connexion passe une partie de son temps entre deux tables.
+ * Le serveur est supposé tourner sur la même machine (il n'écoute que sur localhost) :
+ * le nombre de cœurs est celui de cette machine.
+ *
+ * Utilisation : java LoadTest nbTables nbConnexions [joueur ...] [--port=port] [--embedded]
+ * où les joueurs sont ceux du message JOIN (par défaut : remote robot) ; avec --embedded,
+ * le serveur est lancé dans la même JVM, sur un port libre.
+ */
+public class LoadTest {
+
+    private static final int STACK_SIZE = 256 * 1024;
+    private static final long SAMPLE_MILLIS = 10;
+
+    private final String join;
+    private final int port;
+    private final AtomicInteger remaining;
+    private final LatencyHistogram turnLatency = new LatencyHistogram();
+    private final LatencyHistogram tableDuration = new LatencyHistogram();
+    private final LongAdder tables = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private GameServer server;
+
+    // Relevés des tables en cours (thread de relevé, lus après sa fin)
+    private long samples;
+    private long clientTablesSum;
+    private int clientTablesMax;
+    private long serverTablesSum;
+    private int serverTablesMax;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Utilisation : java LoadTest nbTables nbConnexions [joueur ...] [--port=port] [--embedded]");
+            return;
+        }
+        int nbTables = Integer.parseInt(args[0]);
+        int nbConnections = Integer.parseInt(args[1]);
+        int port = GameServer.DEFAULT_PORT;
+        boolean embedded = false;
+        List<String> lineup = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--port=")) {
+                port = Integer.parseInt(args[i].substring("--port=".length()));
+            } else if (args[i].equals("--embedded")) {
+                embedded = true;
+            } else {
+                lineup.add(args[i]);
+            }
+        }
+        if (lineup.isEmpty()) {
+            lineup.add("remote");
+            lineup.add("robot");
+        }
+
+        GameServer server = null;
+        if (embedded) {
+            server = new GameServer(0, 1);
+            server.start();
+            port = server.getPort();
+        }
+        LoadTest test = new LoadTest("JOIN " + String.join(" ", lineup), port, nbTables);
+        test.setServer(server);
+        long start = System.nanoTime();
+        test.run(nbConnections);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (server != null) {
+            server.close();
+        }
+        System.out.print(test.report(nbConnections, seconds));
+    }
+
+    /**
+     * Constructeur d'un test de charge.
+     * @param join Le message JOIN envoyé pour chaque table
+     * @param port Le port du serveur (sur localhost)
+     * @param nbTables Le nombre de tables à jouer
+     */
+    public LoadTest(String join, int port, int nbTables) {
+        this.join = join;
+        this.port = port;
+        this.remaining = new AtomicInteger(nbTables);
+    }
+
+    /**
+     * Indique le serveur testé quand il tourne dans la même JVM : ses tables en cours sont
+     * alors relevées en plus de celles du client.
+     * @param server Le serveur, ou null
+     */
+    public void setServer(GameServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Joue toutes les tables avec un nombre donné de connexions simultanées, une par thread,
+     * en relevant les tables en cours pendant le test.
+     * @param nbConnections Le nombre de connexions simultanées
+     * @throws InterruptedException si le thread est interrompu pendant l'attente
+     */
+    public void run(int nbConnections) throws InterruptedException {
+        Thread sampler = new Thread(this::sample, "sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nbConnections; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            Thread t = new Thread(null, () -> {
+                while (remaining.getAndDecrement() > 0) {
+                    try {
+                        playTable(random);
+                    } catch (IOException e) {
+                        failures.increment();
+                    }
+                }
+            }, "client-" + i, STACK_SIZE);
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        sampler.interrupt();
+        sampler.join();
+    }
+
+    /**
+     * Relève les tables en cours toutes les SAMPLE_MILLIS ms, jusqu'à être interrompu.
+     */
+    private void sample() {
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            int client = inFlight.get();
+            clientTablesSum += client;
+            clientTablesMax = Math.max(clientTablesMax, client);
+            if (server != null) {
+                int active = server.getActiveTables();
+                serverTablesSum += active;
+                serverTablesMax = Math.max(serverTablesMax, active);
+            }
+            samples++;
+        }
+    }
+
+    /**
+     * Joue une table du début à la fin.
+     * @param random Le générateur du choix des coups
+     * @throws IOException si la connexion échoue ou est fermée avant la fin de la partie
+     */
+    private void playTable(SplittableRandom random) throws IOException {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            send(out, join);
+            long sent = System.nanoTime();
+            String state = "";
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("STATE ")) {
+                    state = line;
+                } else if (line.startsWith("ACTION ")) {
+                    turnLatency.record(System.nanoTime() - sent);
+                    turns.increment();
+                    String[] words = line.split(" ");
+                    send(out, "MOVE " + words[1] + " " + chooseMove(words, random));
+                    sent = System.nanoTime();
+                } else if (line.startsWith("DISCARD ")) {
+                    turnLatency.record(System.nanoTime() - sent);
+                    String[] words = line.split(" ");
+                    send(out, "DISCARD " + words[1] + chooseDiscard(state, Integer.parseInt(words[2]), Integer.parseInt(words[3])));
+                    sent = System.nanoTime();
+                } else if (line.startsWith("ERROR ")) {
+                    errors.increment();
+                } else if (line.startsWith("END ")) {
+                    tables.increment();
+                    tableDuration.record(System.nanoTime() - start);
+                    return;
+                }
+            }
+            throw new IOException("Connexion fermée avant la fin de la partie.");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Choisit un coup parmi ceux d'un message ACTION : un achat (carte visible ou réservée) au hasard
+     * s'il y en a, sinon une prise de jetons, sinon un coup au hasard.
+     * @param words Les mots du message ACTION (les coups commencent au 4e mot)
+     * @param random Le générateur du choix
+     * @return Le coup choisi
+     */
+    private static int chooseMove(String[] words, SplittableRandom random) {
+        int[] moves = new int[words.length - 3];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = Integer.parseInt(words[i + 3]);
+        }
+        int[] preferred = new int[moves.length];
+        for (int pass = 0; pass < 2; pass++) {
+            int n = 0;
+            for (int move : moves) {
+                int type = Move.type(move);
+                boolean wanted = pass == 0 ? type == Move.BUY || type == Move.BUY_RESERVED
+                                           : type == Move.PICK_SAME || type == Move.PICK_DIFF;
+                if (wanted) {
+                    preferred[n++] = move;
+                }
+            }
+            if (n > 0) {
+                return preferred[random.nextInt(n)];
+            }
+        }
+        return moves[random.nextInt(moves.length)];
+    }
+
+    /**
+     * Choisit les jetons à défausser d'après le dernier message STATE : les ressources dont
+     * le joueur a le plus.
+     * @param state Le dernier message STATE
+     * @param seat La place du joueur
+     * @param excess Le nombre de jetons à défausser
+     * @return Les indices des ressources défaussées, chacun précédé d'une espace
+     */
+    private static String chooseDiscard(String state, int seat, int excess) {
+        int[] tokens = new int[Resources.NB_TYPES];
+        String field = " p" + seat + "=";
+        int from = state.indexOf(field);
+        if (from >= 0) {
+            String[] counts = state.substring(from + field.length()).split("/")[0].split(",");
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = Integer.parseInt(counts[i]);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < excess; k++) {
+            int most = 0;
+            for (int i = 1; i < tokens.length; i++) {
+                if (tokens[i] > tokens[most]) {
+                    most = i;
+                }
+            }
+            tokens[most]--;
+            sb.append(' ').append(most);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Envoie une ligne au serveur.
+     */
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Construit le rapport du test.
+     * @param nbConnections Le nombre de connexions simultanées
+     * @param seconds La durée du test en secondes
+     * @return Le rapport
+     */
+    public String report(int nbConnections, double seconds) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long played = tables.sum();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Tables : %d en %.2f s (%.1f tables/s, %.1f tables/s par cœur sur %d cœurs)%n",
+            played, seconds, played / seconds, played / seconds / cores, cores));
+        double clientTables = samples == 0 ? 0 : (double) clientTablesSum / samples;
+        sb.append(String.format("Tables simultanées (client, %d connexions) : moyenne %.1f, max %d (%.2f par cœur)%n",
+            nbConnections, clientTables, clientTablesMax, clientTables / cores));
+        if (server != null) {
+            double serverTables = samples == 0 ? 0 : (double) serverTablesSum / samples;
+            sb.append(String.format("Tables simultanées (serveur) : moyenne %.1f, max %d (%.2f par cœur)%n",
+                serverTables, serverTablesMax, serverTables / cores));
+        }
+        sb.append(String.format("Tours du client : %d (%.0f tours/s)%n", turns.sum(), turns.sum() / seconds));
+        sb.append(String.format("Latence d'un tour (µs) : p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+            turnLatency.getPercentile(50) / 1e3, turnLatency.getPercentile(90) / 1e3, turnLatency.getPercentile(99) / 1e3,
+            turnLatency.getPercentile(99.9) / 1e3, turnLatency.getMax() / 1e3));
+        sb.append(String.format("Durée d'une table (ms) : p50 %.1f  p99 %.1f%n",
+            tableDuration.getPercentile(50) / 1e6, tableDuration.getPercentile(99) / 1e6));
+        sb.append(String.format("Erreurs du serveur : %d, connexions échouées : %d%n", errors.sum(), failures.sum()));
+        return sb.toString();
+    }
+}
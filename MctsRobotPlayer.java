@@ -0,0 +1,682 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Joueur robot qui choisit ses coups par recherche arborescente Monte-Carlo (MCTS / UCT).
+ * À chaque décision, il lit la position complète de la partie dans un GameState et lance la
+ * recherche sur plusieurs threads en parallélisme « à la racine » : chaque thread construit son
+ * propre arbre sur une copie de la position dont les piles cachées sont mélangées à nouveau
+ * (le robot ne connaît pas l'ordre des cartes), puis les visites des coups de la racine sont
+ * additionnées. Les arbres ne sont jamais partagés : les statistiques des nœuds n'ont besoin
+ * d'aucun verrou. Le plateau réel n'est jamais modifié pendant la recherche.
+ * La recherche s'arrête au premier des deux budgets atteint : temps par coup ou nombre de simulations.
+ *
+ * La recherche est faite dans un thread de fond (chooseActionAsync) : la partie peut donc limiter le temps
+ * de réflexion du robot, la recherche s'arrêtant dès que la partie n'attend plus sa réponse.
+ * Avec setPondering, le robot réfléchit aussi pendant le tour de ses adversaires : à la fin de son tour,
+ * il prévoit leurs coups (l'achat du plus haut niveau, sinon le premier coup légal) et lance la recherche
+ * sur la position prévue. Si, à son tour, la position réelle a le même hash (voir Zobrist), il joue le
+ * résultat de cette recherche anticipée ; sinon, il l'arrête et cherche sur la position réelle.
+ */
+public class MctsRobotPlayer extends Player implements GameListener {
+
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_ROLLOUT_MOVES = 400;
+    private static final int TIME_CHECK_INTERVAL = 64;
+
+    private final long timeBudgetNanos;
+    private final int iterationBudget;
+    private final int nbThreads;
+    private final boolean greedyRollouts;
+    private ExecutorService executor;
+    private ExecutorService ponderExecutor;
+    private boolean pondering;
+    private volatile Ponder ponder; // recherche anticipée en cours, ou null
+    private Decision decision;      // dernière décision asynchrone demandée (thread de la partie)
+
+    // Statistiques des recherches : écrites seulement par le thread de la partie.
+    private long lastPlayouts;
+    private long lastSearchNanos;
+    private int ponderHits;
+    private int ponderMisses;
+
+    /**
+     * Constructeur du robot MCTS avec les réglages par défaut :
+     * 100 ms par coup, sur tous les cœurs, simulations gloutonnes.
+     */
+    public MctsRobotPlayer() {
+        this(100, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Constructeur du robot MCTS.
+     * @param timeBudgetMillis Le temps de réflexion maximal par coup, en millisecondes
+     * @param iterationBudget Le nombre maximal de simulations par coup (tous threads confondus)
+     * @param nbThreads Le nombre de threads de recherche
+     * @param greedyRollouts true pour des simulations gloutonnes (achète dès que possible), false pour aléatoires
+     */
+    public MctsRobotPlayer(long timeBudgetMillis, int iterationBudget, int nbThreads, boolean greedyRollouts) {
+        super("Robot MCTS");
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.iterationBudget = iterationBudget;
+        this.nbThreads = Math.max(1, nbThreads);
+        this.greedyRollouts = greedyRollouts;
+    }
+
+    /**
+     * Mesure le débit de la recherche depuis la position de départ d'une partie,
+     * pour dimensionner le matériel.
+     * Utilisation : java MctsRobotPlayer [nbThreads] [millisecondes]
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        MctsRobotPlayer robot = new MctsRobotPlayer(millis, Integer.MAX_VALUE, threads, true);
+        List<Player> players = new ArrayList<>();
+        players.add(robot);
+        players.add(new DumbRobotPlayer());
+        Game game = new Game(players, 0);
+
+        int move = robot.search(GameState.from(game));
+        System.out.printf("Coup choisi : %s, %d simulations en %d ms sur %d threads : %.0f simulations/s%n",
+            Move.toString(move), robot.lastPlayouts, robot.lastSearchNanos / 1_000_000, threads,
+            robot.getPlayoutsPerSecond());
+        robot.shutdown();
+    }
+
+    /**
+     * Retourne le nombre de simulations par seconde de la dernière recherche.
+     * @return Le débit de la dernière recherche
+     */
+    public double getPlayoutsPerSecond() {
+        return lastSearchNanos == 0 ? 0 : lastPlayouts * 1e9 / lastSearchNanos;
+    }
+
+    /**
+     * Active ou désactive la réflexion pendant le tour des adversaires (désactivée par défaut).
+     * @param pondering true pour réfléchir pendant le tour des adversaires
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            cancelPonder();
+        }
+    }
+
+    /**
+     * Retourne le nombre de coups joués grâce à une recherche anticipée (position prévue exacte).
+     * @return Le nombre de recherches anticipées utilisées
+     */
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Retourne le nombre de recherches anticipées abandonnées (position prévue différente).
+     * @return Le nombre de recherches anticipées perdues
+     */
+    public int getPonderMisses() {
+        return ponderMisses;
+    }
+
+    /**
+     * Arrête les threads de recherche du robot (ils sont aussi arrêtés avec la JVM).
+     */
+    public synchronized void shutdown() {
+        cancelPonder();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (ponderExecutor != null) {
+            ponderExecutor.shutdownNow();
+            ponderExecutor = null;
+        }
+    }
+
+    /**
+     * Indique au robot sa partie, et l'y inscrit comme observateur pour réfléchir pendant
+     * le tour de ses adversaires.
+     * @param game La partie du robot
+     */
+    @Override
+    void setGame(Game game) {
+        super.setGame(game);
+        game.addListener(this);
+    }
+
+    /**
+     * Retourne l'action choisie par la recherche.
+     * Si le robot ne connaît pas sa partie, il achète la première carte possible ou passe.
+     * @return L'action à effectuer
+     */
+    @Override
+    public Action chooseAction() {
+        return new DeferredAction() {
+            @Override
+            protected Action decide(Player player, Board board) {
+                int move;
+                if (game != null) {
+                    GameState state = GameState.from(game);
+                    Ponder p = takePonder(state);
+                    SearchResult result = decideMove(state, p, random.split(), () -> false);
+                    report(result, p != null);
+                    move = result.move;
+                } else {
+                    MoveBuffer moves = new MoveBuffer();
+                    MoveGenerator.generate(board, player, moves);
+                    move = moves.get(0);
+                }
+                return Move.toAction(move);
+            }
+        };
+    }
+
+    /**
+     * Lance la recherche dans un thread de fond, sur une copie de la position prise maintenant.
+     * Si la partie n'attend plus la réponse (temps de réflexion écoulé), la recherche s'arrête.
+     * Le thread de fond ne touche pas au robot : les statistiques de la recherche sont relevées
+     * par le thread de la partie quand le coup choisi est joué (voir actionPlayed).
+     * @return L'action choisie, à terme
+     */
+    @Override
+    public CompletableFuture<Action> chooseActionAsync() {
+        if (game == null) {
+            return super.chooseActionAsync();
+        }
+        GameState state = GameState.from(game);
+        Ponder p = takePonder(state);
+        SplittableRandom rng = random.split();
+        Decision d = new Decision(p != null);
+        decision = d;
+        decisionExecutor().execute(() -> {
+            try {
+                SearchResult result = decideMove(state, p, rng, d.action::isDone);
+                d.search = result;
+                d.chosen = Move.toAction(result.move);
+                d.action.complete(d.chosen);
+            } catch (RuntimeException e) {
+                d.action.completeExceptionally(e);
+            }
+        });
+        return d.action;
+    }
+
+    /**
+     * Relève les statistiques de la dernière décision asynchrone si son coup a été joué
+     * (et non l'action de repli, quand le temps de réflexion est écoulé). Thread de la partie.
+     * @param game La partie
+     * @param player La place du joueur qui a joué
+     * @param action L'action jouée
+     */
+    @Override
+    public void actionPlayed(Game game, int player, Action action) {
+        Decision d = decision;
+        if (player != id || d == null) return;
+        decision = null;
+        if (action != null && action == d.chosen) {
+            report(d.search, d.pondered);
+        }
+    }
+
+    /**
+     * Prend la recherche anticipée en cours pour la décision sur une position (thread de la partie) :
+     * elle est gardée si elle portait sur cette position, arrêtée sinon.
+     * @param state La position réelle
+     * @return La recherche anticipée sur cette position, ou null
+     */
+    private Ponder takePonder(GameState state) {
+        Ponder p = ponder;
+        ponder = null;
+        if (p == null) {
+            return null;
+        }
+        if (p.hash == state.getHash() && !p.cancelled.get()) {
+            ponderHits++;
+            return p;
+        }
+        p.cancelled.set(true);
+        ponderMisses++;
+        return null;
+    }
+
+    /**
+     * Choisit le coup d'une position : le résultat de la recherche anticipée si elle portait sur
+     * cette position, sinon une nouvelle recherche. Peut être appelée par n'importe quel thread :
+     * elle ne modifie pas le robot.
+     * @param state La position (non modifiée)
+     * @param p La recherche anticipée sur cette position (voir takePonder), ou null
+     * @param rng Le générateur aléatoire de la recherche
+     * @param stop Vrai quand la réponse n'est plus attendue
+     * @return Le coup choisi et les statistiques de la recherche
+     */
+    private SearchResult decideMove(GameState state, Ponder p, SplittableRandom rng, BooleanSupplier stop) {
+        return p != null ? p.result.join() : search(state, rng, stop);
+    }
+
+    /**
+     * Relève les statistiques d'une recherche dont le coup est joué et les affiche (thread de la partie).
+     * @param result La recherche
+     * @param pondered Vrai si c'était une recherche anticipée
+     */
+    private void report(SearchResult result, boolean pondered) {
+        lastPlayouts = result.playouts;
+        lastSearchNanos = result.nanos;
+        game.getBoard().getOutput().println(getName() + " : " + lastPlayouts + " simulations ("
+            + Math.round(getPlayoutsPerSecond()) + "/s)" + (pondered ? ", anticipées" : ""));
+    }
+
+    /**
+     * Choisit les jetons à défausser par la recherche, un jeton à la fois.
+     * Sans partie connue, défausse les jetons des ressources les plus nombreuses.
+     * @return La liste des ressources à défausser
+     */
+    @Override
+    public List<Resource> chooseDiscardingTokens() {
+        List<Resource> discard = new ArrayList<>();
+        int excess = getNbTokens() - 10;
+        if (excess <= 0) return discard;
+
+        if (game != null) {
+            GameState state = GameState.from(game);
+            while (state.getCurrentPlayer() == id && state.getNbTokens(id) > 10) {
+                int move = search(state);
+                for (int i = 0; i < Resources.NB_TYPES; i++) {
+                    if (Move.discarded(move, i) > 0) {
+                        discard.add(Resources.resourceAt(i));
+                    }
+                }
+                state.apply(move);
+            }
+            return discard;
+        }
+
+        return fallbackDiscard(resources, excess);
+    }
+
+    /**
+     * Lance la recherche sur une position et retourne le coup le plus visité.
+     * @param root La position (non modifiée)
+     * @return Le coup choisi
+     */
+    int search(GameState root) {
+        SearchResult result = search(root, random, () -> false);
+        lastPlayouts = result.playouts;
+        lastSearchNanos = result.nanos;
+        return result.move;
+    }
+
+    /**
+     * Lance la recherche sur une position. Peut être appelée par n'importe quel thread :
+     * elle ne modifie pas le robot.
+     * @param root La position (non modifiée)
+     * @param random Le générateur aléatoire de la recherche
+     * @param stop Vrai pour arrêter la recherche avant ses budgets
+     * @return Le coup le plus visité et les statistiques de la recherche
+     */
+    private SearchResult search(GameState root, SplittableRandom random, BooleanSupplier stop) {
+        MoveBuffer rootMoves = new MoveBuffer();
+        int n = MoveGenerator.generate(root, rootMoves);
+        if (n == 1) {
+            return new SearchResult(rootMoves.get(0), 0, 0);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetNanos;
+        int perThread = Math.max(1, iterationBudget / nbThreads);
+
+        List<Node> roots = new ArrayList<>();
+        if (nbThreads == 1) {
+            roots.add(new Searcher(root.copyWithShuffledDecks(random.split()), random.split()).run(deadline, perThread, stop));
+        } else {
+            List<Future<Node>> futures = new ArrayList<>();
+            ExecutorService pool = executor();
+            for (int t = 0; t < nbThreads; t++) {
+                Searcher searcher = new Searcher(root.copyWithShuffledDecks(random.split()), random.split());
+                futures.add(pool.submit(() -> searcher.run(deadline, perThread, stop)));
+            }
+            try {
+                for (Future<Node> f : futures) {
+                    roots.add(f.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Recherche interrompue.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("La recherche a échoué.", e.getCause());
+            }
+        }
+
+        // Somme des visites de chaque coup de la racine sur tous les arbres.
+        long[] visits = new long[n];
+        long playouts = 0;
+        for (Node r : roots) {
+            playouts += r.visits;
+            for (int c = 0; c < r.nbExpanded; c++) {
+                for (int i = 0; i < n; i++) {
+                    if (rootMoves.get(i) == r.children[c].move) {
+                        visits[i] += r.children[c].visits;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < n; i++) {
+            if (visits[i] > visits[best]) best = i;
+        }
+        return new SearchResult(rootMoves.get(best), playouts, System.nanoTime() - start);
+    }
+
+    /* ---------- RÉFLEXION PENDANT LE TOUR DES ADVERSAIRES ---------- */
+
+    /**
+     * À la fin du tour du robot, prévoit les coups de ses adversaires jusqu'à son prochain tour
+     * et lance la recherche sur la position prévue (thread de la partie).
+     * @param game La partie
+     */
+    @Override
+    public void turnEnded(Game game) {
+        int n = game.getNbPlayers();
+        if (!pondering || game.isGameOver() || (game.getCurrentPlayerIndex() + n - 1) % n != id) {
+            return;
+        }
+        cancelPonder();
+        GameState predicted = GameState.from(game);
+        MoveBuffer moves = new MoveBuffer();
+        while (predicted.getCurrentPlayer() != id) {
+            int k = MoveGenerator.generate(predicted, moves);
+            if (k == 0) return; // la partie se termine avant le prochain tour du robot
+            predicted.apply(predictedMove(moves, k));
+        }
+        Ponder p = new Ponder(predicted.getHash());
+        SplittableRandom rng = random.split();
+        p.result = CompletableFuture.supplyAsync(() -> search(predicted, rng, p.cancelled::get), ponderExecutor());
+        ponder = p;
+    }
+
+    /**
+     * Arrête la recherche anticipée à la fin de la partie.
+     * @param game La partie
+     */
+    @Override
+    public void gameEnded(Game game) {
+        cancelPonder();
+    }
+
+    /**
+     * Coup prévu pour un adversaire : l'achat de plus haut niveau (le premier dans l'ordre du
+     * générateur à niveau égal), sinon le premier coup légal.
+     * @param moves Les coups légaux
+     * @param n Le nombre de coups
+     * @return Le coup prévu
+     */
+    private static int predictedMove(MoveBuffer moves, int n) {
+        int best = moves.get(0);
+        for (int i = 1; i < n; i++) {
+            int move = moves.get(i);
+            if (Move.type(move) == Move.BUY && Move.level(move) > Move.level(best)) {
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Arrête la recherche anticipée en cours, s'il y en a une.
+     */
+    private void cancelPonder() {
+        Ponder p = ponder;
+        ponder = null;
+        if (p != null) {
+            p.cancelled.set(true);
+        }
+    }
+
+    /**
+     * Retourne le thread des recherches anticipées, créé au premier besoin.
+     * @return Le pool d'un thread
+     */
+    private synchronized ExecutorService ponderExecutor() {
+        if (ponderExecutor == null) {
+            ponderExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "mcts-ponder");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return ponderExecutor;
+    }
+
+    /**
+     * Recherche anticipée : la position prévue (son hash) et le résultat de la recherche, à terme.
+     */
+    private static final class Ponder {
+        final long hash;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<SearchResult> result;
+
+        Ponder(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Décision asynchrone : l'action à terme, et ce que le thread de fond a trouvé (lu par
+     * le thread de la partie dans actionPlayed, une fois l'action jouée).
+     */
+    private static final class Decision {
+        final CompletableFuture<Action> action = new CompletableFuture<>();
+        final boolean pondered;
+        volatile SearchResult search;
+        volatile Action chosen;
+
+        Decision(boolean pondered) {
+            this.pondered = pondered;
+        }
+    }
+
+    /**
+     * Résultat d'une recherche : le coup choisi, le nombre de simulations et la durée.
+     */
+    private static final class SearchResult {
+        final int move;
+        final long playouts;
+        final long nanos;
+
+        SearchResult(int move, long playouts, long nanos) {
+            this.move = move;
+            this.playouts = playouts;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Retourne le pool de threads de recherche, créé au premier besoin.
+     * @return Le pool de threads
+     */
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(nbThreads, r -> {
+                Thread t = new Thread(r, "mcts");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Nœud de l'arbre de recherche. Les coups du nœud sont générés à sa création ;
+     * les enfants sont créés un par un, dans l'ordre des coups.
+     */
+    private static final class Node {
+        final Node parent;
+        final int move;
+        final int mover;
+        final int[] moves;
+        final Node[] children;
+        int nbExpanded;
+        long visits;
+        double reward;
+
+        Node(Node parent, int move, int mover, MoveBuffer legal) {
+            this.parent = parent;
+            this.move = move;
+            this.mover = mover;
+            this.moves = new int[legal.size()];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = legal.get(i);
+            }
+            this.children = new Node[moves.length];
+        }
+    }
+
+    /**
+     * Recherche sur un arbre, exécutée par un seul thread. Les coups sont joués puis annulés
+     * sur un seul GameState : une simulation ne copie pas la position.
+     */
+    private final class Searcher {
+        private final GameState state;
+        private final SplittableRandom rng;
+        private final MoveBuffer buffer = new MoveBuffer();
+        private final double[] rewards;
+
+        Searcher(GameState state, SplittableRandom rng) {
+            this.state = state;
+            this.rng = rng;
+            this.rewards = new double[state.getNbPlayers()];
+        }
+
+        /**
+         * Fait des simulations jusqu'à l'échéance ou au nombre de simulations demandé.
+         * @param deadline L'échéance (System.nanoTime)
+         * @param iterations Le nombre maximal de simulations
+         * @param stop Vrai pour arrêter la recherche (vérifié avec l'échéance)
+         * @return La racine de l'arbre construit
+         */
+        Node run(long deadline, int iterations, BooleanSupplier stop) {
+            MoveGenerator.generate(state, buffer);
+            Node root = new Node(null, 0, -1, buffer);
+            for (int it = 0; it < iterations; it++) {
+                if (it % TIME_CHECK_INTERVAL == 0 && (System.nanoTime() >= deadline || stop.getAsBoolean())) break;
+                iterate(root);
+            }
+            return root;
+        }
+
+        /**
+         * Une simulation : sélection, expansion, simulation, rétropropagation.
+         * @param root La racine de l'arbre
+         */
+        private void iterate(Node root) {
+            int applied = 0;
+            Node node = root;
+
+            // Sélection : on descend tant que le nœud est complètement développé.
+            while (node.nbExpanded == node.moves.length && node.moves.length > 0) {
+                node = select(node);
+                state.apply(node.move);
+                applied++;
+            }
+
+            // Expansion d'un nouvel enfant.
+            if (node.nbExpanded < node.moves.length) {
+                int move = node.moves[node.nbExpanded];
+                int mover = state.getCurrentPlayer();
+                state.apply(move);
+                applied++;
+                MoveGenerator.generate(state, buffer);
+                Node child = new Node(node, move, mover, buffer);
+                node.children[node.nbExpanded++] = child;
+                node = child;
+            }
+
+            // Simulation jusqu'à la fin de la partie (ou la limite de coups).
+            int rollout = 0;
+            while (rollout < MAX_ROLLOUT_MOVES) {
+                int n = MoveGenerator.generate(state, buffer);
+                if (n == 0) break;
+                state.apply(greedyRollouts ? greedyMove(n) : buffer.get(rng.nextInt(n)));
+                rollout++;
+            }
+            score();
+            for (int i = 0; i < applied + rollout; i++) {
+                state.undo();
+            }
+
+            // Rétropropagation : chaque nœud garde la récompense du joueur qui y a mené.
+            for (Node n = node; n != null; n = n.parent) {
+                n.visits++;
+                if (n.mover >= 0) {
+                    n.reward += rewards[n.mover];
+                }
+            }
+        }
+
+        /**
+         * Choisit l'enfant qui maximise le score UCT.
+         * @param node Le nœud complètement développé
+         * @return L'enfant choisi
+         */
+        private Node select(Node node) {
+            double logVisits = Math.log(node.visits);
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < node.nbExpanded; i++) {
+                Node child = node.children[i];
+                double score = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Coup de simulation glouton : l'achat qui rapporte le plus de points s'il y en a un,
+         * sinon un coup au hasard, en évitant de passer quand autre chose est possible.
+         * @param n Le nombre de coups dans le tampon
+         * @return Le coup choisi
+         */
+        private int greedyMove(int n) {
+            CardCatalog catalog = CardCatalog.getInstance();
+            int best = -1;
+            int bestPoints = -1;
+            for (int i = 0; i < n; i++) {
+                int move = buffer.get(i);
+                if (Move.type(move) != Move.BUY) continue;
+                int id = state.getVisibleCard(Move.level(move), Move.column(move));
+                int points = catalog.getCard(id).getPoints();
+                if (points > bestPoints) {
+                    bestPoints = points;
+                    best = move;
+                }
+            }
+            if (best >= 0) return best;
+            int last = buffer.get(n - 1);
+            int choices = (n > 1 && Move.type(last) == Move.PASS) ? n - 1 : n;
+            return buffer.get(rng.nextInt(choices));
+        }
+
+        /**
+         * Calcule la récompense de chaque joueur en fin de simulation : 1 pour le gagnant,
+         * partagée en cas d'égalité parfaite. Si la simulation a été coupée, le meneur aux points gagne.
+         */
+        private void score() {
+            int winner = state.getWinner();
+            for (int p = 0; p < rewards.length; p++) {
+                rewards[p] = winner < 0 ? 1.0 / rewards.length : (p == winner ? 1 : 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registre des mesures du moteur de jeu : compteurs (LongAdder) et histogrammes de durées
+ * (voir LatencyHistogram), partagés par toutes les parties de la JVM et enregistrables sans verrou.
+ * Game y note, pour chaque tour :
+ * - la durée de décision de chaque type de joueur (decision.*, discard.decision.*) ;
+ * - la durée de process de chaque type d'action (process.*) ;
+ * - le nombre d'actions de chaque type (actions.*), d'actions sans effet (actions.failed.*),
+ *   de tours sans action (actions.none) et de jetons défaussés (tokens.discarded) ;
+ * - le nombre de tours (game.turns) et la durée (game.ns) de chaque partie.
+ *
+ * Les mesures ne sont actives que si la JVM est lancée avec -Dsplendor.metrics=fichier :
+ * sinon ENABLED est faux, et le JIT supprime le code des mesures (if (Metrics.ENABLED) ...).
+ * Le fichier reçoit les mesures à la fin du programme (dump), en CSV si son nom finit par .csv,
+ * en JSON sinon ; un nom vide les écrit sur la sortie standard, en JSON.
+ */
+public final class Metrics
+{
+    private static final String PROPERTY = "splendor.metrics";
+
+    /** Vrai si les mesures sont actives. */
+    public static final boolean ENABLED = System.getProperty(PROPERTY) != null;
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<LatencyHistogram> DECISION = histograms("decision.");
+    private static final ClassValue<LatencyHistogram> DISCARD_DECISION = histograms("discard.decision.");
+    private static final ClassValue<LatencyHistogram> PROCESS = histograms("process.");
+    private static final ClassValue<LongAdder> ACTIONS = counters("actions.");
+    private static final ClassValue<LongAdder> FAILED = counters("actions.failed.");
+
+    /** Durée du dernier DeferredAction.decide du thread, à compter comme décision (voir takeDecide). */
+    private static final ThreadLocal<long[]> DECIDE = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Metrics(){
+    }
+
+    /**
+     * Un histogramme par classe (de joueur ou d'action), créé au premier appel pour cette classe.
+     */
+    private static ClassValue<LatencyHistogram> histograms(String prefix){
+        return new ClassValue<LatencyHistogram>(){
+            @Override
+            protected LatencyHistogram computeValue(Class<?> type){
+                return histogram(prefix + type.getSimpleName());
+            }
+        };
+    }
+
+    /**
+     * Un compteur par classe (d'action), créé au premier appel pour cette classe.
+     */
+    private static ClassValue<LongAdder> counters(String prefix){
+        return new ClassValue<LongAdder>(){
+            @Override
+            protected LongAdder computeValue(Class<?> type){
+                return counter(prefix + type.getSimpleName());
+            }
+        };
+    }
+
+    /* ---------- REGISTRE ---------- */
+
+    /**
+     * Retourne le compteur d'un nom donné, créé au premier appel.
+     * @param name Le nom du compteur
+     * @return Le compteur
+     */
+    public static LongAdder counter(String name){
+        return COUNTERS.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Retourne l'histogramme d'un nom donné, créé au premier appel.
+     * @param name Le nom de l'histogramme
+     * @return L'histogramme
+     */
+    public static LatencyHistogram histogram(String name){
+        return HISTOGRAMS.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Remet toutes les mesures à zéro.
+     */
+    public static void reset(){
+        COUNTERS.values().forEach(LongAdder::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /* ---------- MESURES DU JEU (appelées seulement si ENABLED) ---------- */
+
+    /**
+     * Note la durée du choix d'une action différée, faite pendant son process (voir DeferredAction).
+     * @param nanos La durée du choix
+     */
+    static void noteDecide(long nanos){
+        DECIDE.get()[0] += nanos;
+    }
+
+    /**
+     * Retourne et remet à zéro la durée des choix notés par noteDecide dans ce thread.
+     * @return La durée en ns
+     */
+    static long takeDecide(){
+        long[] decide = DECIDE.get();
+        long nanos = decide[0];
+        decide[0] = 0;
+        return nanos;
+    }
+
+    /**
+     * Note une action jouée.
+     * @param player Le joueur
+     * @param action L'action concrète exécutée (null si le joueur n'a rien proposé)
+     * @param decisionNanos La durée du choix de l'action
+     * @param processNanos La durée de son exécution
+     * @param changed Vrai si l'action a modifié le joueur ou le plateau
+     */
+    static void recordMove(Player player, Action action, long decisionNanos, long processNanos, boolean changed){
+        DECISION.get(player.getClass()).record(decisionNanos);
+        if(action == null){
+            counter("actions.none").increment();
+            return;
+        }
+        PROCESS.get(action.getClass()).record(processNanos);
+        ACTIONS.get(action.getClass()).increment();
+        if(!changed && !(action instanceof PassAction)){
+            FAILED.get(action.getClass()).increment();
+        }
+    }
+
+    /**
+     * Note une défausse de jetons.
+     * @param player Le joueur
+     * @param action L'action de défausse
+     * @param nbTokens Le nombre de jetons défaussés
+     * @param decisionNanos La durée du choix des jetons
+     * @param processNanos La durée de la défausse
+     */
+    static void recordDiscard(Player player, Action action, int nbTokens, long decisionNanos, long processNanos){
+        DISCARD_DECISION.get(player.getClass()).record(decisionNanos);
+        PROCESS.get(action.getClass()).record(processNanos);
+        ACTIONS.get(action.getClass()).increment();
+        counter("tokens.discarded").add(nbTokens);
+    }
+
+    /**
+     * Note une partie terminée.
+     * @param nbTurns Le nombre de tours joués
+     * @param nanos La durée de la partie
+     */
+    static void recordGame(int nbTurns, long nanos){
+        counter("games").increment();
+        histogram("game.turns").record(nbTurns);
+        histogram("game.ns").record(nanos);
+    }
+
+    /* ---------- EXPORT ---------- */
+
+    /**
+     * Écrit toutes les mesures en JSON, triées par nom : les compteurs avec leur valeur,
+     * les histogrammes avec leur nombre de valeurs, minimum, moyenne, percentiles et maximum.
+     * @param out La sortie
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void writeJson(Appendable out) throws IOException {
+        out.append("{\n  \"counters\": {");
+        String sep = "\n";
+        for(Map.Entry<String, LongAdder> e : new TreeMap<>(COUNTERS).entrySet()){
+            out.append(sep).append("    \"").append(e.getKey()).append("\": ").append(Long.toString(e.getValue().sum()));
+            sep = ",\n";
+        }
+        out.append("\n  },\n  \"histograms\": {");
+        sep = "\n";
+        for(Map.Entry<String, LatencyHistogram> e : new TreeMap<>(HISTOGRAMS).entrySet()){
+            LatencyHistogram h = e.getValue();
+            out.append(sep).append("    \"").append(e.getKey()).append("\": ")
+               .append(String.format(Locale.ROOT,
+                   "{\"count\": %d, \"min\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+                   h.getCount(), h.getMin(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                   h.getPercentile(99), h.getPercentile(99.9), h.getMax()));
+            sep = ",\n";
+        }
+        out.append("\n  }\n}\n");
+    }
+
+    /**
+     * Écrit toutes les mesures en CSV, une ligne par mesure, triées par nom.
+     * Pour un compteur, seule la colonne count est remplie.
+     * @param out La sortie
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void writeCsv(Appendable out) throws IOException {
+        out.append("name,type,count,min,mean,p50,p90,p99,p999,max\n");
+        for(Map.Entry<String, LongAdder> e : new TreeMap<>(COUNTERS).entrySet()){
+            out.append(e.getKey()).append(",counter,").append(Long.toString(e.getValue().sum())).append(",,,,,,,\n");
+        }
+        for(Map.Entry<String, LatencyHistogram> e : new TreeMap<>(HISTOGRAMS).entrySet()){
+            LatencyHistogram h = e.getValue();
+            out.append(String.format(Locale.ROOT, "%s,histogram,%d,%d,%.1f,%d,%d,%d,%d,%d%n",
+                e.getKey(), h.getCount(), h.getMin(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                h.getPercentile(99), h.getPercentile(99.9), h.getMax()));
+        }
+    }
+
+    /**
+     * Écrit les mesures là où l'indique -Dsplendor.metrics (voir la description de la classe).
+     * Sans effet si les mesures ne sont pas actives.
+     */
+    public static void dump(){
+        if(!ENABLED){
+            return;
+        }
+        String file = System.getProperty(PROPERTY);
+        try{
+            if(file.isEmpty()){
+                writeJson(System.out);
+                return;
+            }
+            Path path = Paths.get(file);
+            try(Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+                if(file.endsWith(".csv")){
+                    writeCsv(writer);
+                }else{
+                    writeJson(writer);
+                }
+            }
+        }catch(IOException e){
+            System.err.println("Impossible d'écrire les mesures : " + e.getMessage());
+        }
+    }
+}
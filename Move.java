@@ -0,0 +1,294 @@
+/**
+ * Codage compact d'une action dans un int, pour la recherche et la simulation (voir GameState).
+ * Les 4 bits de poids faible donnent le type de l'action, les bits suivants ses paramètres :
+ * - BUY : niveau (0-2) sur 2 bits puis colonne (0-3) sur 2 bits
+ * - PICK_SAME : indice de la ressource sur 3 bits
+ * - PICK_DIFF : masque des ressources prises (bit r.ordinal()) sur 5 bits
+ * - DISCARD : nombre de jetons défaussés par ressource, 4 bits par ressource
+ * - RESERVE : niveau (0-2) sur 2 bits puis colonne (0-3, ou DECK_COLUMN pour la pile) sur 3 bits
+ * - BUY_RESERVED : indice de la carte parmi les cartes réservées sur 2 bits
+ * Un coup est donc un simple entier : on peut en stocker des milliers sans créer d'objet.
+ */
+public final class Move
+{
+    public static final int PASS = 0;
+    public static final int BUY = 1;
+    public static final int PICK_SAME = 2;
+    public static final int PICK_DIFF = 3;
+    public static final int DISCARD = 4;
+    public static final int RESERVE = 5;
+    public static final int BUY_RESERVED = 6;
+
+    /** Colonne d'une réservation à l'aveugle, sur la pile du niveau (voir ReserveCardAction.DECK). */
+    public static final int DECK_COLUMN = ReserveCardAction.DECK;
+
+    private static final int TYPE_BITS = 4;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int DISCARD_LANE_BITS = 4;
+
+    private Move(){
+    }
+
+    /* ---------- CONSTRUCTION ---------- */
+
+    /**
+     * Code l'action de passer son tour.
+     * @return Le coup
+     */
+    public static int pass(){
+        return PASS;
+    }
+
+    /**
+     * Code l'achat d'une carte visible.
+     * @param level L'indice du niveau (0-2)
+     * @param column L'indice de la colonne (0-3)
+     * @return Le coup
+     */
+    public static int buy(int level, int column){
+        return BUY | (level << TYPE_BITS) | (column << (TYPE_BITS + 2));
+    }
+
+    /**
+     * Code la réservation d'une carte visible ou, avec DECK_COLUMN, de la carte du dessus d'une pile.
+     * @param level L'indice du niveau (0-2)
+     * @param column L'indice de la colonne (0-3) ou DECK_COLUMN
+     * @return Le coup
+     */
+    public static int reserve(int level, int column){
+        return RESERVE | (level << TYPE_BITS) | (column << (TYPE_BITS + 2));
+    }
+
+    /**
+     * Code l'achat d'une carte réservée.
+     * @param index L'indice de la carte parmi les cartes réservées (0-2)
+     * @return Le coup
+     */
+    public static int buyReserved(int index){
+        return BUY_RESERVED | (index << TYPE_BITS);
+    }
+
+    /**
+     * Code la prise de 2 jetons identiques.
+     * @param r La ressource
+     * @return Le coup
+     */
+    public static int pickSame(Resource r){
+        return PICK_SAME | (r.ordinal() << TYPE_BITS);
+    }
+
+    /**
+     * Code la prise de jetons différents.
+     * @param mask Le masque des ressources prises (bit r.ordinal())
+     * @return Le coup
+     */
+    public static int pickDiff(int mask){
+        return PICK_DIFF | (mask << TYPE_BITS);
+    }
+
+    /**
+     * Code la défausse d'un seul jeton.
+     * @param r La ressource défaussée
+     * @return Le coup
+     */
+    public static int discardOne(Resource r){
+        return DISCARD | (1 << (TYPE_BITS + DISCARD_LANE_BITS * r.ordinal()));
+    }
+
+    /**
+     * Code la défausse de plusieurs jetons.
+     * @param res Le nombre de jetons défaussés par ressource (15 au plus par ressource)
+     * @return Le coup
+     */
+    public static int discard(Resources res){
+        int move = DISCARD;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            int n = Math.min(15, res.getNbResource(Resources.resourceAt(i)));
+            move |= n << (TYPE_BITS + DISCARD_LANE_BITS * i);
+        }
+        return move;
+    }
+
+    /* ---------- LECTURE ---------- */
+
+    /**
+     * Retourne le type d'un coup.
+     * @param move Le coup
+     * @return PASS, BUY, PICK_SAME, PICK_DIFF, DISCARD, RESERVE ou BUY_RESERVED
+     */
+    public static int type(int move){
+        return move & TYPE_MASK;
+    }
+
+    /**
+     * Retourne le niveau de la carte d'un coup BUY ou RESERVE.
+     * @param move Le coup
+     * @return L'indice du niveau (0-2)
+     */
+    public static int level(int move){
+        return (move >>> TYPE_BITS) & 3;
+    }
+
+    /**
+     * Retourne la colonne de la carte d'un coup BUY ou RESERVE.
+     * @param move Le coup
+     * @return L'indice de la colonne (0-3), ou DECK_COLUMN pour une réservation sur la pile
+     */
+    public static int column(int move){
+        return (move >>> (TYPE_BITS + 2)) & 7;
+    }
+
+    /**
+     * Retourne l'indice de la carte réservée d'un coup BUY_RESERVED.
+     * @param move Le coup
+     * @return L'indice de la carte parmi les cartes réservées (0-2)
+     */
+    public static int index(int move){
+        return (move >>> TYPE_BITS) & 3;
+    }
+
+    /**
+     * Retourne l'indice de la ressource d'un coup PICK_SAME.
+     * @param move Le coup
+     * @return L'indice (ordinal) de la ressource
+     */
+    public static int resource(int move){
+        return (move >>> TYPE_BITS) & 7;
+    }
+
+    /**
+     * Retourne le masque des ressources d'un coup PICK_DIFF.
+     * @param move Le coup
+     * @return Le masque des ressources prises
+     */
+    public static int mask(int move){
+        return (move >>> TYPE_BITS) & 0x1F;
+    }
+
+    /**
+     * Retourne le nombre de jetons défaussés d'une ressource dans un coup DISCARD.
+     * @param move Le coup
+     * @param index L'indice (ordinal) de la ressource
+     * @return Le nombre de jetons défaussés
+     */
+    public static int discarded(int move, int index){
+        return (move >>> (TYPE_BITS + DISCARD_LANE_BITS * index)) & 0xF;
+    }
+
+    /* ---------- CONVERSION ---------- */
+
+    /**
+     * Crée l'action correspondant à un coup.
+     * @param move Le coup
+     * @return L'action à exécuter sur un Board
+     * @throws IllegalArgumentException si le type du coup est inconnu
+     */
+    public static Action toAction(int move) throws IllegalArgumentException {
+        switch(type(move)){
+            case PASS:
+                return new PassAction();
+            case BUY:
+                return new BuyCardAction(level(move), column(move));
+            case PICK_SAME:
+                return new PickSameTokensAction(Resources.resourceAt(resource(move)));
+            case PICK_DIFF: {
+                Resources picked = new Resources();
+                for(int m = mask(move); m != 0; m &= m - 1){
+                    picked.setNbResource(Resources.resourceAt(Integer.numberOfTrailingZeros(m)), 1);
+                }
+                return new PickDiffTokensAction(picked);
+            }
+            case DISCARD: {
+                Resources discarded = new Resources();
+                for(int i = 0; i < Resources.NB_TYPES; i++){
+                    discarded.setNbResource(Resources.resourceAt(i), discarded(move, i));
+                }
+                return new DiscardTokensAction(discarded);
+            }
+            case RESERVE:
+                return new ReserveCardAction(level(move), column(move));
+            case BUY_RESERVED:
+                return new BuyReservedCardAction(index(move));
+            default:
+                throw new IllegalArgumentException("Coup inconnu : " + move);
+        }
+    }
+
+    /**
+     * Code une action concrète sous forme de coup.
+     * @param action L'action
+     * @return Le coup correspondant
+     * @throws IllegalArgumentException si l'action ne peut pas être codée (type inconnu,
+     *         ou prise de plusieurs jetons d'une même ressource dans PickDiffTokensAction)
+     */
+    public static int fromAction(Action action) throws IllegalArgumentException {
+        if(action instanceof PassAction){
+            return pass();
+        }
+        if(action instanceof BuyCardAction){
+            BuyCardAction buy = (BuyCardAction) action;
+            return buy(buy.getLevel(), buy.getColumn());
+        }
+        if(action instanceof PickSameTokensAction){
+            return pickSame(((PickSameTokensAction) action).getResource());
+        }
+        if(action instanceof PickDiffTokensAction){
+            Resources picked = ((PickDiffTokensAction) action).getPickedResources();
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                if(picked.getNbResource(Resources.resourceAt(i)) > 1){
+                    throw new IllegalArgumentException("Prise de plusieurs jetons identiques : " + picked);
+                }
+            }
+            return pickDiff(picked.getAvailableMask());
+        }
+        if(action instanceof DiscardTokensAction){
+            return discard(((DiscardTokensAction) action).getResourcesToDiscard());
+        }
+        if(action instanceof ReserveCardAction){
+            ReserveCardAction reserve = (ReserveCardAction) action;
+            return reserve(reserve.getLevel(), reserve.getColumn());
+        }
+        if(action instanceof BuyReservedCardAction){
+            return buyReserved(((BuyReservedCardAction) action).getIndex());
+        }
+        throw new IllegalArgumentException("Action impossible à coder : " + action);
+    }
+
+    /**
+     * Retourne une description lisible d'un coup.
+     * @param move Le coup
+     * @return La description du coup
+     */
+    public static String toString(int move){
+        switch(type(move)){
+            case PASS:
+                return "PASS";
+            case BUY:
+                return "BUY " + (level(move) + 1) + "/" + (column(move) + 1);
+            case PICK_SAME:
+                return "SAME " + Resources.resourceAt(resource(move)).toSymbol();
+            case PICK_DIFF: {
+                StringBuilder sb = new StringBuilder("DIFF");
+                for(int m = mask(move); m != 0; m &= m - 1){
+                    sb.append(' ').append(Resources.resourceAt(Integer.numberOfTrailingZeros(m)).toSymbol());
+                }
+                return sb.toString();
+            }
+            case DISCARD: {
+                StringBuilder sb = new StringBuilder("DISCARD");
+                for(int i = 0; i < Resources.NB_TYPES; i++){
+                    if(discarded(move, i) > 0){
+                        sb.append(' ').append(discarded(move, i)).append(Resources.resourceAt(i).toSymbol());
+                    }
+                }
+                return sb.toString();
+            }
+            case RESERVE:
+                return "RESERVE " + (level(move) + 1) + "/" + (column(move) == DECK_COLUMN ? "pile" : String.valueOf(column(move) + 1));
+            case BUY_RESERVED:
+                return "BUY_RESERVED " + (index(move) + 1);
+            default:
+                return "?" + move;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+/**
+ * Tampon réutilisable de coups (voir Move), rempli par MoveGenerator.
+ * Le tableau est alloué une fois : générer des coups dans un tampon existant ne crée aucun objet.
+ */
+public class MoveBuffer
+{
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructeur d'un tampon vide.
+     * @param capacity La capacité initiale (le tampon s'agrandit si besoin)
+     */
+    public MoveBuffer(int capacity){
+        this.moves = new int[Math.max(1, capacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Constructeur d'un tampon assez grand pour tous les coups d'une position.
+     */
+    public MoveBuffer(){
+        this(MoveGenerator.MAX_MOVES);
+    }
+
+    /**
+     * Vide le tampon (sans libérer le tableau).
+     */
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Ajoute un coup à la fin du tampon.
+     * @param move Le coup
+     */
+    public void add(int move){
+        if(size == moves.length){
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Retourne un coup du tampon.
+     * @param index La position du coup (0 à size()-1)
+     * @return Le coup
+     */
+    public int get(int index){
+        return moves[index];
+    }
+
+    /**
+     * Retourne le nombre de coups dans le tampon.
+     * @return Le nombre de coups
+     */
+    public int size(){
+        return size;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("[");
+        for(int i = 0; i < size; i++){
+            if(i > 0) sb.append(", ");
+            sb.append(Move.toString(moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Générateur des coups légaux d'une position, sur le modèle objet (Board + Player)
+ * ou sur l'état compact (GameState). Les coups sont écrits dans un MoveBuffer fourni par
+ * l'appelant, sans aucune allocation, dans un ordre fixe :
+ * achats (niveaux 1 à 3, colonnes 1 à 4), achats des cartes réservées, 2 jetons identiques,
+ * 3 jetons différents, réservations (cartes visibles puis piles des niveaux 1 à 3), passer.
+ * Un joueur qui a plus de 10 jetons ne peut que défausser un jeton d'une ressource qu'il possède
+ * (jamais un jeton or).
+ */
+public final class MoveGenerator
+{
+    /** Nombre maximal de coups d'une position : 12 + 3 achats, 5 + 10 prises, 12 + 3 réservations, passer. */
+    public static final int MAX_MOVES = 46;
+
+    /** Les 10 façons de choisir 3 ressources parmi 5, sous forme de masques. */
+    private static final int[] DIFF_MASKS = diffMasks();
+
+    private static final int MAX_TOKENS = 10;
+
+    private MoveGenerator(){
+    }
+
+    /**
+     * Génère les coups légaux du joueur courant d'un état compact.
+     * @param state L'état de la partie
+     * @param buffer Le tampon à remplir (vidé au préalable)
+     * @return Le nombre de coups générés (0 si la partie est terminée)
+     */
+    public static int generate(GameState state, MoveBuffer buffer){
+        buffer.clear();
+        if(state.isGameOver()) return 0;
+        int p = state.getCurrentPlayer();
+
+        if(state.getNbTokens(p) > MAX_TOKENS){
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                if(state.getTokens(p, i) > 0){
+                    buffer.add(Move.discardOne(Resources.resourceAt(i)));
+                }
+            }
+            return buffer.size();
+        }
+
+        addBuyMoves(state.evaluateCards(p, null), buffer);
+        addBuyReservedMoves(state.evaluateReserved(p), buffer);
+
+        int available = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            int n = state.getBoardTokens(i);
+            if(n >= 4){
+                buffer.add(Move.pickSame(Resources.resourceAt(i)));
+            }
+            if(n > 0){
+                available |= 1 << i;
+            }
+        }
+        addDiffMoves(available, buffer);
+
+        if(state.getNbReservedCards(p) < Player.MAX_RESERVED){
+            int occupied = 0;
+            for(int slot = 0; slot < 12; slot++){
+                occupied |= (state.getVisibleCard(slot >>> 2, slot & 3) >= 0 ? 1 : 0) << slot;
+            }
+            addReserveMoves(occupied, state.getDeckSize(1), state.getDeckSize(2), state.getDeckSize(3), buffer);
+        }
+
+        buffer.add(Move.pass());
+        return buffer.size();
+    }
+
+    /**
+     * Génère les coups légaux d'un joueur sur un plateau.
+     * @param board Le plateau
+     * @param player Le joueur qui doit jouer
+     * @param buffer Le tampon à remplir (vidé au préalable)
+     * @return Le nombre de coups générés
+     */
+    public static int generate(Board board, Player player, MoveBuffer buffer){
+        buffer.clear();
+
+        if(player.getNbTokens() > MAX_TOKENS){
+            for(int i = 0; i < Resources.NB_TYPES; i++){
+                Resource r = Resources.resourceAt(i);
+                if(player.getNbResource(r) > 0){
+                    buffer.add(Move.discardOne(r));
+                }
+            }
+            return buffer.size();
+        }
+
+        addBuyMoves(board.evaluateCards(player.getPackedPower(), player.getGold(), null), buffer);
+        int affordable = 0;
+        for(int i = 0; i < player.getNbReservedCards(); i++){
+            affordable |= (player.canBuyCard(player.getReservedCard(i)) ? 1 : 0) << i;
+        }
+        addBuyReservedMoves(affordable, buffer);
+
+        int available = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            Resource r = Resources.resourceAt(i);
+            if(board.canGiveSameTokens(r)){
+                buffer.add(Move.pickSame(r));
+            }
+            if(board.getNbResource(r) > 0){
+                available |= 1 << i;
+            }
+        }
+        addDiffMoves(available, buffer);
+
+        if(player.getNbReservedCards() < Player.MAX_RESERVED){
+            addReserveMoves(board.visibleSlots, board.getDeckSize(1), board.getDeckSize(2), board.getDeckSize(3), buffer);
+        }
+
+        buffer.add(Move.pass());
+        return buffer.size();
+    }
+
+    /**
+     * Ajoute les achats des cartes achetables, dans l'ordre des cases (niveau * 4 + colonne).
+     * @param affordable Le masque des cases achetables (voir Board.evaluateCards)
+     * @param buffer Le tampon à compléter
+     */
+    private static void addBuyMoves(int affordable, MoveBuffer buffer){
+        for(int mask = affordable; mask != 0; mask &= mask - 1){
+            int slot = Integer.numberOfTrailingZeros(mask);
+            buffer.add(Move.buy(slot >>> 2, slot & 3));
+        }
+    }
+
+    /**
+     * Ajoute les achats des cartes réservées achetables, dans l'ordre de réservation.
+     * @param affordable Le masque des cartes réservées achetables (bit indice de la carte)
+     * @param buffer Le tampon à compléter
+     */
+    private static void addBuyReservedMoves(int affordable, MoveBuffer buffer){
+        for(int mask = affordable; mask != 0; mask &= mask - 1){
+            buffer.add(Move.buyReserved(Integer.numberOfTrailingZeros(mask)));
+        }
+    }
+
+    /**
+     * Ajoute les réservations possibles : les cartes visibles, dans l'ordre des cases,
+     * puis la carte du dessus de chaque pile non vide.
+     * @param occupied Le masque des cases occupées par une carte (niveau * 4 + colonne)
+     * @param deck1 Le nombre de cartes de la pile de niveau 1
+     * @param deck2 Le nombre de cartes de la pile de niveau 2
+     * @param deck3 Le nombre de cartes de la pile de niveau 3
+     * @param buffer Le tampon à compléter
+     */
+    private static void addReserveMoves(int occupied, int deck1, int deck2, int deck3, MoveBuffer buffer){
+        for(int mask = occupied; mask != 0; mask &= mask - 1){
+            int slot = Integer.numberOfTrailingZeros(mask);
+            buffer.add(Move.reserve(slot >>> 2, slot & 3));
+        }
+        if(deck1 > 0) buffer.add(Move.reserve(0, Move.DECK_COLUMN));
+        if(deck2 > 0) buffer.add(Move.reserve(1, Move.DECK_COLUMN));
+        if(deck3 > 0) buffer.add(Move.reserve(2, Move.DECK_COLUMN));
+    }
+
+    /**
+     * Ajoute les prises de 3 jetons différents possibles avec les ressources disponibles.
+     * @param available Le masque des ressources disponibles sur le plateau
+     * @param buffer Le tampon à compléter
+     */
+    private static void addDiffMoves(int available, MoveBuffer buffer){
+        for(int mask : DIFF_MASKS){
+            if((mask & available) == mask){
+                buffer.add(Move.pickDiff(mask));
+            }
+        }
+    }
+
+    /**
+     * Calcule les masques de 3 ressources parmi 5, par ordre croissant.
+     * @return Les 10 masques
+     */
+    private static int[] diffMasks(){
+        int[] masks = new int[10];
+        int n = 0;
+        for(int mask = 0; mask < 1 << Resources.NB_TYPES; mask++){
+            if(Integer.bitCount(mask) == 3){
+                masks[n++] = mask;
+            }
+        }
+        return masks;
+    }
+}
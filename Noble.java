@@ -0,0 +1,96 @@
+/**
+ * Tuile noble : un noble rend visite, à la fin de son tour, au premier joueur dont les bonus
+ * (cartes achetées) couvrent ses exigences, et lui rapporte ses points.
+ * Les nobles sont lus dans stats.csv (lignes de niveau 0, type NOBLE) par CardCatalog et partagés
+ * par toutes les parties : ils sont immuables. Leurs exigences sont compactées une fois pour toutes
+ * (voir PackedResources) : vérifier une visite ne coûte qu'une soustraction sur les 5 ressources.
+ */
+public final class Noble
+{
+    private final int id;
+    private final int points;
+    private final Resources requirement;
+    private final int packedRequirement;
+    private final String label;
+
+    /**
+     * Constructeur d'un noble du catalogue.
+     * @param id l'identifiant du noble dans le catalogue
+     * @param points les points de prestige du noble
+     * @param nbDIAMOND nombre de bonus diamant exigés
+     * @param nbSAPPHIRE nombre de bonus saphir exigés
+     * @param nbEMERALD nombre de bonus émeraude exigés
+     * @param nbRUBY nombre de bonus rubis exigés
+     * @param nbONYX nombre de bonus onyx exigés
+     */
+    Noble(int id, int points, int nbDIAMOND, int nbSAPPHIRE, int nbEMERALD, int nbRUBY, int nbONYX){
+        this.id = id;
+        this.points = points;
+        this.requirement = new Resources();
+        this.requirement.setNbResource(Resource.DIAMOND, nbDIAMOND);
+        this.requirement.setNbResource(Resource.SAPPHIRE, nbSAPPHIRE);
+        this.requirement.setNbResource(Resource.EMERALD, nbEMERALD);
+        this.requirement.setNbResource(Resource.RUBY, nbRUBY);
+        this.requirement.setNbResource(Resource.ONYX, nbONYX);
+        this.packedRequirement = PackedResources.pack(requirement);
+
+        StringBuilder sb = new StringBuilder("[").append(points).append("pts");
+        for(Resource r : Resource.values()){
+            if(requirement.getNbResource(r) > 0){
+                sb.append(' ').append(requirement.getNbResource(r)).append(r.toSymbol());
+            }
+        }
+        this.label = sb.append(']').toString();
+    }
+
+    /**
+     * Retourne l'identifiant du noble dans le catalogue.
+     * @return l'identifiant (0 à CardCatalog.getNbNobles()-1)
+     */
+    public int getId(){
+        return id;
+    }
+
+    /**
+     * Retourne les points de prestige du noble.
+     * @return le nombre de points
+     */
+    public int getPoints(){
+        return points;
+    }
+
+    /**
+     * Retourne le nombre de bonus d'une ressource exigés par le noble.
+     * @param r la ressource
+     * @return le nombre de cartes de cette ressource exigées
+     */
+    public int getRequirementOf(Resource r){
+        return requirement.getNbResource(r);
+    }
+
+    /**
+     * Retourne les exigences compactées du noble (voir PackedResources).
+     * @return les exigences compactées
+     */
+    public int getPackedRequirement(){
+        return packedRequirement;
+    }
+
+    /**
+     * Vérifie si des bonus couvrent les exigences du noble.
+     * @param packedBonuses les bonus compactés d'un joueur (voir Player.getPackedBonuses)
+     * @return true si le noble rend visite à ce joueur
+     */
+    public boolean isVisiting(int packedBonuses){
+        return PackedResources.covers(packedBonuses, packedRequirement);
+    }
+
+    /**
+     * Retourne la représentation du noble sur le plateau, par exemple [3pts 3♦D 3♠S 3●O].
+     * @return la représentation du noble
+     */
+    @Override
+    public String toString(){
+        return label;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Sortie qui ignore tout ce qu'on lui écrit.
+ * Utilisée pour les simulations sans affichage (parties entre robots, tournois).
+ */
+public final class NullOutput implements GameOutput
+{
+    /** Instance unique : la sortie n'a aucun état. */
+    public static final NullOutput INSTANCE = new NullOutput();
+
+    private NullOutput(){
+    }
+
+    @Override
+    public void print(String s){
+    }
+
+    @Override
+    public void println(String s){
+    }
+
+    @Override
+    public void println(){
+    }
+
+    @Override
+    public void clean(){
+    }
+
+    @Override
+    public boolean isActive(){
+        return false;
+    }
+}
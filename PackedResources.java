@@ -0,0 +1,149 @@
+/**
+ * Outils pour représenter des quantités de ressources sous forme compacte dans un int.
+ * Chaque ressource occupe un champ de 6 bits (LANE_BITS), à la position de son ordinal :
+ * 5 bits de valeur (0 à 31) et un bit de garde, ce qui permet de comparer les 5 ressources
+ * d'un coup avec quelques opérations arithmétiques, sans boucle ni objet.
+ */
+public final class PackedResources
+{
+    /** Nombre de bits par ressource. */
+    public static final int LANE_BITS = 6;
+
+    /** Plus grande valeur représentable dans un champ. */
+    public static final int LANE_MAX = 31;
+
+    /** Bit de garde (le plus haut bit) de chacun des 5 champs. */
+    private static final int GUARDS = guards();
+
+    /** Les champs des ressources d'indice pair (0, 2 et 4). */
+    private static final int EVEN_LANES = LANE_MAX | LANE_MAX << (2 * LANE_BITS) | LANE_MAX << (4 * LANE_BITS);
+
+    private PackedResources(){
+    }
+
+    /**
+     * Compacte des quantités de ressources. Les valeurs au-delà de LANE_MAX sont plafonnées.
+     * @param res Les quantités à compacter
+     * @return Les quantités compactées
+     */
+    public static int pack(Resources res){
+        int packed = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            packed = with(packed, i, res.getNbResource(Resources.resourceAt(i)));
+        }
+        return packed;
+    }
+
+    /**
+     * Retourne une copie des quantités compactées où le champ d'une ressource est remplacé.
+     * @param packed Les quantités compactées
+     * @param index L'indice (ordinal) de la ressource
+     * @param value La nouvelle quantité, plafonnée entre 0 et LANE_MAX
+     * @return Les quantités compactées modifiées
+     */
+    public static int with(int packed, int index, int value){
+        int v = Math.max(0, Math.min(LANE_MAX, value));
+        int shift = LANE_BITS * index;
+        return (packed & ~(0x3F << shift)) | (v << shift);
+    }
+
+    /**
+     * Retourne la quantité d'une ressource.
+     * @param packed Les quantités compactées
+     * @param index L'indice (ordinal) de la ressource
+     * @return La quantité de cette ressource
+     */
+    public static int get(int packed, int index){
+        return (packed >>> (LANE_BITS * index)) & LANE_MAX;
+    }
+
+    /**
+     * Vérifie que chaque quantité de have est supérieure ou égale à celle de need.
+     * Le bit de garde de chaque champ absorbe la retenue de la soustraction : il reste à 1
+     * exactement dans les champs où have >= need.
+     * @param have Les quantités disponibles, compactées
+     * @param need Les quantités demandées, compactées
+     * @return true si toutes les quantités demandées sont couvertes, false sinon
+     */
+    public static boolean covers(int have, int need){
+        return (((have | GUARDS) - need) & GUARDS) == GUARDS;
+    }
+
+    /**
+     * Retourne, pour chaque ressource, la quantité de need qui n'est pas couverte par have
+     * (need - have, ou 0 si have suffit), pour les 5 ressources d'un coup : le bit de garde
+     * de chaque champ de la soustraction indique si need >= have, et sert à effacer les autres champs.
+     * @param have Les quantités disponibles, compactées
+     * @param need Les quantités demandées, compactées
+     * @return Les quantités manquantes, compactées (0 si tout est couvert)
+     */
+    public static int missing(int have, int need){
+        int diff = (need | GUARDS) - have;
+        int ge = diff & GUARDS;
+        return diff & (ge - (ge >>> (LANE_BITS - 1)));
+    }
+
+    /**
+     * Retourne la somme des quantités des 5 ressources.
+     * Les champs sont additionnés deux à deux (0+1, 2+3, puis 4), sans boucle.
+     * @param packed Les quantités compactées
+     * @return La somme des quantités
+     */
+    public static int total(int packed){
+        int pairs = (packed & EVEN_LANES) + ((packed >>> LANE_BITS) & EVEN_LANES);
+        return (pairs + (pairs >>> (2 * LANE_BITS)) + (pairs >>> (4 * LANE_BITS))) & 0xFFF;
+    }
+
+    /**
+     * Calcule le paiement d'un coût avec des jetons de couleur, des bonus et des jetons or (jokers),
+     * sans boucle ni allocation. Les bonus réduisent d'abord le coût ; les jetons de couleur paient
+     * ensuite tout ce qu'ils peuvent, et l'or ne paie que ce qui manque encore. C'est le paiement qui
+     * garde les jetons les plus souples : un jeton or remplace n'importe quelle couleur, alors qu'un
+     * jeton de couleur ne sert qu'à sa couleur ; dépenser un or à la place d'un jeton de couleur
+     * disponible ne peut donc jamais laisser le joueur mieux placé.
+     * @param tokens Les jetons de couleur du joueur, compactés
+     * @param bonuses Les bonus du joueur, compactés
+     * @param cost Le coût, compacté
+     * @param gold Le nombre de jetons or du joueur
+     * @return Le paiement (voir paidTokens et paidGold), ou -1 si le joueur ne peut pas payer
+     */
+    public static long payment(int tokens, int bonuses, int cost, int gold){
+        int need = missing(bonuses, cost);
+        int shortfall = missing(tokens, need);
+        int goldNeeded = total(shortfall);
+        if(goldNeeded > gold){
+            return -1;
+        }
+        return (long) goldNeeded << 32 | (need - shortfall);
+    }
+
+    /**
+     * Retourne les jetons de couleur d'un paiement (voir payment).
+     * @param payment Le paiement
+     * @return Les jetons de couleur à payer, compactés
+     */
+    public static int paidTokens(long payment){
+        return (int) payment;
+    }
+
+    /**
+     * Retourne le nombre de jetons or d'un paiement (voir payment).
+     * @param payment Le paiement
+     * @return Le nombre de jetons or à payer
+     */
+    public static int paidGold(long payment){
+        return (int) (payment >>> 32);
+    }
+
+    /**
+     * Calcule le masque des bits de garde des 5 champs.
+     * @return Le masque des bits de garde
+     */
+    private static int guards(){
+        int g = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            g |= (LANE_MAX + 1) << (LANE_BITS * i);
+        }
+        return g;
+    }
+}
@@ -15,7 +15,16 @@ public class PassAction implements Action {
     @Override
     public void process(Player player, Board board) {
         // Ne fait rien : le joueur passe son tour
-        Game.display.out.println(player.getName() + " passe son tour.");
+        board.getOutput().println(player.getName() + " passe son tour.");
+    }
+
+    /**
+     * Passer son tour ne change rien : il n'y a rien à annuler.
+     * @param player Le joueur qui a passé
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
     }
 
     /**
@@ -0,0 +1,211 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Outil de comptage des positions (perft) pour valider et mesurer MoveGenerator et GameState.
+ * perft(n) compte les suites de n coups légaux depuis la position de départ d'une partie :
+ * une différence de compte entre deux versions du code signale un bug de génération ou d'annulation.
+ * La validation (--check) joue aussi des parties aléatoires en parallèle sur Board/Player et sur
+ * GameState, et vérifie à chaque position que les deux générateurs donnent les mêmes coups
+ * et que les hash de Zobrist tenus à jour des deux côtés sont égaux.
+ * Avec --hash, les comptes des sous-arbres sont retenus dans une TranspositionTable : le résultat
+ * doit être le même que sans table, ce qui valide le hash incrémental de GameState.
+ *
+ * Utilisation : java Perft profondeur [nbJoueurs] [graine] [--divide] [--check] [--hash]
+ */
+public class Perft {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Utilisation : java Perft profondeur [nbJoueurs] [graine] [--divide] [--check] [--hash]");
+            return;
+        }
+        List<String> options = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                options.add(arg);
+            } else {
+                values.add(arg);
+            }
+        }
+        int depth = Integer.parseInt(values.get(0));
+        int nbPlayers = values.size() > 1 ? Integer.parseInt(values.get(1)) : 2;
+        long seed = values.size() > 2 ? Long.parseLong(values.get(2)) : 0;
+
+        if (options.contains("--check")) {
+            int positions = validate(200, nbPlayers, seed);
+            System.out.println("Validation : " + positions + " positions, générateurs identiques.");
+        }
+
+        GameState state = GameState.from(newGame(nbPlayers, seed));
+        MoveBuffer[] buffers = newBuffers(depth);
+
+        long start = System.nanoTime();
+        long nodes;
+        if (options.contains("--divide")) {
+            nodes = divide(state, depth, buffers);
+        } else if (options.contains("--hash")) {
+            nodes = perft(state, depth, buffers, new TranspositionTable(64));
+        } else {
+            nodes = perft(state, depth, buffers);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("perft(%d) = %d en %.3f s : %.0f positions/s%n", depth, nodes, seconds, nodes / seconds);
+    }
+
+    /**
+     * Compte les suites de coups légaux d'une longueur donnée, en jouant et annulant les coups
+     * sur un seul état. Une partie terminée compte pour une feuille.
+     * @param state L'état de départ (inchangé au retour)
+     * @param depth La profondeur
+     * @param buffers Un tampon de coups par niveau de profondeur
+     * @return Le nombre de feuilles
+     */
+    public static long perft(GameState state, int depth, MoveBuffer[] buffers) {
+        if (depth == 0) return 1;
+        MoveBuffer moves = buffers[depth - 1];
+        int n = MoveGenerator.generate(state, moves);
+        if (n == 0) return 1;
+        if (depth == 1) return n;
+
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            state.apply(moves.get(i));
+            nodes += perft(state, depth - 1, buffers);
+            state.undo();
+        }
+        return nodes;
+    }
+
+    /**
+     * Comme perft, mais retient le nombre de feuilles de chaque sous-arbre dans une table de
+     * transposition : une position atteinte par plusieurs suites de coups n'est comptée qu'une fois.
+     * @param state L'état de départ (inchangé au retour)
+     * @param depth La profondeur
+     * @param buffers Un tampon de coups par niveau de profondeur
+     * @param table La table de transposition
+     * @return Le nombre de feuilles
+     */
+    public static long perft(GameState state, int depth, MoveBuffer[] buffers, TranspositionTable table) {
+        if (depth <= 1) return perft(state, depth, buffers);
+        long data = table.probe(state.getHash());
+        if (data != 0 && TranspositionTable.depth(data) == depth) {
+            return TranspositionTable.value(data) & 0xFFFFFFFFL;
+        }
+        MoveBuffer moves = buffers[depth - 1];
+        int n = MoveGenerator.generate(state, moves);
+        if (n == 0) return 1;
+
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            state.apply(moves.get(i));
+            nodes += perft(state, depth - 1, buffers, table);
+            state.undo();
+        }
+        if (nodes <= 0xFFFFFFFFL) {
+            table.store(state.getHash(), (int) nodes, 0, depth, TranspositionTable.EXACT);
+        }
+        return nodes;
+    }
+
+    /**
+     * Comme perft, mais affiche le nombre de feuilles sous chaque coup de la racine.
+     * @param state L'état de départ
+     * @param depth La profondeur
+     * @param buffers Un tampon de coups par niveau de profondeur
+     * @return Le nombre total de feuilles
+     */
+    private static long divide(GameState state, int depth, MoveBuffer[] buffers) {
+        MoveBuffer root = new MoveBuffer();
+        int n = MoveGenerator.generate(state, root);
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            state.apply(root.get(i));
+            long nodes = perft(state, depth - 1, buffers);
+            state.undo();
+            System.out.println(Move.toString(root.get(i)) + " : " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+
+    /**
+     * Joue des parties aléatoires à la fois sur Board/Player et sur GameState, en comparant à chaque
+     * position les coups des deux générateurs puis les états obtenus.
+     * @param nbGames Le nombre de parties
+     * @param nbPlayers Le nombre de joueurs
+     * @param seed La graine
+     * @return Le nombre de positions vérifiées
+     * @throws IllegalStateException à la première différence trouvée
+     */
+    public static int validate(int nbGames, int nbPlayers, long seed) throws IllegalStateException {
+        SplittableRandom random = new SplittableRandom(seed);
+        MoveBuffer fromState = new MoveBuffer();
+        MoveBuffer fromBoard = new MoveBuffer();
+        int positions = 0;
+
+        for (int g = 0; g < nbGames; g++) {
+            Game game = newGame(nbPlayers, random.nextLong());
+            Board board = game.getBoard();
+            List<Player> players = game.getPlayers();
+            GameState state = GameState.from(game);
+            int current = 0;
+            int turn = 0;
+
+            while (!state.isGameOver() && turn < 500) {
+                Player player = players.get(current);
+                int n = MoveGenerator.generate(state, fromState);
+                MoveGenerator.generate(board, player, fromBoard);
+                if (!fromState.toString().equals(fromBoard.toString())) {
+                    throw new IllegalStateException("Coups différents au tour " + turn + " :\n"
+                        + fromState + "\n" + fromBoard + "\n" + state);
+                }
+                int move = fromState.get(random.nextInt(n));
+                Move.toAction(move).process(player, board);
+                state.apply(move);
+                if (player.getNbTokens() <= 10) {
+                    board.visitNoble(player);
+                    current = (current + 1) % nbPlayers;
+                    turn++;
+                }
+                if (!state.equals(GameState.from(board, players, current, turn))) {
+                    throw new IllegalStateException("États différents après " + Move.toString(move) + " :\n" + state);
+                }
+                if (state.getHash() != Zobrist.hash(board, players, current)) {
+                    throw new IllegalStateException("Hash différents après " + Move.toString(move) + " :\n" + state);
+                }
+                positions++;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Crée une partie entre robots.
+     * @param nbPlayers Le nombre de joueurs
+     * @param seed La graine de la partie
+     * @return La partie, non commencée
+     */
+    private static Game newGame(int nbPlayers, long seed) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < nbPlayers; i++) {
+            players.add(new DumbRobotPlayer());
+        }
+        return new Game(players, seed);
+    }
+
+    /**
+     * Alloue un tampon de coups par niveau de profondeur.
+     * @param depth La profondeur
+     * @return Les tampons
+     */
+    private static MoveBuffer[] newBuffers(int depth) {
+        MoveBuffer[] buffers = new MoveBuffer[Math.max(1, depth)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveBuffer();
+        }
+        return buffers;
+    }
+}
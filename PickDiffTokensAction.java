@@ -7,6 +7,7 @@
 public class PickDiffTokensAction implements Action {
 
     private Resources pickedResources;
+    private int taken; // jetons pris par le dernier process (voir PackedResources)
 
     /**
      * Constructeur de l'action de prendre 3 jetons différents.
@@ -23,20 +24,49 @@ public class PickDiffTokensAction implements Action {
      */
     @Override
     public void process(Player player, Board board) {
+        taken = 0;
         if (!board.canGiveDiffTokens(pickedResources)) {
-            Game.display.out.println("✗ Impossible : jetons insuffisants sur le board.");
+            board.getOutput().println("✗ Impossible : jetons insuffisants sur le board.");
             return;
         }
 
-        for (Resource r : pickedResources.getAvailableResources()) {
+        for (int mask = pickedResources.getAvailableMask(); mask != 0; mask &= mask - 1) {
+            Resource r = Resources.resourceAt(Integer.numberOfTrailingZeros(mask));
             int n = pickedResources.getNbResource(r);
             for(int i=0; i<n; i++){
                 board.updateNbResource(r, -1);
                 player.updateNbResource(r, 1);
             }
+            taken = PackedResources.with(taken, r.ordinal(), n);
         }
         
-        Game.display.out.println(player.getName() + " prend 3 jetons différents.");
+        board.getOutput().println(player.getName() + " prend 3 jetons différents.");
+    }
+
+    /**
+     * Rend au plateau les jetons pris par le dernier process.
+     * @param player Le joueur qui a pris les jetons
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        for (int i = 0; i < Resources.NB_TYPES; i++) {
+            int n = PackedResources.get(taken, i);
+            if (n > 0) {
+                Resource r = Resources.resourceAt(i);
+                player.updateNbResource(r, -n);
+                board.updateNbResource(r, n);
+            }
+        }
+        taken = 0;
+    }
+
+    /**
+     * Retourne une copie des ressources sélectionnées.
+     * @return Les ressources prises par l'action
+     */
+    public Resources getPickedResources() {
+        return new Resources(pickedResources);
     }
 
     @Override
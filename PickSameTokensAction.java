@@ -7,6 +7,7 @@
 public class PickSameTokensAction implements Action {
 
     private Resource resource;
+    private boolean applied; // vrai si le dernier process a pris les jetons
 
     /**
      * Constructeur de l'action de prendre 2 jetons identiques.
@@ -23,15 +24,38 @@ public class PickSameTokensAction implements Action {
      */
     @Override
     public void process(Player player, Board board) {
+        applied = false;
         if (!board.canGiveSameTokens(resource)) {
-            Game.display.out.println("✗ Impossible : il faut au moins 4 jetons de ce type sur le board.");
+            board.getOutput().println("✗ Impossible : il faut au moins 4 jetons de ce type sur le board.");
             return;
         }
 
         board.updateNbResource(resource, -2);
         player.updateNbResource(resource, 2);
+        applied = true;
         
-        Game.display.out.println(player.getName() + " prend 2 jetons de " + resource.toString());
+        board.getOutput().println(player.getName() + " prend 2 jetons de " + resource.toString());
+    }
+
+    /**
+     * Rend au plateau les 2 jetons pris par le dernier process.
+     * @param player Le joueur qui a pris les jetons
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        if (!applied) return;
+        player.updateNbResource(resource, -2);
+        board.updateNbResource(resource, 2);
+        applied = false;
+    }
+
+    /**
+     * Retourne le type de ressource choisi.
+     * @return La ressource dont on prend 2 jetons
+     */
+    public Resource getResource() {
+        return resource;
     }
 
     @Override
@@ -1,16 +1,21 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Auteur : Hachem Mohammed Kouhel
  * Classe abstraite représentant un joueur dans le jeu Splendor.
- * Un joueur dispose de ressources, de cartes achetées et accumule des points.
+ * Un joueur dispose de ressources, de jetons or, de cartes achetées et réservées, et accumule des points.
  * Cette classe fournit les fonctionnalités communes à tous les types de joueurs.
  */
 public abstract class Player implements Displayable {
 
-    protected static int NEXT_ID = 0;
+    /** Nombre maximal de cartes réservées en même temps. */
+    public static final int MAX_RESERVED = 3;
 
     protected int id;
     protected String name;
@@ -18,21 +23,54 @@ public abstract class Player implements Displayable {
 
     protected Resources resources;
     protected ArrayList<DevCard> purchasedCards;
+    protected ArrayList<Noble> nobles;
+    protected ArrayList<DevCard> reservedCards;
+    protected int gold;
+    protected Resources bonuses;
+    protected SplittableRandom random;
+    protected Game game;
+    protected long hash;
+    protected long thinkingBudgetMillis; // temps de réflexion par coup (0 : sans limite)
+    private String[] rendered;    // dernier affichage du joueur
+    private long renderedHash;    // hash du joueur lors de ce dernier affichage
 
     /**
      * Constructeur du joueur.
      * @param name Le nom du joueur
      */
     protected Player(String name){
-        this.id = NEXT_ID++;
+        this.id = 0;
         this.name = name;
         this.points = 0;
         this.resources = new Resources();
         this.purchasedCards = new ArrayList<>();
+        this.nobles = new ArrayList<>();
+        this.reservedCards = new ArrayList<>();
+        this.bonuses = new Resources();
+        this.random = new SplittableRandom();
+        this.hash = computeHash();
     }
 
     /* ---------- GETTERS ---------- */
 
+    /**
+     * Retourne la place du joueur autour de la table (0 pour le premier joueur).
+     * @return L'identifiant du joueur dans sa partie
+     */
+    public int getId(){
+        return id;
+    }
+
+    /**
+     * Définit la place du joueur autour de la table. Appelé par Game : chaque partie
+     * numérote ses propres joueurs, ce qui permet de jouer plusieurs parties en parallèle.
+     * @param id L'identifiant du joueur dans sa partie
+     */
+    void setId(int id){
+        this.id = id;
+        this.hash = computeHash();
+    }
+
     /**
      * Retourne le nom du joueur.
      * @return Le nom du joueur
@@ -75,43 +113,207 @@ public abstract class Player implements Displayable {
     }
 
     /**
-     * Retourne le nombre total de jetons que possède le joueur.
+     * Retourne le nombre total de jetons que possède le joueur, jetons or compris.
      * @return Le nombre total de jetons
      */
     public int getNbTokens(){
-        int total = 0;
-        for(Resource r : Resource.values()){
-            total += resources.getNbResource(r);
-        }
-        return total;
+        return resources.getTotal() + gold;
+    }
+
+    /**
+     * Retourne le nombre de jetons or (jokers) du joueur.
+     * @return Le nombre de jetons or
+     */
+    public int getGold(){
+        return gold;
+    }
+
+    /**
+     * Définit le générateur aléatoire du joueur. Appelé par Game avec un flux issu de la graine
+     * de la partie, pour que les choix aléatoires des robots soient reproductibles.
+     * @param random Le générateur aléatoire du joueur
+     */
+    void setRandom(SplittableRandom random){
+        this.random = random;
+    }
+
+    /**
+     * Indique au joueur la partie à laquelle il participe. Appelé par Game : les robots qui
+     * anticipent s'en servent pour lire toute la position (plateau et adversaires).
+     * @param game La partie du joueur
+     */
+    void setGame(Game game){
+        this.game = game;
     }
 
     /* ---------- CARTES ---------- */
 
     /**
      * Retourne le bonus de ressources obtenu grâce aux cartes achetées.
+     * Les bonus sont tenus à jour à chaque achat : la lecture ne parcourt pas les cartes.
      * @param r La ressource recherchée
      * @return Le nombre de bonus pour cette ressource
      */
     public int getResFromCards(Resource r){
-        int bonus = 0;
-        for(DevCard card : purchasedCards){
-            if(card.getResourceType() == r){
-                bonus++;
-            }
-        }
-        return bonus;
+        return bonuses.getNbResource(r);
     }
 
     /**
-     * Ajoute une carte achetée à la collection du joueur.
+     * Ajoute une carte achetée à la collection du joueur et met à jour ses bonus.
      * @param card La carte à ajouter
      */
     public void addPurchasedCard(DevCard card){
         purchasedCards.add(card);
+        int type = card.getResourceType().ordinal();
+        int bonus = bonuses.getNbResource(card.getResourceType());
+        hash ^= Zobrist.playerPoints(id, points) ^ Zobrist.playerPoints(id, points + card.getPoints());
+        hash ^= Zobrist.playerBonus(id, type, bonus) ^ Zobrist.playerBonus(id, type, bonus + 1);
         points += card.getPoints();
+        bonuses.updateNbResource(card.getResourceType(), 1);
+    }
+
+
+    /**
+     * Retire une carte achetée (annulation d'un achat) et met à jour les points et les bonus.
+     * La carte est cherchée depuis la fin : c'est en général la dernière achetée.
+     * @param card La carte à retirer
+     */
+    void removePurchasedCard(DevCard card){
+        int index = purchasedCards.lastIndexOf(card);
+        if(index < 0) return;
+        purchasedCards.remove(index);
+        int type = card.getResourceType().ordinal();
+        int bonus = bonuses.getNbResource(card.getResourceType());
+        hash ^= Zobrist.playerPoints(id, points) ^ Zobrist.playerPoints(id, points - card.getPoints());
+        hash ^= Zobrist.playerBonus(id, type, bonus) ^ Zobrist.playerBonus(id, type, bonus - 1);
+        points -= card.getPoints();
+        bonuses.updateNbResource(card.getResourceType(), -1);
+    }
+
+    /**
+     * Retourne le nombre de cartes réservées par le joueur.
+     * @return Le nombre de cartes réservées (au plus MAX_RESERVED)
+     */
+    public int getNbReservedCards(){
+        return reservedCards.size();
+    }
+
+    /**
+     * Retourne une carte réservée.
+     * @param index L'indice de la carte parmi les cartes réservées (dans l'ordre de réservation)
+     * @return La carte réservée
+     */
+    public DevCard getReservedCard(int index){
+        return reservedCards.get(index);
+    }
+
+    /**
+     * Ajoute une carte à la fin des cartes réservées (voir ReserveCardAction).
+     * @param card La carte réservée
+     */
+    void addReservedCard(DevCard card){
+        insertReservedCard(reservedCards.size(), card);
+    }
+
+    /**
+     * Insère une carte parmi les cartes réservées (ajout ou annulation d'un achat de carte réservée).
+     * @param index L'indice de la carte parmi les cartes réservées
+     * @param card La carte réservée
+     */
+    void insertReservedCard(int index, DevCard card){
+        reservedCards.add(index, card);
+        hash ^= Zobrist.reserved(id, card.getId());
+    }
+
+    /**
+     * Retire une carte réservée (achat ou annulation d'une réservation).
+     * @param index L'indice de la carte parmi les cartes réservées
+     * @return La carte retirée
+     */
+    DevCard removeReservedCard(int index){
+        DevCard card = reservedCards.remove(index);
+        hash ^= Zobrist.reserved(id, card.getId());
+        return card;
+    }
+
+    /**
+     * Remplace les cartes achetées et les points du joueur (utilisé par GameState pour
+     * restaurer une position). Les bonus sont recalculés à partir des cartes.
+     * @param cards Les cartes achetées
+     * @param points Les points du joueur
+     */
+    void restoreCards(List<DevCard> cards, int points){
+        purchasedCards.clear();
+        bonuses = new Resources();
+        for(DevCard card : cards){
+            purchasedCards.add(card);
+            bonuses.updateNbResource(card.getResourceType(), 1);
+        }
+        this.points = points;
+        this.hash = computeHash();
+    }
+
+
+    /* ---------- NOBLES ---------- */
+
+    /**
+     * Retourne le nombre de nobles qui ont rendu visite au joueur.
+     * @return Le nombre de nobles
+     */
+    public int getNbNobles(){
+        return nobles.size();
+    }
+
+    /**
+     * Retourne les bonus compactés du joueur (voir PackedResources), comparés aux exigences des nobles.
+     * @return Les bonus compactés
+     */
+    public int getPackedBonuses(){
+        return PackedResources.pack(bonuses);
+    }
+
+    /**
+     * Ajoute un noble qui rend visite au joueur, et ses points (voir Board.visitNoble).
+     * @param noble Le noble
+     */
+    void addNoble(Noble noble){
+        nobles.add(noble);
+        hash ^= Zobrist.playerPoints(id, points) ^ Zobrist.playerPoints(id, points + noble.getPoints());
+        points += noble.getPoints();
+    }
+
+    /**
+     * Retire un noble (annulation de sa visite) et ses points.
+     * @param noble Le noble
+     */
+    void removeNoble(Noble noble){
+        if(!nobles.remove(noble)) return;
+        hash ^= Zobrist.playerPoints(id, points) ^ Zobrist.playerPoints(id, points - noble.getPoints());
+        points -= noble.getPoints();
+    }
+
+    /**
+     * Remplace les cartes réservées et les jetons or du joueur (utilisé par GameState pour
+     * restaurer une position).
+     * @param cards Les cartes réservées, dans l'ordre de réservation
+     * @param gold Le nombre de jetons or
+     */
+    void restoreReserved(List<DevCard> cards, int gold){
+        reservedCards.clear();
+        reservedCards.addAll(cards);
+        this.gold = gold;
+        this.hash = computeHash();
     }
 
+    /**
+     * Remplace les nobles du joueur (utilisé par GameState pour restaurer une position).
+     * Les points ne changent pas : ils sont restaurés avec les cartes (voir restoreCards).
+     * @param list Les nobles du joueur
+     */
+    void restoreNobles(List<Noble> list){
+        nobles.clear();
+        nobles.addAll(list);
+    }
 
     /* ---------- RESSOURCES ---------- */
 
@@ -121,34 +323,212 @@ public abstract class Player implements Displayable {
      * @param v Le nombre de jetons à ajouter (positif) ou retirer (négatif)
      */
     public void updateNbResource(Resource r, int v){
+        int old = resources.getNbResource(r);
         resources.updateNbResource(r, v);
+        hash ^= Zobrist.playerTokens(id, r.ordinal(), old)
+              ^ Zobrist.playerTokens(id, r.ordinal(), resources.getNbResource(r));
     }
 
     /**
-     * Vérifie si le joueur peut acheter une carte donnée avec ses ressources actuelles.
+     * Modifie le nombre de jetons or du joueur.
+     * @param v Le nombre de jetons or à ajouter (positif) ou retirer (négatif)
+     */
+    public void updateGold(int v){
+        hash ^= Zobrist.playerGold(id, gold) ^ Zobrist.playerGold(id, gold + v);
+        gold += v;
+    }
+
+    /**
+     * Retourne les jetons de couleur compactés du joueur (voir PackedResources).
+     * @return Les jetons compactés
+     */
+    public int getPackedTokens(){
+        return PackedResources.pack(resources);
+    }
+
+    /**
+     * Paie une carte (voir PackedResources.payment) : les bonus réduisent le coût, les jetons
+     * de couleur paient ce qu'ils peuvent et les jetons or le reste. Les jetons vont au plateau.
+     * @param card La carte à payer
+     * @param board Le plateau qui reçoit les jetons
+     * @return Le paiement effectué (pour refund), ou -1 si le joueur ne peut pas payer (rien ne change)
+     */
+    long payFor(DevCard card, Board board){
+        long payment = PackedResources.payment(getPackedTokens(), getPackedBonuses(), card.getPackedCost(), gold);
+        if(payment < 0){
+            return -1;
+        }
+        int paid = PackedResources.paidTokens(payment);
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            int pay = PackedResources.get(paid, i);
+            if(pay > 0){
+                Resource r = Resources.resourceAt(i);
+                updateNbResource(r, -pay);
+                board.updateNbResource(r, pay);
+            }
+        }
+        int paidGold = PackedResources.paidGold(payment);
+        if(paidGold > 0){
+            updateGold(-paidGold);
+            board.updateGold(paidGold);
+        }
+        return payment;
+    }
+
+    /**
+     * Rend au joueur un paiement fait par payFor (annulation d'un achat).
+     * @param payment Le paiement
+     * @param board Le plateau qui avait reçu les jetons
+     */
+    void refund(long payment, Board board){
+        int paid = PackedResources.paidTokens(payment);
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            int pay = PackedResources.get(paid, i);
+            if(pay > 0){
+                Resource r = Resources.resourceAt(i);
+                board.updateNbResource(r, -pay);
+                updateNbResource(r, pay);
+            }
+        }
+        int paidGold = PackedResources.paidGold(payment);
+        if(paidGold > 0){
+            board.updateGold(-paidGold);
+            updateGold(paidGold);
+        }
+    }
+
+    /* ---------- HASH ---------- */
+
+    /**
+     * Retourne le hash de Zobrist du joueur (jetons, bonus, points et cartes réservées, selon sa place),
+     * tenu à jour à chaque modification. Voir Zobrist.hash pour le hash de la position complète.
+     * @return Le hash du joueur
+     */
+    public long getHash(){
+        return hash;
+    }
+
+    /**
+     * Calcule entièrement le hash du joueur.
+     * @return Le hash du joueur
+     */
+    private long computeHash(){
+        long h = Zobrist.playerPoints(id, points);
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            Resource r = Resources.resourceAt(i);
+            h ^= Zobrist.playerTokens(id, i, resources.getNbResource(r));
+            h ^= Zobrist.playerBonus(id, i, bonuses.getNbResource(r));
+        }
+        h ^= Zobrist.playerGold(id, gold);
+        for(DevCard card : reservedCards){
+            h ^= Zobrist.reserved(id, card.getId());
+        }
+        return h;
+    }
+
+    /**
+     * Retourne le pouvoir d'achat compacté du joueur : jetons + bonus, pour chaque ressource.
+     * @return Le pouvoir d'achat compacté (voir PackedResources)
+     */
+    public int getPackedPower(){
+        int power = 0;
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            Resource r = Resources.resourceAt(i);
+            power = PackedResources.with(power, i, resources.getNbResource(r) + bonuses.getNbResource(r));
+        }
+        return power;
+    }
+
+    /**
+     * Vérifie si le joueur peut acheter une carte donnée avec ses ressources actuelles :
+     * ce que ses jetons et ses bonus ne couvrent pas doit tenir dans ses jetons or.
      * @param card La carte à vérifier
      * @return true si le joueur peut acheter la carte, false sinon
      */
     public boolean canBuyCard(DevCard card){
-        for(Resource r : Resource.values()){
-            int cost = card.getCost().getNbResource(r);
-            int bonus = getResFromCards(r);
-            int needed = cost - bonus;
-            if(needed > 0 && getNbResource(r) < needed){
-                return false;
-            }
-        }
-        return true;
+        return PackedResources.total(PackedResources.missing(getPackedPower(), card.getPackedCost())) <= gold;
     }
 
     /* ---------- AFFICHAGE ---------- */
 
     /**
      * Retourne une représentation textuelle du joueur pour l'affichage.
+     * L'affichage n'est reconstruit que si le joueur a changé depuis le dernier appel (son hash).
      * @return Un tableau de chaînes représentant l'état du joueur
      */
     @Override
     public String[] toStringArray(){
+        if(rendered == null || renderedHash != hash){
+            rendered = playerToStringArray();
+            renderedHash = hash;
+        }
+        return rendered.clone();
+    }
+
+    /**
+     * Dessine le joueur dans une image (voir playerToStringArray), sur 8 lignes.
+     * Chaque ligne est complétée par des espaces jusqu'au bord droit de l'image.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     */
+    @Override
+    public void draw(FrameBuffer fb, int row, int col){
+        draw(fb, row, col, false);
+    }
+
+    /**
+     * Dessine le joueur dans une image, sur 8 lignes, marqué d'une flèche si c'est son tour.
+     * @param fb L'image où dessiner
+     * @param row La ligne du coin haut gauche
+     * @param col La colonne du coin haut gauche
+     * @param current Vrai si c'est au tour de ce joueur
+     */
+    public void draw(FrameBuffer fb, int row, int col, boolean current){
+        int end = fb.getCols();
+        int c = col;
+        if(current){
+            c = fb.write(row, c, "\u27A4 ");
+        }
+        c = fb.write(row, c, "Player ");
+        c = fb.writeNumber(row, c, id + 1, 1);
+        c = fb.write(row, c, ": ");
+        fb.fill(row, fb.write(row, c, name), end, ' ');
+
+        c = fb.put(row + 1, col, points > 0 ? points + 9311 : 0x24EA);
+        c = fb.write(row + 1, c, "pts");
+        if(gold > 0){
+            c = fb.write(row + 1, c, "  " + Resources.GOLD_SYMBOL + " (");
+            c = fb.put(row + 1, fb.writeNumber(row + 1, c, gold, 1), ')');
+        }
+        fb.fill(row + 1, c, end, ' ');
+        c = col;
+        if(!nobles.isEmpty()){
+            c = fb.writeNumber(row + 2, fb.write(row + 2, c, "nobles: "), nobles.size(), 1);
+        }
+        if(!reservedCards.isEmpty()){
+            c = fb.write(row + 2, c, nobles.isEmpty() ? "réservées: " : "  réservées: ");
+            c = fb.writeNumber(row + 2, c, reservedCards.size(), 1);
+        }
+        fb.fill(row + 2, c, end, ' ');
+
+        for(int i = 0; i < Resources.NB_TYPES; i++){
+            Resource res = Resources.resourceAt(i);
+            int r = row + 3 + (Resources.NB_TYPES - 1 - i);
+            c = fb.write(r, col, res.toSymbol());
+            c = fb.write(r, c, " (");
+            c = fb.writeNumber(r, c, resources.getNbResource(res), 1);
+            c = fb.write(r, c, ") [");
+            c = fb.writeNumber(r, c, getResFromCards(res), 1);
+            fb.fill(r, fb.put(r, c, ']'), end, ' ');
+        }
+    }
+
+    /**
+     * Construit la représentation textuelle du joueur.
+     * @return Un tableau de chaînes représentant l'état du joueur
+     */
+    private String[] playerToStringArray(){
         String pointStr;
         String[] strPlayer = new String[8];
 
@@ -159,8 +539,11 @@ public abstract class Player implements Displayable {
         }
 
         strPlayer[0] = "Player " + (id + 1) + ": " + name;
-        strPlayer[1] = pointStr + "pts";
-        strPlayer[2] = "";
+        strPlayer[1] = pointStr + "pts" + (gold > 0 ? "  " + Resources.GOLD_SYMBOL + " (" + gold + ")" : "");
+        strPlayer[2] = nobles.isEmpty() ? "" : "nobles: " + nobles.size();
+        if(!reservedCards.isEmpty()){
+            strPlayer[2] += (nobles.isEmpty() ? "" : "  ") + "réservées: " + reservedCards.size();
+        }
 
         for(Resource res : Resource.values()){
             strPlayer[3 + (Resource.values().length - 1 - res.ordinal())] =
@@ -170,6 +553,140 @@ public abstract class Player implements Displayable {
         return strPlayer;
     }
 
+    /* ---------- DÉCISION ---------- */
+
+    /** Threads où les joueurs asynchrones prennent leurs décisions (voir chooseActionAsync). */
+    private static final ExecutorService DECISIONS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "decision");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Retourne les threads où les joueurs asynchrones prennent leurs décisions.
+     * @return Le pool de threads partagé (threads démons)
+     */
+    protected static ExecutorService decisionExecutor(){
+        return DECISIONS;
+    }
+
+    /**
+     * Choisit une action sans bloquer le thread de la partie. Game attend la réponse au plus
+     * getThinkingBudget ms, puis joue fallbackAction et annule la future (complete ou cancel) :
+     * une décision en cours doit alors s'arrêter dès qu'elle voit que la future est terminée.
+     * Par défaut, le choix d'une DeferredAction (DeferredAction.decide) est fait dans un thread
+     * de décision, et la future se termine avec l'action concrète : le temps de réflexion s'applique
+     * donc à tous les joueurs. decide reçoit une copie du plateau et des joueurs prise maintenant
+     * (voir GameState.copyTo), dont le joueur a son propre générateur : une décision abandonnée
+     * finit dans son thread sans rien lire ni modifier de la partie, qui a continué. decide ne doit
+     * donc utiliser que ses paramètres.
+     * Sans temps de réflexion (ou hors d'une partie), retourne chooseAction déjà terminée.
+     * @return L'action choisie, à terme
+     */
+    public CompletableFuture<Action> chooseActionAsync(){
+        Action action = chooseAction();
+        if(thinkingBudgetMillis == 0 || game == null || !(action instanceof DeferredAction)){
+            return CompletableFuture.completedFuture(action);
+        }
+        DeferredAction deferred = (DeferredAction) action;
+        List<Player> copies = new ArrayList<>();
+        for(Player player : game.getPlayers()){
+            Player copy = new SnapshotPlayer(player.getName());
+            copy.setId(player.getId());
+            copies.add(copy);
+        }
+        // Les tirages du plateau copié sont remplacés par copyTo : sa graine est sans importance.
+        Board board = new Board(copies.size(), NullOutput.INSTANCE, new SplittableRandom(0));
+        GameState.from(game).copyTo(board, copies);
+        Player self = copies.get(id);
+        self.setRandom(random.split());
+        CompletableFuture<Action> result = new CompletableFuture<>();
+        DECISIONS.execute(() -> {
+            try {
+                result.complete(deferred.decide(self, board));
+            } catch(RuntimeException e){
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Joueur d'une copie de la partie, sur laquelle une décision est prise (voir chooseActionAsync) :
+     * il ne joue jamais lui-même.
+     */
+    private static final class SnapshotPlayer extends Player {
+        SnapshotPlayer(String name){
+            super(name);
+        }
+
+        @Override
+        public Action chooseAction(){
+            throw new IllegalStateException("Copie de " + getName() + " : seul le vrai joueur choisit ses actions.");
+        }
+
+        @Override
+        public List<Resource> chooseDiscardingTokens(){
+            throw new IllegalStateException("Copie de " + getName() + " : seul le vrai joueur choisit ses défausses.");
+        }
+    }
+
+    /**
+     * Retourne l'action jouée quand le joueur n'a pas choisi dans son temps de réflexion :
+     * le premier coup légal (voir MoveGenerator), c'est-à-dire un achat s'il y en a un,
+     * sinon une prise de jetons, sinon passer.
+     * @param board Le plateau de jeu
+     * @return L'action de repli
+     */
+    public Action fallbackAction(Board board){
+        MoveBuffer moves = new MoveBuffer();
+        MoveGenerator.generate(board, this, moves);
+        return Move.toAction(moves.get(0));
+    }
+
+    /**
+     * Retourne la défausse jouée quand le joueur n'a pas choisi à temps (ou ne peut pas choisir) :
+     * un jeton à la fois de la ressource dont il reste le plus.
+     * @param tokens Les jetons du joueur (non modifiés)
+     * @param excess Le nombre de jetons à défausser
+     * @return Les ressources défaussées
+     */
+    protected static List<Resource> fallbackDiscard(Resources tokens, int excess){
+        Resources left = new Resources(tokens);
+        List<Resource> discard = new ArrayList<>();
+        for(int k = 0; k < excess; k++){
+            Resource most = Resources.resourceAt(0);
+            for(int i = 1; i < Resources.NB_TYPES; i++){
+                if(left.getNbResource(Resources.resourceAt(i)) > left.getNbResource(most)){
+                    most = Resources.resourceAt(i);
+                }
+            }
+            left.updateNbResource(most, -1);
+            discard.add(most);
+        }
+        return discard;
+    }
+
+    /**
+     * Définit le temps de réflexion du joueur pour chaque coup (voir chooseActionAsync).
+     * @param millis Le temps de réflexion en millisecondes (0 : sans limite)
+     * @throws IllegalArgumentException si le temps est négatif
+     */
+    public void setThinkingBudget(long millis) throws IllegalArgumentException {
+        if(millis < 0){
+            throw new IllegalArgumentException("Temps de réflexion invalide : " + millis + " ms");
+        }
+        this.thinkingBudgetMillis = millis;
+    }
+
+    /**
+     * Retourne le temps de réflexion du joueur pour chaque coup.
+     * @return Le temps de réflexion en millisecondes (0 : sans limite)
+     */
+    public long getThinkingBudget(){
+        return thinkingBudgetMillis;
+    }
+
     /* ---------- MÉTHODES ABSTRAITES ---------- */
 
     /**
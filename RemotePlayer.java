@@ -0,0 +1,276 @@
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Joueur distant d'une table de GameServer : ses décisions sont demandées sur une connexion texte,
+ * une ligne par message (voir GameServer pour le protocole). Avant chaque coup, le joueur envoie
+ * l'état de la partie (STATE) puis ses coups légaux (ACTION), et attend le coup choisi (MOVE) ;
+ * s'il a plus de 10 jetons, il envoie DISCARD et attend les jetons défaussés.
+ *
+ * Les demandes sont numérotées : une réponse qui ne porte pas le numéro de la demande en cours
+ * (arrivée trop tard) est ignorée. Chaque demande a une échéance, fixée à l'envoi par le temps
+ * de réflexion du joueur (voir setThinkingBudget) : les lignes ignorées ne la repoussent pas.
+ * Si la réponse n'arrive pas à temps ou n'est pas valide, le joueur joue son action de repli
+ * (voir Player.fallbackAction).
+ * Une connexion fermée arrête la partie (UncheckedIOException, levée dans le thread de la table).
+ *
+ * Le joueur observe sa partie pour savoir quelles cartes réservées ont été prises face visible :
+ * l'état envoyé ne montre des autres joueurs que celles-là, les réservations à l'aveugle restent cachées.
+ */
+public class RemotePlayer extends Player implements GameListener {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private final MoveBuffer moves = new MoveBuffer(MoveGenerator.MAX_MOVES);
+    private int request; // numéro de la dernière demande envoyée
+    private final BitSet faceUpReserved = new BitSet(); // cartes réservées depuis le plateau, par identifiant
+
+    /**
+     * Constructeur d'un joueur distant. Plusieurs joueurs d'une même table peuvent partager
+     * la même connexion : les messages indiquent la place du joueur concerné.
+     * @param socket La connexion, dont le délai de lecture suit l'échéance de chaque demande
+     * @param in L'entrée de la connexion, d'où sont lues les réponses
+     * @param out La sortie de la connexion, où sont écrites les demandes
+     */
+    public RemotePlayer(Socket socket, BufferedReader in, Writer out) {
+        super("Distant");
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Demande son coup au joueur distant : envoie l'état de la partie et les coups légaux,
+     * puis joue le coup reçu s'il est légal, l'action de repli sinon.
+     * @return L'action à effectuer
+     */
+    @Override
+    public Action chooseAction() {
+        return new DeferredAction() {
+            @Override
+            protected Action decide(Player player, Board board) {
+                int n = MoveGenerator.generate(board, player, moves);
+                StringBuilder sb = new StringBuilder(stateLine(game, getId(), faceUpReserved)).append('\n');
+                sb.append("ACTION ").append(++request).append(' ').append(getId());
+                for (int i = 0; i < n; i++) {
+                    sb.append(' ').append(moves.get(i));
+                }
+                String[] reply = ask(sb.toString(), "MOVE");
+                if (reply != null && reply.length == 3) {
+                    try {
+                        int move = Integer.parseInt(reply[2]);
+                        for (int i = 0; i < n; i++) {
+                            if (moves.get(i) == move) {
+                                return Move.toAction(move);
+                            }
+                        }
+                    } catch (NumberFormatException ignore) {}
+                    send("ERROR coup illégal : " + reply[2], false);
+                }
+                return fallbackAction(board);
+            }
+        };
+    }
+
+    /**
+     * Indique au joueur sa partie, et l'y inscrit comme observateur (voir actionPlayed).
+     * @param game La partie du joueur
+     */
+    @Override
+    void setGame(Game game) {
+        super.setGame(game);
+        game.addListener(this);
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        faceUpReserved.clear();
+    }
+
+    /**
+     * Note les cartes réservées face visible : tous les joueurs les ont vues sur le plateau.
+     */
+    @Override
+    public void actionPlayed(Game game, int player, Action action) {
+        if (action instanceof ReserveCardAction) {
+            ReserveCardAction reserve = (ReserveCardAction) action;
+            if (reserve.getColumn() != ReserveCardAction.DECK && reserve.getReservedCard() != null) {
+                faceUpReserved.set(reserve.getReservedCard().getId());
+            }
+        }
+    }
+
+    /**
+     * Retourne chooseAction déjà terminée : la demande est faite pendant process, dans le thread
+     * de la table, et ne dure pas plus que le temps de réflexion (voir ask). Aucun thread de décision
+     * ne reste donc à lire la connexion après le temps écoulé.
+     * @return L'action choisie, déjà terminée
+     */
+    @Override
+    public CompletableFuture<Action> chooseActionAsync() {
+        return CompletableFuture.completedFuture(chooseAction());
+    }
+
+    /**
+     * Demande au joueur distant les jetons à défausser. Si la réponse n'est pas valide
+     * (nombre de jetons, jetons que le joueur n'a pas) ou n'arrive pas à temps, le joueur
+     * défausse les jetons des ressources dont il a le plus.
+     * @return Les ressources à défausser, une par jeton
+     */
+    @Override
+    public List<Resource> chooseDiscardingTokens() {
+        int excess = getNbTokens() - 10;
+        List<Resource> discard = new ArrayList<>();
+        if (excess <= 0) return discard;
+
+        String[] reply = ask("DISCARD " + (++request) + ' ' + getId() + ' ' + excess, "DISCARD");
+        if (reply != null) {
+            Resources left = new Resources(resources);
+            try {
+                for (int i = 2; i < reply.length; i++) {
+                    Resource r = Resources.resourceAt(Integer.parseInt(reply[i]));
+                    if (left.getNbResource(r) > 0) {
+                        left.updateNbResource(r, -1);
+                        discard.add(r);
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignore) {}
+            if (discard.size() == excess && reply.length == excess + 2) {
+                return discard;
+            }
+            send("ERROR défausse invalide", false);
+            discard.clear();
+        }
+
+        return fallbackDiscard(resources, excess);
+    }
+
+    /**
+     * Envoie une demande et attend la réponse qui porte son numéro, au plus le temps de réflexion
+     * du joueur compté depuis l'envoi : avant chaque ligne lue, le délai de lecture de la connexion
+     * est réduit au temps qui reste.
+     * @param message La demande (une ou plusieurs lignes)
+     * @param keyword Le premier mot de la réponse attendue
+     * @return Les mots de la réponse, ou null si la réponse n'est pas arrivée à temps
+     * @throws UncheckedIOException si la connexion est fermée ou si le joueur quitte la partie
+     */
+    private String[] ask(String message, String keyword) throws UncheckedIOException {
+        long budget = getThinkingBudget();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        send(message, true);
+        String number = Integer.toString(request);
+        try {
+            while (true) {
+                if (budget > 0) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return null;
+                    }
+                    // arrondi au-dessus : un délai de 0 ms voudrait dire « sans limite »
+                    socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, (left + 999_999) / 1_000_000));
+                }
+                String line = in.readLine();
+                if (line == null || line.equals("QUIT")) {
+                    throw new UncheckedIOException(new EOFException(getName() + " " + (getId() + 1) + " a quitté la partie."));
+                }
+                String[] words = line.trim().split(" +");
+                if (words.length >= 2 && words[0].equals(keyword) && words[1].equals(number)) {
+                    return words;
+                }
+                // réponse à une demande précédente, arrivée trop tard : ignorée
+            }
+        } catch (SocketTimeoutException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit une ligne sur la connexion.
+     * @param line La ligne (sans retour à la ligne final)
+     * @param flush Vrai pour l'envoyer tout de suite
+     * @throws UncheckedIOException si la connexion est fermée
+     */
+    private void send(String line, boolean flush) throws UncheckedIOException {
+        try {
+            out.write(line);
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Décrit l'état d'une partie sur une ligne (message STATE, voir GameServer) :
+     * STATE tour joueurCourant hash board=… cards=… decks=… nobles=… p0=… p1=…
+     * - board : jetons du plateau par ressource (ordre de Resource), puis jetons or ;
+     * - cards : identifiants (CardCatalog) des 12 cartes visibles, niveau par niveau, -1 pour une case vide ;
+     * - decks : nombre de cartes des piles de niveau 1, 2 et 3 ;
+     * - nobles : identifiant:joueur de chaque noble, joueur -1 tant que le noble est sur le plateau ;
+     * - pN : jetons et jetons or / bonus / points / cartes réservées (- si aucune), pour chaque joueur.
+     *   Le joueur à qui l'état est envoyé voit les identifiants de toutes ses cartes réservées ; celles
+     *   des autres joueurs ne sont données que si elles ont été réservées face visible, et ? remplace
+     *   chaque carte réservée à l'aveugle.
+     * @param game La partie
+     * @param seat La place du joueur à qui l'état est envoyé
+     * @param faceUpReserved Les identifiants des cartes réservées face visible depuis le début de la partie
+     * @return La ligne STATE
+     */
+    static String stateLine(Game game, int seat, BitSet faceUpReserved) {
+        GameState state = GameState.from(game);
+        StringBuilder sb = new StringBuilder("STATE ");
+        sb.append(state.getTurn()).append(' ').append(state.getCurrentPlayer())
+          .append(' ').append(Long.toHexString(state.getHash())).append(" board=");
+        for (int i = 0; i < Resources.NB_TYPES; i++) {
+            sb.append(state.getBoardTokens(i)).append(',');
+        }
+        sb.append(state.getBoardGold()).append(" cards=");
+        for (int slot = 0; slot < 12; slot++) {
+            sb.append(slot == 0 ? "" : ",").append(state.getVisibleCard(slot / 4, slot % 4));
+        }
+        sb.append(" decks=").append(state.getDeckSize(1)).append(',').append(state.getDeckSize(2))
+          .append(',').append(state.getDeckSize(3)).append(" nobles=");
+        for (int slot = 0; slot < state.getNbNobles(); slot++) {
+            sb.append(slot == 0 ? "" : ",").append(state.getNoble(slot)).append(':').append(state.getNobleOwner(slot));
+        }
+        for (int p = 0; p < state.getNbPlayers(); p++) {
+            sb.append(" p").append(p).append('=');
+            for (int i = 0; i < Resources.NB_TYPES; i++) {
+                sb.append(state.getTokens(p, i)).append(',');
+            }
+            sb.append(state.getGold(p)).append('/');
+            for (int i = 0; i < Resources.NB_TYPES; i++) {
+                sb.append(i == 0 ? "" : ",").append(state.getBonus(p, i));
+            }
+            sb.append('/').append(state.getPoints(p)).append('/');
+            if (state.getNbReservedCards(p) == 0) {
+                sb.append('-');
+            }
+            for (int i = 0; i < state.getNbReservedCards(p); i++) {
+                int card = state.getReservedCard(p, i);
+                sb.append(i == 0 ? "" : ",");
+                if (p == seat || faceUpReserved.get(card)) {
+                    sb.append(card);
+                } else {
+                    sb.append('?');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * La classe ReserveCardAction représente l'action de réserver une carte de développement :
+ * une carte visible, ou la carte du dessus d'une pile sans la regarder (réservation à l'aveugle).
+ * Le joueur garde la carte en main (au plus Player.MAX_RESERVED) pour l'acheter plus tard
+ * (voir BuyReservedCardAction), et reçoit un jeton or s'il en reste sur le plateau.
+ */
+
+public class ReserveCardAction implements Action {
+
+    private int level;   // 0..2
+    private int column;  // 0..3, ou DECK pour la carte du dessus de la pile
+    private DevCard reserved; // carte réservée par le dernier process (null si aucune)
+    private boolean goldTaken; // vrai si le dernier process a donné un jeton or
+
+    /** Colonne d'une réservation à l'aveugle, sur la pile du niveau. */
+    public static final int DECK = 4;
+
+    /**
+     * Constructeur de l'action de réservation d'une carte visible.
+     * @param level Le niveau (tier) de la carte (0-2)
+     * @param column La colonne de la carte (0-3)
+     */
+    public ReserveCardAction(int level, int column) {
+        this.level = level;
+        this.column = column;
+    }
+
+    /**
+     * Constructeur de l'action de réservation à l'aveugle de la carte du dessus d'une pile.
+     * @param level Le niveau (tier) de la pile (0-2)
+     */
+    public ReserveCardAction(int level) {
+        this(level, DECK);
+    }
+
+    /**
+     * Exécute l'action de réservation : la carte passe dans la main du joueur
+     * (une carte visible est remplacée par une carte de la pile), puis le joueur
+     * reçoit un jeton or s'il en reste.
+     * @param player Le joueur qui réserve la carte
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void process(Player player, Board board) {
+        reserved = null;
+        goldTaken = false;
+
+        if (player.getNbReservedCards() >= Player.MAX_RESERVED) {
+            board.getOutput().println("❌ Tu as déjà " + Player.MAX_RESERVED + " cartes réservées.");
+            return;
+        }
+
+        DevCard card;
+        if (column == DECK) {
+            card = board.drawCard(level + 1);
+            if (card == null) {
+                board.getOutput().println("❌ La pile de niveau " + (level + 1) + " est vide.");
+                return;
+            }
+        } else {
+            card = board.getCard(level, column);
+            if (card == null) {
+                board.getOutput().println("❌ Pas de carte à cet endroit.");
+                return;
+            }
+            board.updateCard(card);
+        }
+        reserved = card;
+        player.addReservedCard(card);
+
+        if (board.getGold() > 0) {
+            board.updateGold(-1);
+            player.updateGold(1);
+            goldTaken = true;
+        }
+
+        board.getOutput().println(player.getName() + " réserve une carte" + (goldTaken ? " et prend un jeton or." : "."));
+    }
+
+    /**
+     * Annule la dernière réservation : le jeton or retourne au plateau, et la carte
+     * retourne à sa place (la carte tirée pour la remplacer retourne sur sa pile)
+     * ou sur sa pile pour une réservation à l'aveugle.
+     * @param player Le joueur qui a réservé la carte
+     * @param board Le plateau de jeu
+     */
+    @Override
+    public void undo(Player player, Board board) {
+        if (reserved == null) return;
+        if (goldTaken) {
+            player.updateGold(-1);
+            board.updateGold(1);
+        }
+        player.removeReservedCard(player.getNbReservedCards() - 1);
+        if (column == DECK) {
+            board.undrawCard(level, reserved);
+        } else {
+            board.restoreCard(level, column, reserved);
+        }
+        reserved = null;
+        goldTaken = false;
+    }
+
+    /**
+     * Retourne le niveau de la carte réservée.
+     * @return L'indice du niveau (0-2)
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Retourne la colonne de la carte réservée.
+     * @return L'indice de la colonne (0-3), ou DECK pour une réservation à l'aveugle
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Retourne la carte réservée par le dernier process.
+     * @return La carte réservée, ou null si la réservation n'a pas eu lieu
+     */
+    public DevCard getReservedCard() {
+        return reserved;
+    }
+
+    @Override
+    public String toString() {
+        return column == DECK ? "Réserve la carte du dessus de la pile " + (level + 1) : "Réserve une carte";
+    }
+}
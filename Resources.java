@@ -1,29 +1,65 @@
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
  * Auteur : Marc-Eloi
  * La classe Resources représente un ensemble de ressources dans le jeu Splendor.
- * Elle étend HashMap pour stocker le nombre de chaque type de ressource.
+ * Elle stocke le nombre de chaque type de ressource dans un tableau d'entiers indexé par
+ * Resource.ordinal(), et tient à jour un masque de bits des ressources disponibles (quantité > 0) :
+ * lire ou modifier une quantité ne crée donc aucun objet.
  * Permet de gérer les jetons et les bonus des cartes achetées.
  */
-public class Resources extends HashMap<Resource, Integer>{
+public class Resources {
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    /** Le nombre de types de ressources. */
+    public static final int NB_TYPES = RESOURCES.length;
+
+    /** Symbole des jetons or (jokers), qui ne sont pas une ressource (voir Board.getGold, Player.getGold). */
+    public static final String GOLD_SYMBOL = "\u2605G"; // ★G
+
+    /** Les ensembles de ressources pour chacun des masques possibles, construits une seule fois. */
+    private static final Set<Resource>[] AVAILABLE_SETS = buildAvailableSets();
+
+    private final int[] counts;
+    private int availableMask;
 
     /**
-     * Constructeur de Resources avec celui de HashMap.
+     * Constructeur de Resources vide (0 de chaque ressource).
      */
     public Resources() {
-        super();
+        this.counts = new int[NB_TYPES];
+        this.availableMask = 0;
+    }
+
+    /**
+     * Constructeur par copie.
+     * @param other Les ressources à copier
+     */
+    public Resources(Resources other) {
+        this.counts = other.counts.clone();
+        this.availableMask = other.availableMask;
+    }
+
+    /**
+     * Retourne la ressource correspondant à un indice (son ordinal), sans recopier Resource.values().
+     * @param index L'indice de la ressource (0-4)
+     * @return La ressource
+     */
+    public static Resource resourceAt(int index) {
+        return RESOURCES[index];
     }
 
     /**
      * Retourne le nombre de jetons d'une ressource donnée.
      * @param r La ressource recherchée
-     * @return Le nombre de jetons de cette ressource (0 si non trouvée)
+     * @return Le nombre de jetons de cette ressource (0 si non définie)
      */
     public int getNbResource(Resource r){
-        return this.getOrDefault(r, 0);
+        return counts[r.ordinal()];
     }
 
     /**
@@ -32,35 +68,106 @@ public class Resources extends HashMap<Resource, Integer>{
      * @param v Le nombre de jetons à définir
     */
     public void setNbResource(Resource r, int v){
-        this.put(r, v);
+        int i = r.ordinal();
+        counts[i] = v;
+        updateMask(i);
     }
-    
+
     /**
      * Modifie le nombre de jetons pour une ressource donnée.
      * @param r La ressource
      * @param v Le nombre de jetons à ajouter (positif) ou retirer (négatif)
      */
     public void updateNbResource(Resource r, int v){
-        int Nb = this.getOrDefault(r, 0);
-        Nb += v;
+        int i = r.ordinal();
+        int Nb = counts[i] + v;
         if(Nb >= 0){
-            this.put(r, Nb);
+            counts[i] = Nb;
         } else {
-            this.put(r, 0);
+            counts[i] = 0;
+        }
+        updateMask(i);
+    }
+
+    /**
+     * Retourne le nombre total de jetons, toutes ressources confondues.
+     * @return La somme des quantités
+     */
+    public int getTotal(){
+        int total = 0;
+        for(int count : counts){
+            total += count;
         }
+        return total;
+    }
+
+    /**
+     * Retourne le masque des ressources disponibles : le bit r.ordinal() est à 1
+     * si la quantité de la ressource r est strictement positive.
+     * @return Le masque de bits des ressources disponibles
+     */
+    public int getAvailableMask(){
+        return availableMask;
     }
 
     /**
      * Retourne l'ensemble des ressources disponibles (avec quantité > 0).
+     * L'ensemble retourné est partagé et non modifiable : aucun objet n'est créé à chaque appel.
      * @return Un ensemble des ressources possédées
      */
     public Set<Resource> getAvailableResources(){
-        Set<Resource> available = new HashSet<>();
-        for(Resource r : this.keySet()){
-            if(this.get(r) > 0){
-                available.add(r);
+        return AVAILABLE_SETS[availableMask];
+    }
+
+    /**
+     * Met à jour le bit d'une ressource dans le masque des ressources disponibles.
+     * @param i L'indice de la ressource
+     */
+    private void updateMask(int i){
+        if(counts[i] > 0){
+            availableMask |= 1 << i;
+        } else {
+            availableMask &= ~(1 << i);
+        }
+    }
+
+    /**
+     * Construit les ensembles non modifiables de ressources pour tous les masques possibles.
+     * @return Le tableau des ensembles, indexé par masque
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<Resource>[] buildAvailableSets(){
+        Set<Resource>[] sets = (Set<Resource>[]) new Set<?>[1 << RESOURCES.length];
+        for(int mask = 0; mask < sets.length; mask++){
+            EnumSet<Resource> set = EnumSet.noneOf(Resource.class);
+            for(int i = 0; i < RESOURCES.length; i++){
+                if((mask & (1 << i)) != 0){
+                    set.add(RESOURCES[i]);
+                }
             }
+            sets[mask] = Collections.unmodifiableSet(set);
+        }
+        return sets;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o) return true;
+        if(!(o instanceof Resources)) return false;
+        return Arrays.equals(counts, ((Resources) o).counts);
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        for(Resource r : RESOURCES){
+            sb.append(r.toSymbol()).append(':').append(counts[r.ordinal()]).append(' ');
         }
-        return available;
+        return sb.toString().trim();
     }
 }
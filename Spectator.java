@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mode spectateur pour regarder une partie entre robots à la vitesse choisie :
+ * - REAL_TIME : chaque tour est affiché, et la partie attend un délai fixe après chaque tour ;
+ * - FAST_FORWARD : la partie tourne à pleine vitesse, et seul un tour sur N (ou au plus un tour
+ *   par image, à un nombre d'images par seconde donné) est affiché ;
+ * - INSTANT : seule la position finale est affichée.
+ *
+ * La partie est jouée dans son propre thread. À la fin des tours choisis, elle publie une image
+ * immuable de la position (Snapshot) ; le thread d'affichage affiche la dernière image publiée et
+ * saute celles qu'il n'a pas eu le temps d'afficher : l'affichage ne ralentit jamais la partie.
+ *
+ * Utilisation : java Spectator [reel délai_ms | tours N | fps N | instant] [joueur1 joueur2 ...]
+ * où chaque joueur est un nom connu de Tournament.playerFactory (par défaut : fps 30 robot robot).
+ */
+public class Spectator implements GameListener
+{
+    /**
+     * Vitesse d'affichage d'une partie.
+     */
+    public enum Speed {
+        REAL_TIME,
+        FAST_FORWARD,
+        INSTANT
+    }
+
+    /**
+     * Image d'une position publiée par la partie. Ne change plus une fois créée.
+     */
+    public static final class Snapshot {
+        private final int turn;
+        private final boolean over;
+        private final String[] lines;
+
+        private Snapshot(int turn, boolean over, String[] lines) {
+            this.turn = turn;
+            this.over = over;
+            this.lines = lines;
+        }
+
+        /**
+         * Retourne le nombre de tours joués dans cette position.
+         * @return Le numéro du tour
+         */
+        public int getTurn() {
+            return turn;
+        }
+
+        /**
+         * Indique si la partie est terminée dans cette position.
+         * @return true si c'est la position finale
+         */
+        public boolean isOver() {
+            return over;
+        }
+
+        /**
+         * Retourne les lignes de l'image.
+         * @return Une copie des lignes
+         */
+        public String[] getLines() {
+            return lines.clone();
+        }
+    }
+
+    /** Intervalle maximal entre deux vérifications de l'état de la partie par le thread d'affichage. */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Speed speed;
+    private final long delayMillis;   // REAL_TIME : attente après chaque tour
+    private final int everyTurns;     // FAST_FORWARD : un tour affiché sur everyTurns (0 : au rythme periodNanos)
+    private final long periodNanos;   // FAST_FORWARD : intervalle minimal entre deux images
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+    private volatile Thread renderer;
+    private long lastPublish;         // date de la dernière image publiée (thread de la partie)
+
+    private Spectator(Speed speed, long delayMillis, int everyTurns, long periodNanos) {
+        this.speed = speed;
+        this.delayMillis = delayMillis;
+        this.everyTurns = everyTurns;
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * Affiche chaque tour, la partie attendant un délai après chaque tour.
+     * @param delayMillis Le délai après chaque tour, en ms
+     * @return Le spectateur
+     * @throws IllegalArgumentException si le délai est négatif
+     */
+    public static Spectator realTime(long delayMillis) throws IllegalArgumentException {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Délai invalide : " + delayMillis + " ms");
+        }
+        return new Spectator(Speed.REAL_TIME, delayMillis, 1, 0);
+    }
+
+    /**
+     * Joue la partie à pleine vitesse en n'affichant qu'un tour sur N.
+     * @param everyTurns Le nombre N de tours entre deux images
+     * @return Le spectateur
+     * @throws IllegalArgumentException si N n'est pas positif
+     */
+    public static Spectator everyTurns(int everyTurns) throws IllegalArgumentException {
+        if (everyTurns <= 0) {
+            throw new IllegalArgumentException("Nombre de tours invalide : " + everyTurns);
+        }
+        return new Spectator(Speed.FAST_FORWARD, 0, everyTurns, 0);
+    }
+
+    /**
+     * Joue la partie à pleine vitesse en publiant au plus fps images par seconde.
+     * @param fps Le nombre maximal d'images par seconde
+     * @return Le spectateur
+     * @throws IllegalArgumentException si fps n'est pas positif
+     */
+    public static Spectator atFps(int fps) throws IllegalArgumentException {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("Nombre d'images par seconde invalide : " + fps);
+        }
+        return new Spectator(Speed.FAST_FORWARD, 0, 0, TimeUnit.SECONDS.toNanos(1) / fps);
+    }
+
+    /**
+     * Joue la partie à pleine vitesse et n'affiche que la position finale.
+     * @return Le spectateur
+     */
+    public static Spectator instant() {
+        return new Spectator(Speed.INSTANT, 0, 0, 0);
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        Spectator spectator = Spectator.atFps(30);
+        int first = 0;
+        if (args.length >= 1 && args[0].equals("instant")) {
+            spectator = Spectator.instant();
+            first = 1;
+        } else if (args.length >= 2 && args[0].equals("reel")) {
+            spectator = Spectator.realTime(Long.parseLong(args[1]));
+            first = 2;
+        } else if (args.length >= 2 && args[0].equals("tours")) {
+            spectator = Spectator.everyTurns(Integer.parseInt(args[1]));
+            first = 2;
+        } else if (args.length >= 2 && args[0].equals("fps")) {
+            spectator = Spectator.atFps(Integer.parseInt(args[1]));
+            first = 2;
+        }
+        List<Player> players = new ArrayList<>();
+        for (int i = first; i < args.length; i++) {
+            players.add(Tournament.playerFactory(args[i]).get());
+        }
+        while (players.size() < 2) {
+            players.add(new DumbRobotPlayer());
+        }
+
+        Display display = new Display(Game.ROWS_BOARD, Game.ROWS_CONSOLE, Game.COLS);
+        Game game = new Game(players, display.out, NullOutput.INSTANCE);
+        game.setMaxTurns(1000);
+        spectator.watch(game, display.outBoard);
+        Metrics.dump();
+    }
+
+    /**
+     * Retourne la vitesse d'affichage.
+     * @return La vitesse
+     */
+    public Speed getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Retourne la dernière image publiée par la partie. Peut être appelée par n'importe quel thread.
+     * @return La dernière image, ou null si aucune n'a encore été publiée
+     */
+    public Snapshot getSnapshot() {
+        return latest.get();
+    }
+
+    /**
+     * Joue une partie dans un nouveau thread et affiche ses images dans le thread appelant,
+     * jusqu'à la position finale.
+     * La partie ne doit pas dessiner elle-même le plateau (sortie du plateau inactive, par exemple NullOutput).
+     * @param game La partie, pas encore commencée
+     * @param screen La sortie où afficher les images
+     * @throws InterruptedException si le thread appelant est interrompu
+     * @throws ExecutionException si la partie s'est arrêtée sur une exception
+     */
+    public void watch(Game game, GameOutput screen) throws InterruptedException, ExecutionException {
+        game.addListener(this);
+        renderer = Thread.currentThread();
+        FutureTask<Void> task = new FutureTask<>(game::play, null);
+        Thread thread = new Thread(task, "partie");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            Snapshot shown = null;
+            while (shown == null || !shown.over) {
+                Snapshot snapshot = latest.get();
+                if (snapshot != null && snapshot != shown) {
+                    screen.printFrame(snapshot.lines);
+                    shown = snapshot;
+                } else if (task.isDone()) {
+                    break;
+                } else {
+                    LockSupport.parkNanos(this, POLL_NANOS);
+                    if (Thread.interrupted()) {
+                        thread.interrupt();
+                        throw new InterruptedException();
+                    }
+                }
+            }
+            task.get();
+        } finally {
+            renderer = null;
+        }
+    }
+
+    /* ---------- OBSERVATION DE LA PARTIE (thread de la partie) ---------- */
+
+    @Override
+    public void gameStarted(Game game) {
+        if (speed != Speed.INSTANT) {
+            publish(game, false);
+        }
+    }
+
+    @Override
+    public void turnEnded(Game game) {
+        switch (speed) {
+            case REAL_TIME:
+                publish(game, false);
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case FAST_FORWARD:
+                if (everyTurns > 0 ? game.getNbTurns() % everyTurns == 0
+                                   : System.nanoTime() - lastPublish >= periodNanos) {
+                    publish(game, false);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void gameEnded(Game game) {
+        publish(game, true);
+    }
+
+    private void publish(Game game, boolean over) {
+        lastPublish = System.nanoTime();
+        latest.set(new Snapshot(game.getNbTurns(), over, game.renderFrame()));
+        Thread waiting = renderer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+}
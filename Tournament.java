@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * La classe Tournament joue un grand nombre de parties sans affichage entre robots,
+ * en parallèle sur tous les cœurs, et agrège les résultats par place autour de la table
+ * (taux de victoire, points moyens, durée des parties, avec intervalles de confiance à 95 %).
+ *
+ * Utilisation : java Tournament nbParties joueur1 joueur2 [joueur3] [joueur4] [--seed=graine] [--record=fichier] [--store=répertoire]
+ * où chaque joueur est un nom connu de playerFactory (par exemple "robot" ou "mcts").
+ * Avec --record, toutes les parties sont ajoutées au fichier (voir GameRecordWriter) ;
+ * avec --store, les faits de chaque action sont ajoutés au stockage en colonnes (voir TurnStore).
+ * Avec la même graine, le tournoi rejoue exactement les mêmes parties, quel que soit le nombre de threads.
+ * Avec -Dsplendor.metrics=fichier, les mesures du tournoi sont écrites à la fin (voir Metrics).
+ */
+public class Tournament {
+
+    private static final double Z_95 = 1.96;
+    private static final int DEFAULT_MAX_TURNS = 1000;
+
+    private final List<String> lineup;
+    private final List<Supplier<Player>> factories;
+    private final int nbGames;
+    private int maxTurns;
+    private int nbThreads;
+    private long seed;
+    private GameRecordWriter recorder;
+    private TurnStoreWriter store;
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Utilisation : java Tournament nbParties joueur1 joueur2 [joueur3] [joueur4] [--seed=graine] [--record=fichier] [--store=répertoire]");
+            return;
+        }
+        List<String> lineup = new ArrayList<>();
+        Long seed = null;
+        String record = null;
+        String store = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--seed=")) {
+                seed = Long.parseLong(args[i].substring("--seed=".length()));
+            } else if (args[i].startsWith("--record=")) {
+                record = args[i].substring("--record=".length());
+            } else if (args[i].startsWith("--store=")) {
+                store = args[i].substring("--store=".length());
+            } else {
+                lineup.add(args[i]);
+            }
+        }
+        Tournament tournament = new Tournament(lineup, Integer.parseInt(args[0]));
+        if (seed != null) {
+            tournament.setSeed(seed);
+        }
+        System.out.println("Graine du tournoi : " + tournament.seed);
+
+        long start = System.nanoTime();
+        Stats stats;
+        // Les fichiers sont fermés (tampons vidés) même si le tournoi échoue.
+        try (GameRecordWriter writer = record == null ? null : new GameRecordWriter(Paths.get(record));
+             TurnStoreWriter storeWriter = store == null ? null : new TurnStoreWriter(Paths.get(store))) {
+            tournament.setRecorder(writer);
+            tournament.setStore(storeWriter);
+            stats = tournament.run();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Impossible d'enregistrer les parties : " + e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(stats.report(lineup));
+        System.out.printf("%d parties en %.2f s : %.0f parties/s sur %d threads%n",
+            stats.games, seconds, stats.games / seconds, tournament.nbThreads);
+        Metrics.dump();
+    }
+
+    /**
+     * Constructeur d'un tournoi.
+     * @param lineup Les noms des joueurs assis à chaque place (2 à 4)
+     * @param nbGames Le nombre de parties à jouer
+     * @throws IllegalArgumentException si le nombre de joueurs ou un nom de joueur n'est pas valide
+     */
+    public Tournament(List<String> lineup, int nbGames) throws IllegalArgumentException {
+        if (lineup.size() < 2 || lineup.size() > 4) {
+            throw new IllegalArgumentException("Nombre de joueurs invalide (2 à 4).");
+        }
+        this.lineup = new ArrayList<>(lineup);
+        this.factories = new ArrayList<>();
+        for (String name : lineup) {
+            factories.add(playerFactory(name));
+        }
+        this.nbGames = nbGames;
+        this.maxTurns = DEFAULT_MAX_TURNS;
+        this.nbThreads = Runtime.getRuntime().availableProcessors();
+        this.seed = new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Retourne le constructeur du type de joueur correspondant à un nom.
+     * @param name Le nom du type de joueur
+     * @return Un fournisseur créant un nouveau joueur à chaque appel
+     * @throws IllegalArgumentException si le nom n'est pas connu
+     */
+    public static Supplier<Player> playerFactory(String name) throws IllegalArgumentException {
+        switch (name) {
+            case "robot":
+                return DumbRobotPlayer::new;
+            case "mcts":
+                // Un seul thread par robot (les parties sont déjà jouées en parallèle) et un budget
+                // en simulations plutôt qu'en temps, pour que les résultats dépendent seulement de la graine.
+                return () -> new MctsRobotPlayer(60_000, 1000, 1, true);
+            default:
+                throw new IllegalArgumentException("Joueur inconnu : " + name);
+        }
+    }
+
+    /**
+     * Limite la durée de chaque partie (les robots peuvent se bloquer en passant leur tour).
+     * @param maxTurns Le nombre maximal de tours par partie
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Définit le nombre de threads utilisés (par défaut, le nombre de cœurs).
+     * @param nbThreads Le nombre de threads
+     */
+    public void setNbThreads(int nbThreads) {
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Définit la graine du tournoi, d'où sont tirées les graines de toutes les parties.
+     * @param seed La graine du tournoi
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Enregistre toutes les parties du tournoi dans un fichier de parties.
+     * @param recorder Le fichier où écrire les parties, ou null pour ne pas les enregistrer
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Ajoute les faits de chaque action du tournoi à un stockage en colonnes.
+     * @param store Le stockage, ou null pour ne rien y ajouter
+     */
+    public void setStore(TurnStoreWriter store) {
+        this.store = store;
+    }
+
+    /**
+     * Joue toutes les parties du tournoi en parallèle.
+     * Chaque partie a son propre plateau, ses propres joueurs et son propre générateur aléatoire :
+     * rien n'est partagé entre threads à part le catalogue de cartes, et chaque thread agrège
+     * ses résultats avant la fusion finale.
+     * @return Les statistiques agrégées du tournoi
+     */
+    public Stats run() {
+        // Les graines sont tirées à l'avance : la partie i a toujours la même graine,
+        // quel que soit le thread qui la joue.
+        long[] gameSeeds = new SplittableRandom(seed).longs(nbGames).toArray();
+        ForkJoinPool pool = new ForkJoinPool(nbThreads);
+        try {
+            return pool.submit(() -> IntStream.range(0, nbGames).parallel()
+                    .collect(() -> new Stats(lineup.size()), (stats, i) -> stats.add(playGame(gameSeeds[i])), Stats::merge))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournoi interrompu.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Une partie du tournoi a échoué.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Joue une partie du tournoi.
+     * @param gameSeed La graine de la partie
+     * @return La partie terminée
+     */
+    private Game playGame(long gameSeed) {
+        List<Player> players = new ArrayList<>();
+        for (Supplier<Player> factory : factories) {
+            players.add(factory.get());
+        }
+        Game game = new Game(players, gameSeed);
+        game.setMaxTurns(maxTurns);
+        game.setHistoryEnabled(false);
+        if (recorder != null) {
+            game.addListener(recorder.newRecorder());
+        }
+        if (store != null) {
+            game.addListener(store.newRecorder());
+        }
+        game.play();
+        return game;
+    }
+
+    /**
+     * Statistiques agrégées d'un ensemble de parties, par place autour de la table.
+     * Les sommes et sommes des carrés permettent de calculer moyennes et intervalles de confiance.
+     */
+    public static class Stats {
+        private long games;
+        private long draws;
+        private long unfinished;
+        private long turnsSum;
+        private double turnsSumSq;
+        private final long[] wins;
+        private final long[] pointsSum;
+        private final double[] pointsSumSq;
+
+        /**
+         * Constructeur de statistiques vides.
+         * @param nbPlayers Le nombre de places autour de la table
+         */
+        public Stats(int nbPlayers) {
+            this.wins = new long[nbPlayers];
+            this.pointsSum = new long[nbPlayers];
+            this.pointsSumSq = new double[nbPlayers];
+        }
+
+        /**
+         * Ajoute le résultat d'une partie terminée.
+         * @param game La partie terminée
+         */
+        public void add(Game game) {
+            games++;
+            int turns = game.getNbTurns();
+            turnsSum += turns;
+            turnsSumSq += (double) turns * turns;
+            if (game.isTurnLimitReached()) {
+                unfinished++;
+            }
+
+            Player winner = game.getWinner();
+            if (winner == null) {
+                draws++;
+            } else {
+                wins[winner.getId()]++;
+            }
+            for (Player p : game.getPlayers()) {
+                int points = p.getPoints();
+                pointsSum[p.getId()] += points;
+                pointsSumSq[p.getId()] += (double) points * points;
+            }
+        }
+
+        /**
+         * Ajoute les statistiques d'un autre ensemble de parties.
+         * @param other Les statistiques à fusionner
+         */
+        public void merge(Stats other) {
+            games += other.games;
+            draws += other.draws;
+            unfinished += other.unfinished;
+            turnsSum += other.turnsSum;
+            turnsSumSq += other.turnsSumSq;
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                pointsSum[i] += other.pointsSum[i];
+                pointsSumSq[i] += other.pointsSumSq[i];
+            }
+        }
+
+        /**
+         * Retourne le nombre de parties jouées.
+         * @return Le nombre de parties
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Retourne le taux de victoire d'une place.
+         * @param seat La place autour de la table
+         * @return La proportion de parties gagnées (entre 0 et 1)
+         */
+        public double getWinRate(int seat) {
+            return games == 0 ? 0 : (double) wins[seat] / games;
+        }
+
+        /**
+         * Retourne le nombre moyen de points d'une place en fin de partie.
+         * @param seat La place autour de la table
+         * @return Les points moyens
+         */
+        public double getAveragePoints(int seat) {
+            return games == 0 ? 0 : (double) pointsSum[seat] / games;
+        }
+
+        /**
+         * Retourne le nombre moyen de tours par partie.
+         * @return La durée moyenne des parties, en tours
+         */
+        public double getAverageTurns() {
+            return games == 0 ? 0 : (double) turnsSum / games;
+        }
+
+        /**
+         * Construit le rapport texte du tournoi.
+         * @param lineup Les noms des joueurs à chaque place
+         * @return Le rapport, une ligne par place puis la durée des parties
+         */
+        public String report(List<String> lineup) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < wins.length; i++) {
+                double rate = getWinRate(i);
+                double rateMargin = Z_95 * Math.sqrt(rate * (1 - rate) / Math.max(1, games));
+                sb.append(String.format("Place %d (%s) : victoires %.1f %% ± %.1f, points %.2f ± %.2f%n",
+                    i + 1, lineup.get(i), 100 * rate, 100 * rateMargin,
+                    getAveragePoints(i), margin(pointsSum[i], pointsSumSq[i])));
+            }
+            sb.append(String.format("Égalités : %d, parties arrêtées à la limite de tours : %d%n", draws, unfinished));
+            sb.append(String.format("Durée : %.1f ± %.1f tours%n", getAverageTurns(), margin(turnsSum, turnsSumSq)));
+            return sb.toString();
+        }
+
+        /**
+         * Demi-largeur de l'intervalle de confiance à 95 % d'une moyenne.
+         * @param sum La somme des valeurs
+         * @param sumSq La somme des carrés des valeurs
+         * @return La marge d'erreur autour de la moyenne
+         */
+        private double margin(double sum, double sumSq) {
+            if (games < 2) return 0;
+            double mean = sum / games;
+            double variance = Math.max(0, (sumSq - games * mean * mean) / (games - 1));
+            return Z_95 * Math.sqrt(variance / games);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Table de transposition de taille fixe, partageable sans verrou entre les threads d'une recherche.
+ * Elle retient, pour un hash de Zobrist (voir Zobrist), un résultat de recherche compacté dans un long :
+ * - la valeur (int, 32 bits) ;
+ * - le meilleur coup (voir Move, 24 bits) ;
+ * - la profondeur de recherche (6 bits) ;
+ * - le type de borne (2 bits : EXACT, LOWER ou UPPER, jamais 0 : une donnée nulle signifie « absente »).
+ *
+ * Chaque entrée occupe deux long : (hash ^ donnée, donnée). Deux écritures concurrentes peuvent
+ * mélanger les deux moitiés d'une entrée, mais l'entrée mélangée ne correspond alors plus à aucun
+ * hash : elle est ignorée à la lecture au lieu de donner un résultat faux.
+ *
+ * Les entrées sont groupées par deux : la première n'est remplacée que par une recherche au moins
+ * aussi profonde (ou de la même position), la seconde est toujours remplacée.
+ */
+public final class TranspositionTable
+{
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /** Plus grande profondeur retenue. */
+    public static final int MAX_DEPTH = 63;
+
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 56;
+    private static final int BOUND_SHIFT = 62;
+    private static final long MOVE_MASK = 0xFFFFFFL;
+
+    private final AtomicLongArray entries;
+    private final int bucketMask;
+
+    /**
+     * Constructeur d'une table vide.
+     * @param sizeMegabytes La taille de la table en Mo (arrondie à la puissance de 2 inférieure)
+     * @throws IllegalArgumentException si la taille n'est pas positive
+     */
+    public TranspositionTable(int sizeMegabytes) throws IllegalArgumentException {
+        if(sizeMegabytes <= 0){
+            throw new IllegalArgumentException("Taille de table invalide : " + sizeMegabytes + " Mo");
+        }
+        long buckets = Long.highestOneBit((long) sizeMegabytes * 1024 * 1024 / 32); // 4 long par groupe
+        buckets = Math.min(buckets, 1 << 28);
+        this.entries = new AtomicLongArray((int) buckets * 4);
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Retourne le nombre d'entrées de la table.
+     * @return La capacité
+     */
+    public int getCapacity(){
+        return (bucketMask + 1) * 2;
+    }
+
+    /**
+     * Vide la table. Ne doit pas être appelée pendant une recherche.
+     */
+    public void clear(){
+        for(int i = 0; i < entries.length(); i++){
+            entries.set(i, 0);
+        }
+    }
+
+    /**
+     * Cherche une position dans la table.
+     * @param hash Le hash de la position
+     * @return La donnée retenue pour cette position, ou 0 si elle est absente
+     */
+    public long probe(long hash){
+        int base = index(hash);
+        for(int i = base; i < base + 4; i += 2){
+            long data = entries.get(i + 1);
+            if(data != 0 && (entries.get(i) ^ data) == hash){
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Retient le résultat de la recherche d'une position.
+     * @param hash Le hash de la position
+     * @param value La valeur
+     * @param move Le meilleur coup (voir Move)
+     * @param depth La profondeur de recherche (limitée à MAX_DEPTH)
+     * @param bound Le type de borne : EXACT, LOWER ou UPPER
+     */
+    public void store(long hash, int value, int move, int depth, int bound){
+        long data = (value & 0xFFFFFFFFL)
+                  | (move & MOVE_MASK) << MOVE_SHIFT
+                  | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT
+                  | (long) bound << BOUND_SHIFT;
+        int base = index(hash);
+        long kept = entries.get(base + 1);
+        int slot = base + 2;
+        if(kept == 0 || (entries.get(base) ^ kept) == hash || depth(kept) <= depth){
+            slot = base;
+        }
+        entries.set(slot, hash ^ data);
+        entries.set(slot + 1, data);
+    }
+
+    private int index(long hash){
+        return ((int) (hash ^ (hash >>> 32)) & bucketMask) * 4;
+    }
+
+    /* ---------- LECTURE D'UNE DONNÉE ---------- */
+
+    /**
+     * Retourne la valeur d'une donnée de la table.
+     * @param data La donnée retournée par probe
+     * @return La valeur
+     */
+    public static int value(long data){
+        return (int) data;
+    }
+
+    /**
+     * Retourne le meilleur coup d'une donnée de la table.
+     * @param data La donnée retournée par probe
+     * @return Le coup (voir Move)
+     */
+    public static int move(long data){
+        return (int) ((data >>> MOVE_SHIFT) & MOVE_MASK);
+    }
+
+    /**
+     * Retourne la profondeur d'une donnée de la table.
+     * @param data La donnée retournée par probe
+     * @return La profondeur
+     */
+    public static int depth(long data){
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * Retourne le type de borne d'une donnée de la table.
+     * @param data La donnée retournée par probe
+     * @return EXACT, LOWER ou UPPER
+     */
+    public static int bound(long data){
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Stockage en colonnes des faits de chaque action jouée, pour l'analyse hors ligne de très
+ * nombreuses parties (voir TurnStoreWriter pour l'écriture).
+ * Chaque colonne est un fichier de valeurs de largeur fixe (big-endian), une par ligne :
+ * - GAME (int) : numéro de la partie ;
+ * - TURN (short) : tour de la partie où l'action a été jouée (0 pour la première action) ;
+ * - PLAYER (byte) : place du joueur ;
+ * - TYPE (byte) : type de l'action (voir Move : PASS, BUY, PICK_SAME, PICK_DIFF, DISCARD,
+ *   RESERVE, BUY_RESERVED) ;
+ * - CARD (byte) : identifiant de la carte achetée ou réservée (voir CardCatalog), -1 sinon ;
+ * - TOKENS_BEFORE, TOKENS_AFTER (byte) : jetons du joueur avant et après l'action ;
+ * - POINTS (byte) : points du joueur après l'action.
+ * Une colonne par partie, WINNER (byte), donne la place du gagnant (-1 en cas d'égalité).
+ *
+ * Les fichiers sont projetés en mémoire (MappedByteBuffer) par segments : la lecture ne copie rien
+ * et le système ne charge que les pages lues. Les requêtes parcourent les lignes en parallèle.
+ *
+ * Utilisation : java TurnStore répertoire (exemple de requête et débit de lecture)
+ */
+public class TurnStore
+{
+    static final String GAME = "game.i32";
+    static final String TURN = "turn.i16";
+    static final String PLAYER = "player.i8";
+    static final String TYPE = "type.i8";
+    static final String CARD = "card.i8";
+    static final String TOKENS_BEFORE = "tokens_before.i8";
+    static final String TOKENS_AFTER = "tokens_after.i8";
+    static final String POINTS = "points.i8";
+    static final String WINNER = "winner.i8";
+
+    /** Nombre de lignes par segment projeté (un segment fait au plus 1 Go). */
+    private static final int SEGMENT_ROWS = 1 << 28;
+    /** Nombre de tranches de lignes des parcours parallèles. */
+    private static final int NB_CHUNKS = 256;
+
+    /**
+     * Condition sur une ligne du stockage.
+     */
+    @FunctionalInterface
+    public interface RowFilter {
+        /**
+         * @param store Le stockage
+         * @param row L'indice de la ligne
+         * @return true si la ligne est retenue
+         */
+        boolean test(TurnStore store, long row);
+    }
+
+    /**
+     * Une colonne projetée en mémoire, découpée en segments.
+     */
+    private static final class Column {
+        final int width;
+        final MappedByteBuffer[] segments;
+
+        Column(FileChannel channel, int width, long rows) throws IOException {
+            this.width = width;
+            int n = (int) ((rows + SEGMENT_ROWS - 1) / SEGMENT_ROWS);
+            this.segments = new MappedByteBuffer[n];
+            for(int i = 0; i < n; i++){
+                long first = (long) i * SEGMENT_ROWS;
+                long count = Math.min(SEGMENT_ROWS, rows - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * width, count * width);
+            }
+        }
+
+        int offset(long row){
+            return (int) (row % SEGMENT_ROWS) * width;
+        }
+
+        byte getByte(long row){
+            return segments[(int) (row / SEGMENT_ROWS)].get(offset(row));
+        }
+
+        short getShort(long row){
+            return segments[(int) (row / SEGMENT_ROWS)].getShort(offset(row));
+        }
+
+        int getInt(long row){
+            return segments[(int) (row / SEGMENT_ROWS)].getInt(offset(row));
+        }
+    }
+
+    private static final int[] CARD_TIER;
+
+    static {
+        CardCatalog catalog = CardCatalog.getInstance();
+        CARD_TIER = new int[catalog.getNbCards()];
+        for(int id = 0; id < CARD_TIER.length; id++){
+            CARD_TIER[id] = catalog.getCard(id).getTier();
+        }
+    }
+
+    private final long nbRows;
+    private final int nbGames;
+    private final Column game;
+    private final Column turn;
+    private final Column player;
+    private final Column type;
+    private final Column card;
+    private final Column tokensBefore;
+    private final Column tokensAfter;
+    private final Column points;
+    private final Column winner;
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1){
+            System.out.println("Utilisation : java TurnStore répertoire");
+            return;
+        }
+        TurnStore store = new TurnStore(Paths.get(args[0]));
+        long start = System.nanoTime();
+        RowFilter earlyTier3 = (s, row) -> s.getType(row) == Move.BUY && s.getCardTier(row) == 3 && s.getTurn(row) < 15;
+        long[] result = store.winsWhen(earlyTier3);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d parties, %d lignes%n", store.getNbGames(), store.getNbRows());
+        System.out.printf("Carte de niveau 3 achetée avant le tour 15 : %d fois, %.1f %% de victoires%n",
+            result[0], result[0] == 0 ? 0.0 : 100.0 * result[1] / result[0]);
+        System.out.printf("Requête en %.3f s : %.0f lignes/s%n", seconds, store.getNbRows() / seconds);
+    }
+
+    /**
+     * Ouvre un stockage et projette ses colonnes en mémoire.
+     * @param directory Le répertoire du stockage
+     * @throws IOException si une colonne manque ou si les colonnes n'ont pas le même nombre de lignes
+     */
+    public TurnStore(Path directory) throws IOException {
+        try(FileChannel g = open(directory, GAME); FileChannel t = open(directory, TURN);
+            FileChannel p = open(directory, PLAYER); FileChannel ty = open(directory, TYPE);
+            FileChannel c = open(directory, CARD); FileChannel tb = open(directory, TOKENS_BEFORE);
+            FileChannel ta = open(directory, TOKENS_AFTER); FileChannel pts = open(directory, POINTS);
+            FileChannel w = open(directory, WINNER)){
+            nbRows = g.size() / 4;
+            nbGames = (int) w.size();
+            if(t.size() != nbRows * 2 || p.size() != nbRows || ty.size() != nbRows || c.size() != nbRows
+               || tb.size() != nbRows || ta.size() != nbRows || pts.size() != nbRows){
+                throw new IOException("Colonnes de tailles différentes dans " + directory);
+            }
+            // Une projection reste valide après la fermeture du canal.
+            game = new Column(g, 4, nbRows);
+            turn = new Column(t, 2, nbRows);
+            player = new Column(p, 1, nbRows);
+            type = new Column(ty, 1, nbRows);
+            card = new Column(c, 1, nbRows);
+            tokensBefore = new Column(tb, 1, nbRows);
+            tokensAfter = new Column(ta, 1, nbRows);
+            points = new Column(pts, 1, nbRows);
+            winner = new Column(w, 1, nbGames);
+        }
+    }
+
+    private static FileChannel open(Path directory, String name) throws IOException {
+        return FileChannel.open(directory.resolve(name), StandardOpenOption.READ);
+    }
+
+    /* ---------- LECTURE ---------- */
+
+    /**
+     * Retourne le nombre de lignes (actions) du stockage.
+     * @return Le nombre de lignes
+     */
+    public long getNbRows(){
+        return nbRows;
+    }
+
+    /**
+     * Retourne le nombre de parties du stockage.
+     * @return Le nombre de parties
+     */
+    public int getNbGames(){
+        return nbGames;
+    }
+
+    /**
+     * Retourne le numéro de la partie d'une ligne.
+     * @param row La ligne
+     * @return Le numéro de la partie
+     */
+    public int getGame(long row){
+        return game.getInt(row);
+    }
+
+    /**
+     * Retourne le tour de la partie où l'action d'une ligne a été jouée.
+     * @param row La ligne
+     * @return Le tour (0 pour la première action)
+     */
+    public int getTurn(long row){
+        return turn.getShort(row);
+    }
+
+    /**
+     * Retourne la place du joueur d'une ligne.
+     * @param row La ligne
+     * @return La place du joueur (0-3)
+     */
+    public int getPlayer(long row){
+        return player.getByte(row);
+    }
+
+    /**
+     * Retourne le type de l'action d'une ligne.
+     * @param row La ligne
+     * @return Le type de l'action (voir Move)
+     */
+    public int getType(long row){
+        return type.getByte(row);
+    }
+
+    /**
+     * Retourne la carte achetée à une ligne.
+     * @param row La ligne
+     * @return L'identifiant de la carte (voir CardCatalog), ou -1 si aucune
+     */
+    public int getCard(long row){
+        return card.getByte(row);
+    }
+
+    /**
+     * Retourne le niveau de la carte achetée à une ligne.
+     * @param row La ligne
+     * @return Le niveau (1-3), ou 0 si aucune carte n'a été achetée
+     */
+    public int getCardTier(long row){
+        int id = card.getByte(row);
+        return id < 0 ? 0 : CARD_TIER[id];
+    }
+
+    /**
+     * Retourne le nombre de jetons du joueur avant l'action d'une ligne.
+     * @param row La ligne
+     * @return Le nombre de jetons
+     */
+    public int getTokensBefore(long row){
+        return tokensBefore.getByte(row);
+    }
+
+    /**
+     * Retourne le nombre de jetons du joueur après l'action d'une ligne.
+     * @param row La ligne
+     * @return Le nombre de jetons
+     */
+    public int getTokensAfter(long row){
+        return tokensAfter.getByte(row);
+    }
+
+    /**
+     * Retourne les points du joueur après l'action d'une ligne.
+     * @param row La ligne
+     * @return Les points
+     */
+    public int getPoints(long row){
+        return points.getByte(row);
+    }
+
+    /**
+     * Retourne la place du gagnant d'une partie.
+     * @param gameIndex Le numéro de la partie
+     * @return La place du gagnant, ou -1 en cas d'égalité
+     */
+    public int getWinner(int gameIndex){
+        return winner.getByte(gameIndex);
+    }
+
+    /* ---------- REQUÊTES ---------- */
+
+    /**
+     * Compte les lignes qui vérifient une condition, en parallèle.
+     * @param filter La condition
+     * @return Le nombre de lignes retenues
+     */
+    public long count(RowFilter filter){
+        return chunks().mapToLong(chunk -> {
+            long n = 0;
+            for(long row = chunkStart(chunk), end = chunkStart(chunk + 1); row < end; row++){
+                if(filter.test(this, row)) n++;
+            }
+            return n;
+        }).sum();
+    }
+
+    /**
+     * Compte, parmi les joueurs (une partie et une place) ayant au moins une ligne qui vérifie une
+     * condition, ceux qui ont gagné leur partie. Par exemple, avec « achat d'une carte de niveau 3
+     * avant le tour 15 », donne le taux de victoire des joueurs qui l'ont fait.
+     * @param filter La condition
+     * @return {nombre de joueurs retenus, nombre de victoires parmi eux}
+     */
+    public long[] winsWhen(RowFilter filter){
+        // Chaque tranche marque les joueurs (partie * 4 + place) qu'elle retient, puis on fusionne.
+        BitSet selected = chunks().mapToObj(chunk -> {
+            BitSet bits = new BitSet();
+            for(long row = chunkStart(chunk), end = chunkStart(chunk + 1); row < end; row++){
+                if(filter.test(this, row)){
+                    bits.set(game.getInt(row) * 4 + player.getByte(row));
+                }
+            }
+            return bits;
+        }).reduce(new BitSet(), (a, b) -> {
+            BitSet merged = (BitSet) a.clone();
+            merged.or(b);
+            return merged;
+        });
+        long wins = 0;
+        for(int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)){
+            if(getWinner(i / 4) == i % 4) wins++;
+        }
+        return new long[] {selected.cardinality(), wins};
+    }
+
+    private IntStream chunks(){
+        return IntStream.range(0, NB_CHUNKS).parallel();
+    }
+
+    private long chunkStart(int chunk){
+        return nbRows * chunk / NB_CHUNKS;
+    }
+}
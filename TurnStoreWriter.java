@@ -0,0 +1,283 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Écrit les faits de chaque action jouée dans un stockage en colonnes (voir TurnStore) :
+ * un fichier binaire par colonne, de largeur fixe, auquel chaque partie ajoute ses lignes.
+ * Les parties jouées en parallèle sont enregistrées chacune par son propre observateur
+ * (newRecorder) et ajoutées d'un bloc à leur fin : les lignes d'une partie sont contiguës.
+ *
+ * Les tampons de toutes les colonnes sont vidés ensemble, entre deux parties, et WINNER en dernier :
+ * une partie dont le gagnant est dans le fichier a toutes ses lignes écrites. Après un arrêt brutal,
+ * la réouverture coupe les colonnes après la dernière partie complète (voir truncateToLastGame).
+ */
+public class TurnStoreWriter implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    /**
+     * Une colonne en cours d'écriture : un fichier, la largeur de ses valeurs et son tampon.
+     */
+    private static final class ColumnWriter {
+        final FileChannel channel;
+        final int width;
+        final ByteBuffer buffer;
+
+        ColumnWriter(Path file, int width) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE);
+            this.width = width;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        boolean fits(int values){
+            return buffer.remaining() >= values * width;
+        }
+
+        /**
+         * Réserve de la place dans le tampon. Il n'est vidé ici que pour une partie plus longue
+         * que le tampon : sinon, append a déjà vidé toutes les colonnes avant la partie.
+         */
+        ByteBuffer reserve(int bytes) throws IOException {
+            if(buffer.remaining() < bytes){
+                flush();
+            }
+            return buffer;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        int readInt(long row) throws IOException {
+            ByteBuffer value = ByteBuffer.allocate(4);
+            while(value.hasRemaining()){
+                if(channel.read(value, row * 4 + value.position()) < 0){
+                    throw new IOException("Colonne plus courte que prévu.");
+                }
+            }
+            return value.getInt(0);
+        }
+    }
+
+    private final ColumnWriter game;
+    private final ColumnWriter turn;
+    private final ColumnWriter player;
+    private final ColumnWriter type;
+    private final ColumnWriter card;
+    private final ColumnWriter tokensBefore;
+    private final ColumnWriter tokensAfter;
+    private final ColumnWriter points;
+    private final ColumnWriter winner;
+    private final ColumnWriter[] columns;
+    private int nbGames;
+
+    /**
+     * Ouvre un stockage en ajout, et le crée s'il n'existe pas. Les lignes d'une partie incomplète
+     * (arrêt brutal pendant l'écriture) sont d'abord effacées.
+     * @param directory Le répertoire du stockage
+     * @throws IOException si les fichiers ne peuvent pas être ouverts
+     */
+    public TurnStoreWriter(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        game = new ColumnWriter(directory.resolve(TurnStore.GAME), 4);
+        turn = new ColumnWriter(directory.resolve(TurnStore.TURN), 2);
+        player = new ColumnWriter(directory.resolve(TurnStore.PLAYER), 1);
+        type = new ColumnWriter(directory.resolve(TurnStore.TYPE), 1);
+        card = new ColumnWriter(directory.resolve(TurnStore.CARD), 1);
+        tokensBefore = new ColumnWriter(directory.resolve(TurnStore.TOKENS_BEFORE), 1);
+        tokensAfter = new ColumnWriter(directory.resolve(TurnStore.TOKENS_AFTER), 1);
+        points = new ColumnWriter(directory.resolve(TurnStore.POINTS), 1);
+        winner = new ColumnWriter(directory.resolve(TurnStore.WINNER), 1);
+        columns = new ColumnWriter[] {game, turn, player, type, card, tokensBefore, tokensAfter, points, winner};
+        nbGames = truncateToLastGame();
+    }
+
+    /**
+     * Coupe les colonnes après la dernière partie complète : celle dont le gagnant est écrit et dont
+     * les lignes sont dans toutes les colonnes (voir append pour l'ordre des écritures), et place
+     * l'écriture de chaque colonne à sa fin.
+     * @return Le nombre de parties complètes, qui est aussi le numéro de la prochaine partie
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+    private int truncateToLastGame() throws IOException {
+        long rows = Long.MAX_VALUE;
+        for(ColumnWriter column : columns){
+            if(column != winner){
+                rows = Math.min(rows, column.channel.size() / column.width);
+            }
+        }
+        // Les lignes d'une partie sont contiguës et les parties numérotées dans l'ordre : les parties
+        // avant celle de la dernière ligne sont complètes, celle-ci l'est si son gagnant est écrit.
+        long games = rows == 0 ? 0 : Math.min(winner.channel.size(), game.readInt(rows - 1) + 1L);
+        while(rows > 0 && game.readInt(rows - 1) >= games){
+            rows--;
+        }
+        for(ColumnWriter column : columns){
+            long size = (column == winner ? games : rows) * column.width;
+            if(column.channel.size() > size){
+                column.channel.truncate(size);
+            }
+            column.channel.position(size);
+        }
+        return (int) games;
+    }
+
+    /**
+     * Crée un observateur qui note les actions d'une partie et les ajoute au stockage à sa fin.
+     * Chaque partie doit avoir son propre observateur.
+     * @return L'observateur à ajouter à la partie (voir Game.addListener)
+     */
+    public GameListener newRecorder(){
+        return new GameListener(){
+            private final Rows rows = new Rows();
+            private final int[] lastTokens = new int[4];
+
+            @Override
+            public void gameStarted(Game game){
+                rows.size = 0;
+                for(int p = 0; p < game.getNbPlayers(); p++){
+                    lastTokens[p] = game.getPlayers().get(p).getNbTokens();
+                }
+            }
+
+            @Override
+            public void actionPlayed(Game game, int seat, Action action){
+                // Seules les actions d'un joueur changent ses jetons : ses jetons avant l'action
+                // sont ceux notés après sa dernière action.
+                Player p = game.getPlayers().get(seat);
+                DevCard card = null;
+                if(action instanceof BuyCardAction){
+                    card = ((BuyCardAction) action).getBoughtCard();
+                } else if(action instanceof BuyReservedCardAction){
+                    card = ((BuyReservedCardAction) action).getBoughtCard();
+                } else if(action instanceof ReserveCardAction){
+                    card = ((ReserveCardAction) action).getReservedCard();
+                }
+                int cardId = card == null ? -1 : card.getId();
+                rows.add(game.getNbTurns(), seat, action == null ? Move.PASS : Move.type(Move.fromAction(action)),
+                         cardId, lastTokens[seat], p.getNbTokens(), p.getPoints());
+                lastTokens[seat] = p.getNbTokens();
+            }
+
+            @Override
+            public void gameEnded(Game game){
+                Player w = game.getWinner();
+                try{
+                    append(rows, w == null ? -1 : w.getId());
+                } catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Lignes d'une partie en cours, gardées en mémoire jusqu'à sa fin.
+     */
+    private static final class Rows {
+        int size;
+        short[] turn = new short[512];
+        byte[] player = new byte[512];
+        byte[] type = new byte[512];
+        byte[] card = new byte[512];
+        byte[] tokensBefore = new byte[512];
+        byte[] tokensAfter = new byte[512];
+        byte[] points = new byte[512];
+
+        void add(int t, int p, int ty, int c, int before, int after, int pts){
+            if(size == turn.length){
+                int n = size * 2;
+                turn = Arrays.copyOf(turn, n);
+                player = Arrays.copyOf(player, n);
+                type = Arrays.copyOf(type, n);
+                card = Arrays.copyOf(card, n);
+                tokensBefore = Arrays.copyOf(tokensBefore, n);
+                tokensAfter = Arrays.copyOf(tokensAfter, n);
+                points = Arrays.copyOf(points, n);
+            }
+            turn[size] = (short) Math.min(t, Short.MAX_VALUE);
+            player[size] = (byte) p;
+            type[size] = (byte) ty;
+            card[size] = (byte) c;
+            tokensBefore[size] = (byte) before;
+            tokensAfter[size] = (byte) after;
+            points[size] = (byte) pts;
+            size++;
+        }
+    }
+
+    /**
+     * Ajoute les lignes d'une partie terminée. Si une colonne n'a plus la place de toute la partie
+     * dans son tampon, toutes les colonnes sont d'abord vidées (voir flushAll) : les fichiers
+     * s'arrêtent ainsi entre deux parties.
+     * @param rows Les lignes de la partie
+     * @param winnerSeat La place du gagnant, ou -1 en cas d'égalité
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private synchronized void append(Rows rows, int winnerSeat) throws IOException {
+        boolean fits = winner.fits(1);
+        for(ColumnWriter column : columns){
+            fits &= column == winner || column.fits(rows.size);
+        }
+        if(!fits){
+            flushAll();
+        }
+        int gameIndex = nbGames++;
+        for(int i = 0; i < rows.size; i++){
+            game.reserve(4).putInt(gameIndex);
+            turn.reserve(2).putShort(rows.turn[i]);
+            player.reserve(1).put(rows.player[i]);
+            type.reserve(1).put(rows.type[i]);
+            card.reserve(1).put(rows.card[i]);
+            tokensBefore.reserve(1).put(rows.tokensBefore[i]);
+            tokensAfter.reserve(1).put(rows.tokensAfter[i]);
+            points.reserve(1).put(rows.points[i]);
+        }
+        winner.reserve(1).put((byte) winnerSeat);
+    }
+
+    /**
+     * Vide les tampons de toutes les colonnes, WINNER en dernier.
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void flushAll() throws IOException {
+        for(ColumnWriter column : columns){
+            column.flush();
+        }
+    }
+
+    /**
+     * Écrit les lignes encore dans les tampons et ferme les fichiers.
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try{
+            flushAll();
+        } finally {
+            IOException error = null;
+            for(ColumnWriter column : columns){
+                try{
+                    column.channel.close();
+                } catch(IOException e){
+                    error = e;
+                }
+            }
+            if(error != null){
+                throw error;
+            }
+        }
+    }
+}
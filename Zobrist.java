@@ -0,0 +1,199 @@
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Clés de Zobrist pour reconnaître une position atteinte par des suites de coups différentes
+ * (prendre des jetons puis acheter, ou l'inverse). Le hash d'une position est le XOR des clés de :
+ * - chaque quantité de jetons du plateau (jetons or compris) ;
+ * - la carte de chaque case visible et la profondeur de chaque pile ;
+ * - chaque noble encore sur le plateau ;
+ * - les jetons (or compris), les bonus, les points et les cartes réservées de chaque joueur ;
+ * - le joueur dont c'est le tour.
+ * Quand une valeur change, on retire l'ancienne clé et on ajoute la nouvelle par un XOR : Board,
+ * Player et GameState tiennent ainsi leur hash à jour en O(1) à chaque coup.
+ * Les clés sont tirées d'une graine fixe : deux JVM donnent le même hash pour la même position.
+ * Les valeurs au-delà de MAX_VALUE partagent la même clé.
+ */
+public final class Zobrist
+{
+    /** Plus grande valeur distinguée (jetons, bonus, points, profondeur de pile). */
+    public static final int MAX_VALUE = 63;
+
+    private static final int MAX_PLAYERS = 4;
+    private static final int NB_SLOTS = 12;
+    private static final int MAX_NOBLES = MAX_PLAYERS + 1;
+    private static final long SEED = 0x5EED5A1E5D0A11L;
+
+    private static final long[] BOARD_TOKENS;
+    private static final long[] SLOTS;
+    private static final long[] DECKS;
+    private static final long[] PLAYER_TOKENS;
+    private static final long[] PLAYER_BONUSES;
+    private static final long[] PLAYER_POINTS;
+    private static final long[] SIDES;
+    private static final long[] NOBLES;
+    private static final long[] BOARD_GOLD;
+    private static final long[] PLAYER_GOLD;
+    private static final long[] RESERVED;
+    private static final int NB_SLOT_KEYS;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int values = MAX_VALUE + 1;
+        NB_SLOT_KEYS = CardCatalog.getInstance().getNbCards() + 1; // + la case vide
+        BOARD_TOKENS = keys(random, Resources.NB_TYPES * values);
+        SLOTS = keys(random, NB_SLOTS * NB_SLOT_KEYS);
+        DECKS = keys(random, 3 * values);
+        PLAYER_TOKENS = keys(random, MAX_PLAYERS * Resources.NB_TYPES * values);
+        PLAYER_BONUSES = keys(random, MAX_PLAYERS * Resources.NB_TYPES * values);
+        PLAYER_POINTS = keys(random, MAX_PLAYERS * values);
+        SIDES = keys(random, MAX_PLAYERS);
+        NOBLES = keys(random, MAX_NOBLES);
+        BOARD_GOLD = keys(random, values);
+        PLAYER_GOLD = keys(random, MAX_PLAYERS * values);
+        RESERVED = keys(random, MAX_PLAYERS * NB_SLOT_KEYS);
+    }
+
+    private Zobrist(){
+    }
+
+    private static long[] keys(SplittableRandom random, int n){
+        long[] keys = new long[n];
+        for(int i = 0; i < n; i++){
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    private static int clamp(int value){
+        return Math.min(Math.max(value, 0), MAX_VALUE);
+    }
+
+    /* ---------- CLÉS ---------- */
+
+    /**
+     * Clé d'une quantité de jetons sur le plateau.
+     * @param index L'indice (ordinal) de la ressource
+     * @param count Le nombre de jetons
+     * @return La clé
+     */
+    public static long boardTokens(int index, int count){
+        return BOARD_TOKENS[index * (MAX_VALUE + 1) + clamp(count)];
+    }
+
+    /**
+     * Clé de la carte d'une case visible.
+     * @param slot La case (niveau * 4 + colonne)
+     * @param cardId L'identifiant de la carte (CardCatalog), ou -1 si la case est vide
+     * @return La clé
+     */
+    public static long slot(int slot, int cardId){
+        return SLOTS[slot * NB_SLOT_KEYS + cardId + 1];
+    }
+
+    /**
+     * Clé de la profondeur d'une pile.
+     * @param tier Le niveau de la pile (1, 2 ou 3)
+     * @param size Le nombre de cartes restant dans la pile
+     * @return La clé
+     */
+    public static long deck(int tier, int size){
+        return DECKS[(tier - 1) * (MAX_VALUE + 1) + clamp(size)];
+    }
+
+    /**
+     * Clé d'une quantité de jetons d'un joueur.
+     * @param player La place du joueur (0-3)
+     * @param index L'indice (ordinal) de la ressource
+     * @param count Le nombre de jetons
+     * @return La clé
+     */
+    public static long playerTokens(int player, int index, int count){
+        return PLAYER_TOKENS[(player * Resources.NB_TYPES + index) * (MAX_VALUE + 1) + clamp(count)];
+    }
+
+    /**
+     * Clé d'un bonus d'un joueur.
+     * @param player La place du joueur (0-3)
+     * @param index L'indice (ordinal) de la ressource
+     * @param count Le nombre de cartes de cette ressource
+     * @return La clé
+     */
+    public static long playerBonus(int player, int index, int count){
+        return PLAYER_BONUSES[(player * Resources.NB_TYPES + index) * (MAX_VALUE + 1) + clamp(count)];
+    }
+
+    /**
+     * Clé des points d'un joueur.
+     * @param player La place du joueur (0-3)
+     * @param points Les points
+     * @return La clé
+     */
+    public static long playerPoints(int player, int points){
+        return PLAYER_POINTS[player * (MAX_VALUE + 1) + clamp(points)];
+    }
+
+    /**
+     * Clé du joueur dont c'est le tour.
+     * @param player La place du joueur (0-3)
+     * @return La clé
+     */
+    public static long side(int player){
+        return SIDES[player];
+    }
+
+    /**
+     * Clé d'un noble encore sur le plateau.
+     * @param slot La place du noble sur le plateau (0 à nbJoueurs)
+     * @return La clé
+     */
+    public static long noble(int slot){
+        return NOBLES[slot];
+    }
+
+    /**
+     * Clé du nombre de jetons or sur le plateau.
+     * @param count Le nombre de jetons or
+     * @return La clé
+     */
+    public static long boardGold(int count){
+        return BOARD_GOLD[clamp(count)];
+    }
+
+    /**
+     * Clé du nombre de jetons or d'un joueur.
+     * @param player La place du joueur (0-3)
+     * @param count Le nombre de jetons or
+     * @return La clé
+     */
+    public static long playerGold(int player, int count){
+        return PLAYER_GOLD[player * (MAX_VALUE + 1) + clamp(count)];
+    }
+
+    /**
+     * Clé d'une carte réservée par un joueur.
+     * @param player La place du joueur (0-3)
+     * @param cardId L'identifiant de la carte (CardCatalog)
+     * @return La clé
+     */
+    public static long reserved(int player, int cardId){
+        return RESERVED[player * NB_SLOT_KEYS + cardId + 1];
+    }
+
+    /* ---------- HASH COMPLET ---------- */
+
+    /**
+     * Calcule le hash d'une position à partir des hash tenus à jour par le plateau et les joueurs.
+     * @param board Le plateau
+     * @param players Les joueurs, dans l'ordre de jeu
+     * @param currentPlayer L'indice du joueur dont c'est le tour
+     * @return Le hash de la position
+     */
+    public static long hash(Board board, List<Player> players, int currentPlayer){
+        long hash = board.getHash() ^ side(currentPlayer);
+        for(Player player : players){
+            hash ^= player.getHash();
+        }
+        return hash;
+    }
+}
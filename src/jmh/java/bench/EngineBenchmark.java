@@ -0,0 +1,208 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH des chemins chauds du moteur : construction du plateau, Resources, canBuyCard,
+ * évaluation des cartes et paiement, chaque Action.process, la décision de DumbRobotPlayer,
+ * des parties complètes et l'affichage du plateau (toStringArray et FrameBuffer).
+ *
+ * Les classes du jeu sont dans le paquetage par défaut, que JMH refuse et qu'un paquetage nommé
+ * ne peut pas importer : chaque benchmark appelle une opération de BenchmarkOperations, obtenue
+ * une fois par réflexion à la mise en place. L'appel de l'opération est ensuite un appel d'interface
+ * à un seul receveur, que le JIT intègre. Les actions sont suivies de leur undo (voir BenchmarkOperations).
+ *
+ * Utilisation, depuis la racine du projet (stats.csv y est lu) :
+ *   mvn -B -P jmh package
+ *   java -jar target/benchmarks.jar -prof gc          (tous les benchmarks, avec l'allocation)
+ *   java -jar target/benchmarks.jar -prof gc buy      (les benchmarks dont le nom contient "buy")
+ * Le profileur gc donne l'allocation par opération dans gc.alloc.rate.norm (octets/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    private LongSupplier catalog;
+    private LongSupplier resources;
+    private LongSupplier board;
+    private LongSupplier canBuyCard;
+    private LongSupplier evaluate;
+    private LongSupplier payment;
+    private LongSupplier pass;
+    private LongSupplier pickSame;
+    private LongSupplier pickDiff;
+    private LongSupplier discard;
+    private LongSupplier buy;
+    private LongSupplier reserve;
+    private LongSupplier buyReserved;
+    private LongSupplier robot;
+    private LongSupplier game;
+    private LongSupplier displayedGame;
+    private LongSupplier render;
+    private LongSupplier frame;
+
+    /**
+     * Prépare les opérations (plateaux, joueurs et actions) avant les mesures.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = operation("catalog");
+        resources = operation("resources");
+        board = operation("board");
+        canBuyCard = operation("canBuyCard");
+        evaluate = operation("evaluate");
+        payment = operation("payment");
+        pass = operation("pass");
+        pickSame = operation("pickSame");
+        pickDiff = operation("pickDiff");
+        discard = operation("discard");
+        buy = operation("buy");
+        reserve = operation("reserve");
+        buyReserved = operation("buyReserved");
+        robot = operation("robot");
+        game = operation("game");
+        displayedGame = operation("displayedGame");
+        render = operation("render");
+        frame = operation("frame");
+    }
+
+    /**
+     * Retourne une opération de BenchmarkOperations (paquetage par défaut).
+     * @param name Le nom de l'opération
+     * @return L'opération
+     */
+    private static LongSupplier operation(String name) {
+        try {
+            return (LongSupplier) Class.forName("BenchmarkOperations")
+                .getMethod("get", String.class)
+                .invoke(null, name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Opération introuvable : " + name, e);
+        }
+    }
+
+    /** Lecture et analyse du fichier des cartes. */
+    @Benchmark
+    public long catalogLoad() {
+        return catalog.getAsLong();
+    }
+
+    /** Une mise à jour puis une lecture de jetons sur Resources. */
+    @Benchmark
+    public long resourcesGetUpdate() {
+        return resources.getAsLong();
+    }
+
+    /** Construction d'un plateau. */
+    @Benchmark
+    public long boardConstruction() {
+        return board.getAsLong();
+    }
+
+    /** Player.canBuyCard sur une carte visible, en fin de partie. */
+    @Benchmark
+    public long canBuyCard() {
+        return canBuyCard.getAsLong();
+    }
+
+    /** Board.evaluateCards sur les 12 cartes visibles, en fin de partie. */
+    @Benchmark
+    public long evaluateCards() {
+        return evaluate.getAsLong();
+    }
+
+    /** PackedResources.payment d'une carte avec jetons or. */
+    @Benchmark
+    public long goldPayment() {
+        return payment.getAsLong();
+    }
+
+    /** PassAction.process. */
+    @Benchmark
+    public long passProcess() {
+        return pass.getAsLong();
+    }
+
+    /** PickSameTokensAction.process puis undo. */
+    @Benchmark
+    public long pickSameProcess() {
+        return pickSame.getAsLong();
+    }
+
+    /** PickDiffTokensAction.process puis undo. */
+    @Benchmark
+    public long pickDiffProcess() {
+        return pickDiff.getAsLong();
+    }
+
+    /** DiscardTokensAction.process puis undo. */
+    @Benchmark
+    public long discardProcess() {
+        return discard.getAsLong();
+    }
+
+    /** BuyCardAction.process puis undo. */
+    @Benchmark
+    public long buyProcess() {
+        return buy.getAsLong();
+    }
+
+    /** ReserveCardAction.process puis undo. */
+    @Benchmark
+    public long reserveProcess() {
+        return reserve.getAsLong();
+    }
+
+    /** BuyReservedCardAction.process puis undo. */
+    @Benchmark
+    public long buyReservedProcess() {
+        return buyReserved.getAsLong();
+    }
+
+    /** DumbRobotPlayer.chooseAction, son exécution puis undo. */
+    @Benchmark
+    public long robotChooseAction() {
+        return robot.getAsLong();
+    }
+
+    /** Game.play : une partie complète entre deux robots, sans affichage. */
+    @Benchmark
+    public long gamePlay() {
+        return game.getAsLong();
+    }
+
+    /** Game.play avec l'affichage du plateau à chaque tour, dans une sortie mémoire. */
+    @Benchmark
+    public long displayedGamePlay() {
+        return displayedGame.getAsLong();
+    }
+
+    /** Board.toStringArray après un changement du plateau. */
+    @Benchmark
+    public long boardToStringArray() {
+        return render.getAsLong();
+    }
+
+    /** Game.renderFrame (plateau et joueurs dans un FrameBuffer) après un changement du plateau. */
+    @Benchmark
+    public long renderFrame() {
+        return frame.getAsLong();
+    }
+}